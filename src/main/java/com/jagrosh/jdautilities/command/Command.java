@@ -11,6 +11,7 @@ import me.turulix.main.DiscordBot;
 import me.turulix.main.UtilClasses.SubClasses.DatabaseInterface;
 import me.turulix.main.UtilClasses.TextUtilities;
 import me.turulix.main.i18n.I18nContext;
+import me.turulix.main.i18n.MessageKey;
 import net.dv8tion.jda.core.Permission;
 import net.dv8tion.jda.core.entities.ChannelType;
 import net.dv8tion.jda.core.entities.TextChannel;
@@ -20,6 +21,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.function.Predicate;
 
@@ -65,6 +67,13 @@ import java.util.function.Predicate;
 public abstract class Command extends DatabaseInterface {
     private final static String BOT_PERM = "%s I need the %s permission in this %s!";
     private final static String USER_PERM = "%s You must have the %s permission in this %s to use that!";
+    private final static AtomicInteger COOLDOWN_IDS = new AtomicInteger();
+    /**
+     * Unique per Command instance, packed into the cooldown keys instead of the name.
+     */
+    private final int cooldownId = COOLDOWN_IDS.incrementAndGet();
+    // The name is only final once the constructor of the subclass ran
+    private MessageKey nameKey;
     /**
      * The name of the command, allows the command to be called the format: {@code [prefix]<command name>}.
      */
@@ -169,8 +178,12 @@ public abstract class Command extends DatabaseInterface {
      * @param event The CommandEvent that triggered this Command
      */
     public final void run(CommandEvent event, List<Command> parrents) {
-        Database db = DiscordBot.instance.registerStuff.database;
-        I18nContext context = new I18nContext(db.guildSettingsDataManager.getSettings(event.getGuild()), db.userManager.getUserSettings(event.getAuthor().getIdLong()));
+        I18nContext context = event.getContext();
+        if (context == null) {
+            Database db = DiscordBot.instance.registerStuff.database;
+            context = new I18nContext(event.getGuild() == null ? null : db.guildSettingsDataManager.getSettings(event.getGuild()), db.userManager.getUserSettings(event.getAuthor().getIdLong()));
+            event.setContext(context);
+        }
 
         // child check
         if (!event.getArgs().isEmpty()) {
@@ -186,12 +199,11 @@ public abstract class Command extends DatabaseInterface {
             } else {
                 parrents.add(this);
             }
-            for (Command cmd : children) {
-                if (cmd.isCommandFor(parts[0], context, parrents, cmd)) {
-                    event.setArgs(parts[1] == null ? "" : parts[1]);
-                    cmd.run(event, parrents);
-                    return;
-                }
+            Command child = children.length == 0 ? null : event.getClient().getCommandIndex().findChild(context.getContextLanguage(), this, parts[0]);
+            if (child != null) {
+                event.setArgs(parts[1] == null ? "" : parts[1]);
+                child.run(event, parrents);
+                return;
             }
         }
 
@@ -211,7 +223,8 @@ public abstract class Command extends DatabaseInterface {
 
         //Vote check
         if (requireVote) {
-            if (!DiscordBot.instance.registerStuff.database.userManager.hasUserVoted(event.getAuthor().getIdLong())) {
+            // The context holds the cached settings of the author, so this doesn't need the database
+            if (!context.getUserSettings().getHasVoted()) {
                 TextUtilities.sendVote(event);
                 return;
             }
@@ -288,20 +301,19 @@ public abstract class Command extends DatabaseInterface {
 
         //cooldown check
         if (cooldown > 0) {
-            String key = getCooldownKey(event);
-            int remaining = event.getClient().getRemainingCooldown(key);
+            CooldownScope scope = getEffectiveCooldownScope(event);
+            int remaining = event.getClient().tryApplyCooldown(cooldownId << 4 | scope.ordinal(), scope.firstId(event), scope.secondId(event), cooldown);
             if (remaining > 0) {
                 String error = getCooldownError(event, remaining);
                 if (error != null) {
                     terminate(event, error);
                     return;
                 }
-            } else {
-                event.getClient().applyCooldown(key, cooldown);
             }
         }
 
         // run
+        long started = System.nanoTime();
         try {
             execute(event, context);
         } catch (Throwable t) {
@@ -311,6 +323,8 @@ public abstract class Command extends DatabaseInterface {
             }
             // otherwise we rethrow
             throw t;
+        } finally {
+            event.getClient().getMetrics().recordExecute(this, parrents, System.nanoTime() - started);
         }
 
         if (event.getClient().getListener() != null) event.getClient().getListener().onCompletedCommand(event, this);
@@ -324,7 +338,8 @@ public abstract class Command extends DatabaseInterface {
      */
     public boolean isCommandFor(String input, I18nContext context, List<Command> parents, Command cmd) {
         if (parents == null) {
-            return context.get("command." + name + ".name").equalsIgnoreCase(input);
+            if (nameKey == null) nameKey = MessageKey.of("command." + name + ".name");
+            return context.get(nameKey).equalsIgnoreCase(input);
         } else {
             StringBuilder builder = new StringBuilder("command.");
 
@@ -565,6 +580,29 @@ public abstract class Command extends DatabaseInterface {
         }
     }
 
+    /**
+     * Gets the {@link com.jagrosh.jdautilities.command.Command.CooldownScope CooldownScope} that actually applies under
+     * the provided {@link com.jagrosh.jdautilities.command.CommandEvent CommandEvent}, with the same fallbacks as {@link
+     * #getCooldownKey(CommandEvent)}.
+     *
+     * @param event The CommandEvent to get the scope for.
+     * @return The scope to build the cooldown key with.
+     */
+    public CooldownScope getEffectiveCooldownScope(CommandEvent event) {
+        switch (cooldownScope) {
+            case USER_GUILD:
+                return event.getGuild() != null ? CooldownScope.USER_GUILD : CooldownScope.USER_CHANNEL;
+            case GUILD:
+                return event.getGuild() != null ? CooldownScope.GUILD : CooldownScope.CHANNEL;
+            case SHARD:
+                return event.getJDA().getShardInfo() != null ? CooldownScope.SHARD : CooldownScope.GLOBAL;
+            case USER_SHARD:
+                return event.getJDA().getShardInfo() != null ? CooldownScope.USER_SHARD : CooldownScope.USER;
+            default:
+                return cooldownScope;
+        }
+    }
+
     /**
      * Gets an error message for this Command under the provided {@link com.jagrosh.jdautilities.command.CommandEvent
      * CommanEvent}.
@@ -733,6 +771,37 @@ public abstract class Command extends DatabaseInterface {
             this.errorSpecification = errorSpecification;
         }
 
+        long firstId(CommandEvent event) {
+            switch (this) {
+                case USER:
+                case USER_CHANNEL:
+                case USER_GUILD:
+                case USER_SHARD:
+                    return event.getAuthor().getIdLong();
+                case CHANNEL:
+                    return event.getChannel().getIdLong();
+                case GUILD:
+                    return event.getGuild().getIdLong();
+                case SHARD:
+                    return event.getJDA().getShardInfo().getShardId();
+                default:
+                    return 0;
+            }
+        }
+
+        long secondId(CommandEvent event) {
+            switch (this) {
+                case USER_CHANNEL:
+                    return event.getChannel().getIdLong();
+                case USER_GUILD:
+                    return event.getGuild().getIdLong();
+                case USER_SHARD:
+                    return event.getJDA().getShardInfo().getShardId();
+                default:
+                    return 0;
+            }
+        }
+
         String genKey(String name, long id) {
             return genKey(name, id, -1);
         }
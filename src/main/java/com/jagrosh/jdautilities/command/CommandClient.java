@@ -6,6 +6,10 @@
 
 package com.jagrosh.jdautilities.command;
 
+import com.jagrosh.jdautilities.command.impl.AdmissionLimiter;
+import com.jagrosh.jdautilities.command.impl.CommandExecutionEngine;
+import com.jagrosh.jdautilities.command.impl.CommandMetrics;
+import me.turulix.main.i18n.LocalizedCommandIndex;
 import net.dv8tion.jda.core.entities.Guild;
 
 import java.time.OffsetDateTime;
@@ -36,6 +40,8 @@ public interface CommandClient {
 
     List<Command> getCommands();
 
+    LocalizedCommandIndex getCommandIndex();
+
     OffsetDateTime getStartTime();
 
     OffsetDateTime getCooldown(String var1);
@@ -44,12 +50,24 @@ public interface CommandClient {
 
     void applyCooldown(String var1, int var2);
 
+    int tryApplyCooldown(int scope, long idOne, long idTwo, int seconds);
+
     void cleanCooldowns();
 
     int getCommandUses(Command var1);
 
     int getCommandUses(String var1);
 
+    long getAcceptedMessages();
+
+    long getRejectedMessages();
+
+    CommandExecutionEngine getExecutionEngine();
+
+    CommandMetrics getMetrics();
+
+    AdmissionLimiter getAdmissionLimiter();
+
     String getOwnerId();
 
     long getOwnerIdLong();
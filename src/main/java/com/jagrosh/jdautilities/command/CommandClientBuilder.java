@@ -6,8 +6,10 @@
 
 package com.jagrosh.jdautilities.command;
 
+import com.jagrosh.jdautilities.command.impl.AdmissionLimiter;
 import com.jagrosh.jdautilities.command.impl.AnnotatedModuleCompilerImpl;
 import com.jagrosh.jdautilities.command.impl.CommandClientImpl;
+import com.jagrosh.jdautilities.command.impl.CommandExecutionEngine;
 import net.dv8tion.jda.core.OnlineStatus;
 import net.dv8tion.jda.core.entities.Game;
 
@@ -36,12 +38,14 @@ public class CommandClientBuilder {
     private Consumer<CommandEvent> helpConsumer;
     private String helpWord;
     private ScheduledExecutorService executor;
+    private CommandExecutionEngine engine;
+    private AdmissionLimiter limiter;
     private int linkedCacheSize = 0;
     private AnnotatedModuleCompiler compiler = new AnnotatedModuleCompilerImpl();
     private GuildSettingsManager manager = null;
 
     public CommandClient build() {
-        CommandClientImpl client = new CommandClientImpl(this.ownerId, this.coOwnerIds, this.prefix, this.altprefix, this.game, this.status, this.serverInvite, this.success, this.warning, this.error, this.carbonKey, this.botsKey, this.botsOrgKey, new ArrayList<Command>(this.commands), this.useHelp, this.helpConsumer, this.helpWord, this.executor, this.linkedCacheSize, this.compiler, this.manager);
+        CommandClientImpl client = new CommandClientImpl(this.ownerId, this.coOwnerIds, this.prefix, this.altprefix, this.game, this.status, this.serverInvite, this.success, this.warning, this.error, this.carbonKey, this.botsKey, this.botsOrgKey, new ArrayList<Command>(this.commands), this.useHelp, this.helpConsumer, this.helpWord, this.executor, this.engine, this.limiter, this.linkedCacheSize, this.compiler, this.manager);
         if (this.listener != null) {
             client.setListener(this.listener);
         }
@@ -164,6 +168,16 @@ public class CommandClientBuilder {
         return this;
     }
 
+    public CommandClientBuilder setExecutionEngine(CommandExecutionEngine engine) {
+        this.engine = engine;
+        return this;
+    }
+
+    public CommandClientBuilder setAdmissionLimiter(AdmissionLimiter limiter) {
+        this.limiter = limiter;
+        return this;
+    }
+
     public CommandClientBuilder setLinkedCacheSize(int linkedCacheSize) {
         this.linkedCacheSize = linkedCacheSize;
         return this;
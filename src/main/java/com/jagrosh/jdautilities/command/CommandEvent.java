@@ -8,6 +8,7 @@ package com.jagrosh.jdautilities.command;
 
 import com.jagrosh.jdautilities.command.impl.CommandClientImpl;
 import com.jagrosh.jdautilities.commons.utils.SafeIdUtil;
+import me.turulix.main.i18n.I18nContext;
 import net.dv8tion.jda.client.entities.Group;
 import net.dv8tion.jda.core.JDA;
 import net.dv8tion.jda.core.MessageBuilder;
@@ -25,11 +26,17 @@ public class CommandEvent {
     private final MessageReceivedEvent event;
     private final CommandClient client;
     private String args;
+    private I18nContext context;
 
     public CommandEvent(MessageReceivedEvent event, String args, CommandClient client) {
+        this(event, args, client, null);
+    }
+
+    public CommandEvent(MessageReceivedEvent event, String args, CommandClient client, I18nContext context) {
         this.event = event;
         this.args = args == null ? "" : args;
         this.client = client;
+        this.context = context;
     }
 
     public static ArrayList<String> splitMessage(String stringtoSend) {
@@ -66,6 +73,17 @@ public class CommandEvent {
         this.args = args;
     }
 
+    /**
+     * The language context resolved once for this invocation, shared by children and listeners.
+     */
+    public I18nContext getContext() {
+        return this.context;
+    }
+
+    void setContext(I18nContext context) {
+        this.context = context;
+    }
+
     public MessageReceivedEvent getEvent() {
         return this.event;
     }
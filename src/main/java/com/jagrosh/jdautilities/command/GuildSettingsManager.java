@@ -6,6 +6,7 @@
 
 package com.jagrosh.jdautilities.command;
 
+import net.dv8tion.jda.core.JDA;
 import net.dv8tion.jda.core.entities.Guild;
 
 import javax.annotation.Nullable;
@@ -17,6 +18,31 @@ public interface GuildSettingsManager<T> {
     default void init() {
     }
 
+    /**
+     * Called when a shard is ready, calls {@link #init()} unless overridden.
+     *
+     * @param jda The shard that is ready
+     */
+    default void init(JDA jda) {
+        init();
+    }
+
+    /**
+     * Called when the bot joins a guild, so its settings can be loaded before the first command needs them.
+     *
+     * @param guild The joined guild
+     */
+    default void prefetch(Guild guild) {
+    }
+
+    /**
+     * Called when the bot leaves a guild, so nothing is kept for it.
+     *
+     * @param guild The left guild
+     */
+    default void forget(Guild guild) {
+    }
+
     default void shutdown() {
     }
 }
@@ -0,0 +1,220 @@
+package com.jagrosh.jdautilities.command.impl;
+
+import me.turulix.main.UtilClasses.SubClasses.ConcurrentLongMap;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets per user, guild and shard that every possible command has to pass before it gets dispatched.
+ *
+ * <p>A message costs one token from each of its buckets. Buckets refill continuously up to their burst size and are
+ * dropped once they have been idle long enough to be full again, so only users that actually sent something recently
+ * take up memory.
+ * <br>When a bucket runs dry the message is dropped, and only the first dropped message of a streak asks for a warning.
+ */
+public class AdmissionLimiter {
+    private final Limit user;
+    private final Limit guild;
+    private final Limit shard;
+    private final ConcurrentLongMap<Bucket> users = new ConcurrentLongMap<>(1024);
+    private final ConcurrentLongMap<Bucket> guilds = new ConcurrentLongMap<>(1024);
+    private final ConcurrentLongMap<Bucket> shards = new ConcurrentLongMap<>(16);
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder[] throttled = {new LongAdder(), new LongAdder(), new LongAdder()};
+    private final LongSupplier clock;
+
+    /**
+     * @param user  Limit per user, null to not limit users
+     * @param guild Limit per guild, null to not limit guilds
+     * @param shard Limit per shard, null to not limit shards
+     */
+    public AdmissionLimiter(Limit user, Limit guild, Limit shard) {
+        this(user, guild, shard, System::nanoTime);
+    }
+
+    AdmissionLimiter(Limit user, Limit guild, Limit shard, LongSupplier clock) {
+        this.user = user;
+        this.guild = guild;
+        this.shard = shard;
+        this.clock = clock;
+    }
+
+    /**
+     * Takes a token from every bucket of the message. A message that gets throttled by one bucket takes nothing from
+     * the others, so a flood in one guild doesn't drain the buckets of its users elsewhere.
+     *
+     * @param guildId The guild id, 0 for private messages
+     * @param shardId The shard id, -1 if the client isn't sharded
+     * @return The result, {@link Result#ADMITTED} if the message may be handled.
+     */
+    public Result tryAcquire(long userId, long guildId, int shardId) {
+        long now = clock.getAsLong();
+        Bucket userBucket = user == null ? null : bucket(users, userId, user, now);
+        if (userBucket != null && !userBucket.tryAcquire(user, now)) return throttle(Scope.USER, userBucket);
+        Bucket guildBucket = guild == null || guildId == 0 ? null : bucket(guilds, guildId, guild, now);
+        if (guildBucket != null && !guildBucket.tryAcquire(guild, now)) {
+            if (userBucket != null) userBucket.refund(user);
+            return throttle(Scope.GUILD, guildBucket);
+        }
+        Bucket shardBucket = shard == null || shardId < 0 ? null : bucket(shards, shardId, shard, now);
+        if (shardBucket != null && !shardBucket.tryAcquire(shard, now)) {
+            if (userBucket != null) userBucket.refund(user);
+            if (guildBucket != null) guildBucket.refund(guild);
+            return throttle(Scope.SHARD, shardBucket);
+        }
+        admitted.increment();
+        return Result.ADMITTED;
+    }
+
+    private Result throttle(Scope scope, Bucket bucket) {
+        throttled[scope.ordinal()].increment();
+        return bucket.warn() ? Result.WARN : Result.DROP;
+    }
+
+    private static Bucket bucket(ConcurrentLongMap<Bucket> buckets, long key, Limit limit, long now) {
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            Bucket created = new Bucket(limit, now);
+            bucket = buckets.putIfAbsent(key, created);
+            if (bucket == null) bucket = created;
+        }
+        return bucket;
+    }
+
+    /**
+     * Drops every bucket that is full again, it would behave exactly like a new one.
+     */
+    public void evictIdle() {
+        long now = clock.getAsLong();
+        evictIdle(users, user, now);
+        evictIdle(guilds, guild, now);
+        evictIdle(shards, shard, now);
+    }
+
+    private static void evictIdle(ConcurrentLongMap<Bucket> buckets, Limit limit, long now) {
+        if (limit == null) return;
+        buckets.forEach((key, bucket) -> {
+            if (bucket.isFull(limit, now)) buckets.remove(key, bucket);
+        });
+    }
+
+    public long getAdmitted() {
+        return admitted.sum();
+    }
+
+    public long getThrottled(Scope scope) {
+        return throttled[scope.ordinal()].sum();
+    }
+
+    /**
+     * @return How many buckets of the scope are currently held in memory.
+     */
+    public int getTracked(Scope scope) {
+        switch (scope) {
+            case USER:
+                return users.size();
+            case GUILD:
+                return guilds.size();
+            default:
+                return shards.size();
+        }
+    }
+
+    /**
+     * Writes the admission counters and bucket counts in the Prometheus text format.
+     */
+    public void writePrometheus(StringBuilder out) {
+        out.append("# HELP notdankmemer_admission_total Possible commands that passed or got throttled by the admission limiter.\n");
+        out.append("# TYPE notdankmemer_admission_total counter\n");
+        out.append("notdankmemer_admission_total{result=\"admitted\"} ").append(getAdmitted()).append('\n');
+        for (Scope scope : Scope.values())
+            out.append("notdankmemer_admission_total{result=\"throttled\",scope=\"").append(scope.name().toLowerCase()).append("\"} ").append(getThrottled(scope)).append('\n');
+        out.append("# HELP notdankmemer_admission_buckets Token buckets currently held in memory.\n");
+        out.append("# TYPE notdankmemer_admission_buckets gauge\n");
+        for (Scope scope : Scope.values())
+            out.append("notdankmemer_admission_buckets{scope=\"").append(scope.name().toLowerCase()).append("\"} ").append(getTracked(scope)).append('\n');
+    }
+
+    public enum Scope {
+        USER, GUILD, SHARD
+    }
+
+    public enum Result {
+        /**
+         * The message may be handled.
+         */
+        ADMITTED,
+        /**
+         * The message was throttled and is the first one of its streak, the user should get told once.
+         */
+        WARN,
+        /**
+         * The message was throttled and should be ignored silently.
+         */
+        DROP
+    }
+
+    public static class Limit {
+        final double burst;
+        final double tokensPerNano;
+
+        /**
+         * @param burst     How many messages can be sent at once
+         * @param perSecond How many messages per second get added back
+         */
+        public Limit(int burst, double perSecond) {
+            this.burst = burst;
+            this.tokensPerNano = perSecond / TimeUnit.SECONDS.toNanos(1);
+        }
+
+        /**
+         * @return The limit or null if one of the values is missing or not positive, which disables the limit.
+         */
+        public static Limit of(Integer burst, Double perSecond) {
+            if (burst == null || perSecond == null || burst <= 0 || perSecond <= 0) return null;
+            return new Limit(burst, perSecond);
+        }
+    }
+
+    private static class Bucket {
+        private double tokens;
+        private long updated;
+        private boolean warned;
+
+        Bucket(Limit limit, long now) {
+            this.tokens = limit.burst;
+            this.updated = now;
+        }
+
+        synchronized boolean tryAcquire(Limit limit, long now) {
+            tokens = Math.min(limit.burst, tokens + (now - updated) * limit.tokensPerNano);
+            updated = now;
+            if (tokens < 1) return false;
+            tokens--;
+            warned = false;
+            return true;
+        }
+
+        /**
+         * Gives back the token of a message that another bucket throttled.
+         */
+        synchronized void refund(Limit limit) {
+            tokens = Math.min(limit.burst, tokens + 1);
+        }
+
+        /**
+         * @return True only for the first throttled message since the last admitted one.
+         */
+        synchronized boolean warn() {
+            if (warned) return false;
+            warned = true;
+            return true;
+        }
+
+        synchronized boolean isFull(Limit limit, long now) {
+            return tokens + (now - updated) * limit.tokensPerNano >= limit.burst;
+        }
+    }
+}
@@ -8,11 +8,15 @@ package com.jagrosh.jdautilities.command.impl;
 
 import com.jagrosh.jdautilities.command.*;
 import com.jagrosh.jdautilities.command.Command.Category;
-import com.jagrosh.jdautilities.commons.utils.FixedSizeCache;
 import com.jagrosh.jdautilities.commons.utils.SafeIdUtil;
 import me.turulix.main.Database.Database;
+import me.turulix.main.Database.Manager.GuildSettingsDataManager;
+import me.turulix.main.Database.Manager.UserManager;
 import me.turulix.main.DiscordBot;
+import me.turulix.main.i18n.I18n;
 import me.turulix.main.i18n.I18nContext;
+import me.turulix.main.i18n.LocalizedCommandIndex;
+import me.turulix.main.UtilClasses.SubClasses.LongTinyLfuCache;
 import net.dv8tion.jda.core.JDA;
 import net.dv8tion.jda.core.OnlineStatus;
 import net.dv8tion.jda.core.Permission;
@@ -38,10 +42,11 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.io.Reader;
 import java.time.OffsetDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -59,7 +64,6 @@ import java.util.stream.Collectors;
  */
 public class CommandClientImpl implements CommandClient, EventListener {
     private static final Logger LOG = LoggerFactory.getLogger(CommandClient.class);
-    private static final int INDEX_LIMIT = 20;
     private static final String DEFAULT_PREFIX = "@mention";
 
     private final OffsetDateTime start;
@@ -72,19 +76,24 @@ public class CommandClientImpl implements CommandClient, EventListener {
     private final String serverInvite;
     private final HashMap<String, Integer> commandIndex;
     private final ArrayList<Command> commands;
+    private final LocalizedCommandIndex localizedIndex;
     private final String success;
     private final String warning;
     private final String error;
     private final String carbonKey;
     private final String botsKey;
     private final String botsOrgKey;
-    private final HashMap<String, OffsetDateTime> cooldowns;
-    private final HashMap<String, Integer> uses;
-    private final FixedSizeCache<Long, Set<Message>> linkMap;
+    private final CooldownStore cooldowns;
+    private final CommandMetrics metrics;
+    private final LongAdder acceptedMessages = new LongAdder();
+    private final LongAdder rejectedMessages = new LongAdder();
+    private final LongTinyLfuCache<Set<Message>> linkMap;
     private final boolean useHelp;
     private final Consumer<CommandEvent> helpConsumer;
     private final String helpWord;
     private final ScheduledExecutorService executor;
+    private final CommandExecutionEngine engine;
+    private final AdmissionLimiter limiter;
     private final AnnotatedModuleCompiler compiler;
     private final GuildSettingsManager manager;
 
@@ -92,7 +101,7 @@ public class CommandClientImpl implements CommandClient, EventListener {
     private CommandListener listener = null;
     private int totalGuilds;
 
-    public CommandClientImpl(String ownerId, String[] coOwnerIds, String prefix, String altprefix, Game game, OnlineStatus status, String serverInvite, String success, String warning, String error, String carbonKey, String botsKey, String botsOrgKey, ArrayList<Command> commands, boolean useHelp, Consumer<CommandEvent> helpConsumer, String helpWord, ScheduledExecutorService executor, int linkedCacheSize, AnnotatedModuleCompiler compiler, GuildSettingsManager manager) {
+    public CommandClientImpl(String ownerId, String[] coOwnerIds, String prefix, String altprefix, Game game, OnlineStatus status, String serverInvite, String success, String warning, String error, String carbonKey, String botsKey, String botsOrgKey, ArrayList<Command> commands, boolean useHelp, Consumer<CommandEvent> helpConsumer, String helpWord, ScheduledExecutorService executor, CommandExecutionEngine engine, AdmissionLimiter limiter, int linkedCacheSize, AnnotatedModuleCompiler compiler, GuildSettingsManager manager) {
         Checks.check(ownerId != null, "Owner ID was set null or not set! Please provide an User ID to register as the owner!");
 
         if (!SafeIdUtil.checkId(ownerId))
@@ -123,12 +132,17 @@ public class CommandClientImpl implements CommandClient, EventListener {
         this.botsOrgKey = botsOrgKey;
         this.commandIndex = new HashMap<>();
         this.commands = new ArrayList<>();
-        this.cooldowns = new HashMap<>();
-        this.uses = new HashMap<>();
-        this.linkMap = linkedCacheSize > 0 ? new FixedSizeCache<>(linkedCacheSize) : null;
+        this.localizedIndex = new LocalizedCommandIndex();
+        this.cooldowns = new CooldownStore();
+        this.metrics = new CommandMetrics();
+        this.linkMap = linkedCacheSize > 0 ? new LongTinyLfuCache<>(linkedCacheSize) : null;
         this.useHelp = useHelp;
         this.helpWord = helpWord == null ? "help" : helpWord;
         this.executor = executor == null ? Executors.newSingleThreadScheduledExecutor() : executor;
+        this.engine = engine == null ? new CommandExecutionEngine() : engine;
+        this.executor.scheduleAtFixedRate(cooldowns::tick, 1, 1, TimeUnit.SECONDS);
+        this.limiter = limiter;
+        if (limiter != null) this.executor.scheduleAtFixedRate(limiter::evictIdle, 1, 1, TimeUnit.MINUTES);
         this.compiler = compiler;
         this.manager = manager;
         this.helpConsumer = helpConsumer == null ? (event) -> {
@@ -155,8 +169,9 @@ public class CommandClientImpl implements CommandClient, EventListener {
 
         // Load commands
         for (Command command : commands) {
-            addCommand(command);
+            registerCommand(command, this.commands.size());
         }
+        localizedIndex.rebuild(this.commands);
     }
 
     private static String[] splitOnPrefixLength(String rawContent, int length) {
@@ -185,6 +200,11 @@ public class CommandClientImpl implements CommandClient, EventListener {
 
     @Override
     public void addCommand(Command command, int index) {
+        registerCommand(command, index);
+        localizedIndex.rebuild(commands);
+    }
+
+    private void registerCommand(Command command, int index) {
         if (index > commands.size() || index < 0)
             throw new ArrayIndexOutOfBoundsException("Index specified is invalid: [" + index + "/" + commands.size() + "]");
         String name = command.getName();
@@ -209,6 +229,7 @@ public class CommandClientImpl implements CommandClient, EventListener {
         }
         commandIndex.keySet().stream().filter(key -> commandIndex.get(key) > targetIndex).collect(Collectors.toList()).forEach(key -> commandIndex.put(key, commandIndex.get(key) - 1));
         commands.remove(targetIndex);
+        localizedIndex.rebuild(commands);
     }
 
     @Override
@@ -236,6 +257,11 @@ public class CommandClientImpl implements CommandClient, EventListener {
         return commands;
     }
 
+    @Override
+    public LocalizedCommandIndex getCommandIndex() {
+        return localizedIndex;
+    }
+
     @Override
     public OffsetDateTime getStartTime() {
         return start;
@@ -243,31 +269,27 @@ public class CommandClientImpl implements CommandClient, EventListener {
 
     @Override
     public OffsetDateTime getCooldown(String name) {
-        return cooldowns.get(name);
+        return cooldowns.getExpiry(name);
     }
 
     @Override
     public int getRemainingCooldown(String name) {
-        if (cooldowns.containsKey(name)) {
-            int time = (int) OffsetDateTime.now().until(cooldowns.get(name), ChronoUnit.SECONDS);
-            if (time <= 0) {
-                cooldowns.remove(name);
-                return 0;
-            }
-            return time;
-        }
-        return 0;
+        return cooldowns.getRemaining(name);
     }
 
     @Override
     public void applyCooldown(String name, int seconds) {
-        cooldowns.put(name, OffsetDateTime.now().plusSeconds(seconds));
+        cooldowns.apply(name, seconds);
+    }
+
+    @Override
+    public int tryApplyCooldown(int scope, long idOne, long idTwo, int seconds) {
+        return cooldowns.tryApply(scope, idOne, idTwo, seconds);
     }
 
     @Override
     public void cleanCooldowns() {
-        OffsetDateTime now = OffsetDateTime.now();
-        cooldowns.keySet().stream().filter((str) -> (cooldowns.get(str).isBefore(now))).collect(Collectors.toList()).forEach(cooldowns::remove);
+        cooldowns.sweep();
     }
 
     @Override
@@ -277,7 +299,32 @@ public class CommandClientImpl implements CommandClient, EventListener {
 
     @Override
     public int getCommandUses(String name) {
-        return uses.getOrDefault(name, 0);
+        return (int) metrics.getUses(name);
+    }
+
+    @Override
+    public long getAcceptedMessages() {
+        return acceptedMessages.sum();
+    }
+
+    @Override
+    public long getRejectedMessages() {
+        return rejectedMessages.sum();
+    }
+
+    @Override
+    public CommandExecutionEngine getExecutionEngine() {
+        return engine;
+    }
+
+    @Override
+    public CommandMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public AdmissionLimiter getAdmissionLimiter() {
+        return limiter;
     }
 
     @Override
@@ -368,14 +415,21 @@ public class CommandClientImpl implements CommandClient, EventListener {
             onMessageDelete((GuildMessageDeleteEvent) event);
 
         else if (event instanceof GuildJoinEvent) {
+            GuildSettingsManager<?> manager = getSettingsManager();
+            if (manager != null) manager.prefetch(((GuildJoinEvent) event).getGuild());
             if (((GuildJoinEvent) event).getGuild().getSelfMember().getJoinDate().plusMinutes(10).isAfter(OffsetDateTime.now()))
                 sendStats(event.getJDA());
-        } else if (event instanceof GuildLeaveEvent) sendStats(event.getJDA());
+        } else if (event instanceof GuildLeaveEvent) {
+            GuildSettingsManager<?> manager = getSettingsManager();
+            if (manager != null) manager.forget(((GuildLeaveEvent) event).getGuild());
+            sendStats(event.getJDA());
+        }
         else if (event instanceof ReadyEvent) onReady((ReadyEvent) event);
         else if (event instanceof ShutdownEvent) {
             GuildSettingsManager<?> manager = getSettingsManager();
             if (manager != null) manager.shutdown();
             executor.shutdown();
+            engine.shutdown();
         }
     }
 
@@ -390,7 +444,7 @@ public class CommandClientImpl implements CommandClient, EventListener {
 
         // Start SettingsManager if necessary
         GuildSettingsManager<?> manager = getSettingsManager();
-        if (manager != null) manager.init();
+        if (manager != null) manager.init(event.getJDA());
 
         sendStats(event.getJDA());
     }
@@ -399,9 +453,53 @@ public class CommandClientImpl implements CommandClient, EventListener {
         // Return if it's a bot
         if (event.getAuthor().isBot()) return;
 
-        String[] parts = null;
         String rawContent = event.getMessage().getContentRaw();
 
+        // Drop everything that can't be a command before any settings get loaded
+        int prefixLength = matchKnownPrefix(event, rawContent);
+        if (prefixLength < 0) {
+            rejectedMessages.increment();
+            if (listener != null) listener.onNonCommandMessage(event);
+            return;
+        }
+        acceptedMessages.increment();
+
+        // Throttled messages get dropped here, before anything gets loaded for them. Without a known prefix it is
+        // mostly chat, that only pays once processMessage found a prefix
+        if (prefixLength > 0 && !admit(event)) return;
+
+        // Everything past this point may block (settings, database, http), so it runs on the engine
+        long key = event.isFromType(ChannelType.TEXT) ? event.getGuild().getIdLong() : event.getChannel().getIdLong();
+        // A guess from the language that is already in memory, processMessage moves the command if it belongs to
+        // another lane
+        CommandExecutionEngine.Lane lane = CommandExecutionEngine.laneFor(prefixLength == 0 ? null : localizedIndex.find(knownLocale(event), splitOnPrefixLength(rawContent, prefixLength)[0]));
+        Runnable busy = () -> {
+            if (event.isFromType(ChannelType.PRIVATE) || event.getTextChannel().canTalk())
+                event.getChannel().sendMessage(warning + " I'm a bit busy right now, please try again in a few seconds.").queue();
+        };
+        // Without a known prefix it is mostly chat, which shouldn't get an answer when it overflows
+        engine.submit(key, lane, () -> processMessage(event, rawContent, prefixLength > 0, key, lane, busy), prefixLength == 0 ? () -> {} : busy);
+    }
+
+    /**
+     * Takes the tokens of the message from the admission limiter.
+     *
+     * @return False if the message was throttled and should be dropped.
+     */
+    private boolean admit(MessageReceivedEvent event) {
+        if (limiter == null) return true;
+        AdmissionLimiter.Result admission = limiter.tryAcquire(event.getAuthor().getIdLong(), event.isFromType(ChannelType.TEXT) ? event.getGuild().getIdLong() : 0, event.getJDA().getShardInfo() == null ? -1 : event.getJDA().getShardInfo().getShardId());
+        if (admission == AdmissionLimiter.Result.ADMITTED) return true;
+        if (admission == AdmissionLimiter.Result.WARN && (event.isFromType(ChannelType.PRIVATE) || event.getTextChannel().canTalk()))
+            event.getChannel().sendMessage(warning + " You're sending commands too fast, slow down a bit.").queue();
+        return false;
+    }
+
+    /**
+     * @param admitted If the message passed the admission limiter already.
+     */
+    private void processMessage(MessageReceivedEvent event, String rawContent, boolean admitted, long key, CommandExecutionEngine.Lane lane, Runnable busy) {
+        String[] parts = null;
         GuildSettingsProvider settings = event.isFromType(ChannelType.TEXT) ? provideSettings(event.getGuild()) : null;
 
         // Check for prefix or alternate prefix (@mention cases)
@@ -410,22 +508,20 @@ public class CommandClientImpl implements CommandClient, EventListener {
                 parts = splitOnPrefixLength(rawContent, rawContent.indexOf(">") + 1);
             }
         }
-        // Check for prefix
-        if (parts == null && rawContent.toLowerCase().startsWith(prefix.toLowerCase()))
-            if (DiscordBot.instance.registerStuff.database.guildSettingsDataManager.getSettings(event.getGuild()).getPrefix() == DiscordBot.instance.registerStuff.commandClient.getPrefix())
+        // Check for prefix, only if the guild didn't replace it
+        if (parts == null && startsWithIgnoreCase(rawContent, prefix))
+            if (settings == null || settings.getPrefixes() == null || settings.getPrefixes().contains(prefix))
                 parts = splitOnPrefixLength(rawContent, prefix.length());
         // Check for alternate prefix
-        if (parts == null && altprefix != null && rawContent.toLowerCase().startsWith(altprefix.toLowerCase()))
+        if (parts == null && altprefix != null && startsWithIgnoreCase(rawContent, altprefix))
             parts = splitOnPrefixLength(rawContent, altprefix.length());
         // Check for guild specific prefixes
         if (parts == null && settings != null) {
             Collection<String> prefixes = settings.getPrefixes();
             if (prefixes != null) {
-                if (parts == null && settings != null && (prefixes = settings.getPrefixes()) != null) {
-                    for (String prefix : prefixes) {
-                        if (parts != null || !rawContent.toLowerCase().startsWith(prefix.toLowerCase())) continue;
-                        parts = CommandClientImpl.splitOnPrefixLength(rawContent, prefix.length());
-                    }
+                for (String prefix : prefixes) {
+                    if (parts != null || !startsWithIgnoreCase(rawContent, prefix)) continue;
+                    parts = CommandClientImpl.splitOnPrefixLength(rawContent, prefix.length());
                 }
             }
         }
@@ -433,12 +529,15 @@ public class CommandClientImpl implements CommandClient, EventListener {
 
         if (parts != null) //starts with valid prefix
         {
-            //TODO: Change command constructor for language.
+            if (!admitted && !admit(event)) return;
+            // Resolved once here and handed down through the CommandEvent
             Database database = DiscordBot.instance.registerStuff.database;
-            I18nContext context = new I18nContext(database.guildSettingsDataManager.getSettings(event.getGuild().getIdLong()), database.userManager.getUserSettings(event.getAuthor().getIdLong()));
+            GuildSettingsDataManager.GuildSettings guildSettings = settings instanceof GuildSettingsDataManager.GuildSettings ? (GuildSettingsDataManager.GuildSettings) settings : null;
+            I18nContext context = new I18nContext(guildSettings, database.userManager.getUserSettings(event.getAuthor().getIdLong()));
+            Locale locale = context.getContextLanguage();
 
-            if (useHelp && parts[0].equalsIgnoreCase(context.get("helpWord"))) {
-                CommandEvent cevent = new CommandEvent(event, parts[1] == null ? "" : parts[1], this);
+            if (useHelp && localizedIndex.isHelpWord(locale, parts[0])) {
+                CommandEvent cevent = new CommandEvent(event, parts[1] == null ? "" : parts[1], this, context);
                 if (listener != null) listener.onCommand(cevent, null);
                 helpConsumer.accept(cevent); // Fire help consumer
                 if (listener != null) listener.onCompletedCommand(cevent, null);
@@ -446,27 +545,17 @@ public class CommandClientImpl implements CommandClient, EventListener {
             } else if (event.isFromType(ChannelType.PRIVATE) || event.getTextChannel().canTalk()) {
                 String name = parts[0];
                 String args = parts[1] == null ? "" : parts[1];
-                final Command command; // this will be null if it's not a command
-                /*if (commands.size() < INDEX_LIMIT + 1)
-                    command = commands.stream().filter(cmd -> cmd.isCommandFor(name, context)).findAny().orElse(null);
-                else {
-                    synchronized (commandIndex) {
-                        int i = commandIndex.getOrDefault(name.toLowerCase(), -1);
-                        command = i != -1 ? commands.get(i) : null;
-                    }
-                }*/
-
-                //TODO: Maybe optimise this way??
-                command = commands.stream().filter(cmd -> cmd.isCommandFor(name, context, null, null)).findFirst().orElse(null);
+                final Command command = localizedIndex.find(locale, name); // this will be null if it's not a command
 
                 if (command != null) {
-                    CommandEvent cevent = new CommandEvent(event, args, this);
-
-                    if (listener != null) listener.onCommand(cevent, command);
-                    uses.put(command.getName(), uses.getOrDefault(command.getName(), 0) + 1);
-                    List<Command> parents = new ArrayList<>();
-                    parents.add(command);
-                    command.run(cevent, null);
+                    CommandEvent cevent = new CommandEvent(event, args, this, context);
+                    CommandExecutionEngine.Lane target = CommandExecutionEngine.laneFor(command);
+                    if (target != lane) {
+                        // Localized name or a guild whose prefix wasn't known, the guess was wrong
+                        engine.resubmit(key, target, () -> runCommand(cevent, command), busy);
+                    } else {
+                        runCommand(cevent, command);
+                    }
                     return; // Command is done
                 }
             }
@@ -475,6 +564,48 @@ public class CommandClientImpl implements CommandClient, EventListener {
         if (listener != null) listener.onNonCommandMessage(event);
     }
 
+    private void runCommand(CommandEvent cevent, Command command) {
+        if (listener != null) listener.onCommand(cevent, command);
+        metrics.incrementUses(command.getName());
+        command.run(cevent, null);
+    }
+
+    /**
+     * The language of the message as far as it is known in memory, the user language wins over the guild language.
+     * Never loads any settings.
+     */
+    private Locale knownLocale(MessageReceivedEvent event) {
+        Database database = DiscordBot.instance.registerStuff.database;
+        UserManager.UserSettings user = database.userManager.getCachedUserSettings(event.getAuthor().getIdLong());
+        String lang = user == null ? null : user.getLang();
+        if (lang == null && event.isFromType(ChannelType.TEXT)) {
+            GuildSettingsDataManager.GuildSettings guild = database.guildSettingsDataManager.getCachedSettings(event.getGuild().getIdLong());
+            if (guild != null) lang = guild.getLang();
+        }
+        return I18n.getCatalog().getLocale(lang);
+    }
+
+    /**
+     * Checks the message against the prefixes that are already known in memory, without loading any settings.
+     * <br>Guilds whose settings were never loaded always pass, the full prefix check handles them.
+     *
+     * @return The length of the matched prefix, 0 if the guild prefix isn't known yet or -1 if it can't be a command.
+     */
+    private int matchKnownPrefix(MessageReceivedEvent event, String rawContent) {
+        if ((prefix.equals(DEFAULT_PREFIX) || DEFAULT_PREFIX.equals(altprefix)) && rawContent.startsWith("<@"))
+            return rawContent.indexOf('>') + 1;
+        if (altprefix != null && startsWithIgnoreCase(rawContent, altprefix)) return altprefix.length();
+        if (!event.isFromType(ChannelType.TEXT))
+            return startsWithIgnoreCase(rawContent, prefix) ? prefix.length() : -1;
+        String guildPrefix = DiscordBot.instance.registerStuff.database.guildSettingsDataManager.getKnownPrefix(event.getGuild().getIdLong());
+        if (guildPrefix == null) return 0;
+        return startsWithIgnoreCase(rawContent, guildPrefix) ? guildPrefix.length() : -1;
+    }
+
+    private static boolean startsWithIgnoreCase(String content, String prefix) {
+        return content.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+
     private void sendStats(JDA jda) {
         OkHttpClient client = ((JDAImpl) jda).getHttpClient();
 
@@ -594,8 +725,8 @@ public class CommandClientImpl implements CommandClient, EventListener {
         // We don't need to cover whether or not this client usesLinkedDeletion() because
         // that is checked in onEvent(Event) before this is even called.
         synchronized (linkMap) {
-            if (linkMap.contains(event.getMessageIdLong())) {
-                Set<Message> messages = linkMap.get(event.getMessageIdLong());
+            Set<Message> messages = linkMap.get(event.getMessageIdLong());
+            if (messages != null) {
                 if (messages.size() > 1 && event.getGuild().getSelfMember().hasPermission(event.getChannel(), Permission.MESSAGE_MANAGE))
                     event.getChannel().deleteMessages(messages).queue(unused -> {
                     }, ignored -> {
@@ -633,7 +764,7 @@ public class CommandClientImpl implements CommandClient, EventListener {
             else {
                 stored = new HashSet<>();
                 stored.add(message);
-                linkMap.add(callId, stored);
+                linkMap.put(callId, stored);
             }
         }
     }
@@ -0,0 +1,251 @@
+package com.jagrosh.jdautilities.command.impl;
+
+import com.jagrosh.jdautilities.command.Command;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs commands off the JDA event threads.
+ *
+ * <p>Every {@link Lane} has its own bounded pool, so slow image or scraping commands can't starve the rest.
+ * <br>Commands are queued per guild (or private channel) and lane, and only one of them runs at a time, so a guild sees
+ * its commands of one lane handled in the order they were sent. Commands of different lanes don't wait for each other,
+ * a slow image command doesn't hold up the text commands sent after it.
+ * <br>When a lane is full, or a guild already has {@code maxQueuedPerKey} commands waiting in the lane, the command
+ * gets rejected and handed to the rejection handler instead.
+ */
+public class CommandExecutionEngine {
+    private static final Logger LOG = LoggerFactory.getLogger(CommandExecutionEngine.class);
+    private static final int DEFAULT_MAX_QUEUED_PER_KEY = 5;
+
+    private final Map<Lane, ThreadPoolExecutor> pools = new EnumMap<>(Lane.class);
+    private final Map<Lane, LongAdder> rejected = new EnumMap<>(Lane.class);
+    private final Map<Lane, ConcurrentHashMap<Long, ArrayDeque<Task>>> queues = new EnumMap<>(Lane.class);
+    private final Map<Lane, AtomicInteger> backlog = new EnumMap<>(Lane.class);
+    private final LongAdder resubmitted = new LongAdder();
+    private final int maxQueuedPerKey;
+
+    public CommandExecutionEngine() {
+        this(new EnumMap<>(Lane.class));
+    }
+
+    /**
+     * @param threads Thread count per lane, lanes that are missing use their default.
+     */
+    public CommandExecutionEngine(Map<Lane, Integer> threads) {
+        this(threads, DEFAULT_MAX_QUEUED_PER_KEY);
+    }
+
+    /**
+     * @param threads         Thread count per lane, lanes that are missing use their default.
+     * @param maxQueuedPerKey Commands a guild may have waiting behind its running one, per lane.
+     */
+    public CommandExecutionEngine(Map<Lane, Integer> threads, int maxQueuedPerKey) {
+        this.maxQueuedPerKey = maxQueuedPerKey;
+        for (Lane lane : Lane.values()) {
+            int size = Math.max(1, threads.getOrDefault(lane, lane.defaultThreads));
+            AtomicInteger counter = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(size, size, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(size * lane.queuePerThread), r -> {
+                Thread thread = new Thread(r, "Command-" + lane.name().toLowerCase() + "-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+            pool.allowCoreThreadTimeOut(true);
+            pools.put(lane, pool);
+            rejected.put(lane, new LongAdder());
+            queues.put(lane, new ConcurrentHashMap<>());
+            backlog.put(lane, new AtomicInteger());
+        }
+    }
+
+    /**
+     * Picks the lane by the category of the command, unknown or missing commands use {@link Lane#TEXT}.
+     */
+    public static Lane laneFor(Command command) {
+        if (command == null || command.getCategory() == null) return Lane.TEXT;
+        switch (command.getCategory().getName().toLowerCase()) {
+            case "images":
+            case "meme":
+            case "animals":
+                return Lane.IMAGES;
+            case "nsfw":
+                return Lane.NSFW;
+            case "music":
+                return Lane.MUSIC;
+            default:
+                return Lane.TEXT;
+        }
+    }
+
+    /**
+     * Queues a command behind everything that is still pending for the same key in the lane.
+     *
+     * @param key        Guild id, or channel id for private messages
+     * @param lane       The pool to run on
+     * @param command    The command to run
+     * @param onRejected Runs on the calling thread if the lane or the queue of the key is full
+     */
+    public void submit(long key, Lane lane, Runnable command, Runnable onRejected) {
+        Task task = new Task(lane, command, onRejected);
+        // 0 queued, 1 runs now, 2 rejected
+        int[] outcome = new int[1];
+        queues.get(lane).compute(key, (id, queue) -> {
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                outcome[0] = 1;
+            } else if (queue.size() >= maxQueuedPerKey) {
+                outcome[0] = 2;
+            } else {
+                queue.addLast(task);
+                backlog.get(lane).incrementAndGet();
+            }
+            return queue;
+        });
+        if (outcome[0] == 1) {
+            dispatch(key, task);
+        } else if (outcome[0] == 2) {
+            rejected.get(lane).increment();
+            onRejected.run();
+        }
+    }
+
+    /**
+     * {@link #submit(long, Lane, Runnable, Runnable)} for a command that turned out to belong to another lane than the
+     * one it was guessed for, counted in {@link #getResubmitted()}.
+     */
+    public void resubmit(long key, Lane lane, Runnable command, Runnable onRejected) {
+        resubmitted.increment();
+        submit(key, lane, command, onRejected);
+    }
+
+    private void dispatch(long key, Task task) {
+        try {
+            pools.get(task.lane).execute(() -> {
+                try {
+                    task.command.run();
+                } catch (Throwable t) {
+                    LOG.error("Command failed on lane " + task.lane, t);
+                } finally {
+                    next(key, task.lane);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            rejected.get(task.lane).increment();
+            try {
+                task.onRejected.run();
+            } finally {
+                next(key, task.lane);
+            }
+        }
+    }
+
+    private void next(long key, Lane lane) {
+        Task[] next = new Task[1];
+        queues.get(lane).computeIfPresent(key, (id, queue) -> {
+            next[0] = queue.pollFirst();
+            return next[0] == null ? null : queue;
+        });
+        if (next[0] != null) {
+            backlog.get(lane).decrementAndGet();
+            dispatch(key, next[0]);
+        }
+    }
+
+    public int getQueueDepth(Lane lane) {
+        return pools.get(lane).getQueue().size();
+    }
+
+    public int getActiveCount(Lane lane) {
+        return pools.get(lane).getActiveCount();
+    }
+
+    public long getRejectedCount(Lane lane) {
+        return rejected.get(lane).sum();
+    }
+
+    /**
+     * @return Commands that were moved to another lane once their language was known.
+     */
+    public long getResubmitted() {
+        return resubmitted.sum();
+    }
+
+    /**
+     * @return Commands waiting behind a running command of the same guild in the lane, not yet in the pool.
+     */
+    public int getBacklog(Lane lane) {
+        return backlog.get(lane).get();
+    }
+
+    /**
+     * @return How many guilds/channels currently have commands running or waiting, over all lanes.
+     */
+    public int getBusyQueues() {
+        int busy = 0;
+        for (ConcurrentHashMap<Long, ArrayDeque<Task>> lane : queues.values()) busy += lane.size();
+        return busy;
+    }
+
+    /**
+     * Writes the state of the lanes in the Prometheus text format.
+     */
+    public void writePrometheus(StringBuilder out) {
+        out.append("# HELP notdankmemer_lane_queue_depth Commands waiting in each execution lane.\n");
+        out.append("# TYPE notdankmemer_lane_queue_depth gauge\n");
+        for (Lane lane : Lane.values())
+            out.append("notdankmemer_lane_queue_depth{lane=\"").append(lane.name().toLowerCase()).append("\"} ").append(getQueueDepth(lane)).append('\n');
+        out.append("# HELP notdankmemer_lane_backlog Commands waiting behind a running command of the same guild in each lane.\n");
+        out.append("# TYPE notdankmemer_lane_backlog gauge\n");
+        for (Lane lane : Lane.values())
+            out.append("notdankmemer_lane_backlog{lane=\"").append(lane.name().toLowerCase()).append("\"} ").append(getBacklog(lane)).append('\n');
+        out.append("# HELP notdankmemer_lane_resubmitted_total Commands moved to another lane once their language was known.\n");
+        out.append("# TYPE notdankmemer_lane_resubmitted_total counter\n");
+        out.append("notdankmemer_lane_resubmitted_total ").append(getResubmitted()).append('\n');
+        out.append("# HELP notdankmemer_lane_active Commands running in each execution lane.\n");
+        out.append("# TYPE notdankmemer_lane_active gauge\n");
+        for (Lane lane : Lane.values())
+            out.append("notdankmemer_lane_active{lane=\"").append(lane.name().toLowerCase()).append("\"} ").append(getActiveCount(lane)).append('\n');
+        out.append("# HELP notdankmemer_lane_rejected_total Commands rejected because their lane or the queue of their guild was full.\n");
+        out.append("# TYPE notdankmemer_lane_rejected_total counter\n");
+        for (Lane lane : Lane.values())
+            out.append("notdankmemer_lane_rejected_total{lane=\"").append(lane.name().toLowerCase()).append("\"} ").append(getRejectedCount(lane)).append('\n');
+    }
+
+    public void shutdown() {
+        pools.values().forEach(ThreadPoolExecutor::shutdown);
+    }
+
+    public enum Lane {
+        IMAGES(8, 25),
+        NSFW(4, 25),
+        MUSIC(2, 25),
+        TEXT(8, 50);
+
+        private final int defaultThreads;
+        private final int queuePerThread;
+
+        Lane(int defaultThreads, int queuePerThread) {
+            this.defaultThreads = defaultThreads;
+            this.queuePerThread = queuePerThread;
+        }
+    }
+
+    private static class Task {
+        final Lane lane;
+        final Runnable command;
+        final Runnable onRejected;
+
+        Task(Lane lane, Runnable command, Runnable onRejected) {
+            this.lane = lane;
+            this.command = command;
+            this.onRejected = onRejected;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.jagrosh.jdautilities.command.impl;
+
+import com.jagrosh.jdautilities.command.Command;
+import me.turulix.main.UtilClasses.SubClasses.LatencyHistogram;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Usage counters and execute latency of every {@link com.jagrosh.jdautilities.command.Command Command}.
+ *
+ * <p>Uses are counted per top level command name, latencies per command instance so children like {@code random add}
+ * get their own histogram. Everything can be written out in the Prometheus text format with {@link
+ * #writePrometheus(StringBuilder)}.
+ */
+public class CommandMetrics {
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+
+    private final ConcurrentHashMap<String, LongAdder> uses = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Command, Timer> timers = new ConcurrentHashMap<>();
+
+    public void incrementUses(String name) {
+        LongAdder adder = uses.get(name);
+        if (adder == null) adder = uses.computeIfAbsent(name, key -> new LongAdder());
+        adder.increment();
+    }
+
+    public long getUses(String name) {
+        LongAdder adder = uses.get(name);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * @param parents The parents of the command, as passed to {@link Command#run(com.jagrosh.jdautilities.command.CommandEvent,
+     *                List)}, only used the first time the command is seen.
+     */
+    public void recordExecute(Command command, List<Command> parents, long nanos) {
+        Timer timer = timers.get(command);
+        if (timer == null) timer = timers.computeIfAbsent(command, key -> new Timer(labelFor(key, parents)));
+        timer.histogram.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public LatencyHistogram getExecuteLatency(Command command) {
+        Timer timer = timers.get(command);
+        return timer == null ? null : timer.histogram;
+    }
+
+    private static String labelFor(Command command, List<Command> parents) {
+        StringBuilder label = new StringBuilder();
+        if (parents != null) {
+            for (Command parent : parents) if (parent != command) label.append(parent.getName()).append('.');
+        }
+        return label.append(command.getName()).toString();
+    }
+
+    private static String escape(String label) {
+        return label.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * Appends the counters and latency summaries in the Prometheus text exposition format.
+     */
+    public void writePrometheus(StringBuilder out) {
+        out.append("# HELP notdankmemer_command_uses_total Commands invoked, by top level command.\n");
+        out.append("# TYPE notdankmemer_command_uses_total counter\n");
+        new TreeMap<>(uses).forEach((name, adder) -> out.append("notdankmemer_command_uses_total{command=\"").append(escape(name)).append("\"} ").append(adder.sum()).append('\n'));
+
+        out.append("# HELP notdankmemer_command_execute_seconds Time spent in Command.execute.\n");
+        out.append("# TYPE notdankmemer_command_execute_seconds summary\n");
+        Map<String, LatencyHistogram> sorted = new TreeMap<>();
+        timers.values().forEach(timer -> sorted.put(timer.label, timer.histogram));
+        sorted.forEach((label, histogram) -> {
+            String name = "notdankmemer_command_execute_seconds";
+            String command = "command=\"" + escape(label) + "\"";
+            for (double quantile : QUANTILES)
+                out.append(name).append('{').append(command).append(",quantile=\"").append(quantile).append("\"} ").append(histogram.getPercentile(quantile) / 1e6).append('\n');
+            out.append(name).append("_sum{").append(command).append("} ").append(histogram.getSum(TimeUnit.MICROSECONDS) / 1e6).append('\n');
+            out.append(name).append("_count{").append(command).append("} ").append(histogram.getCount()).append('\n');
+        });
+    }
+
+    private static class Timer {
+        final String label;
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        Timer(String label) {
+            this.label = label;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.jagrosh.jdautilities.command.impl;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Fixed size, lock free store for command cooldowns.
+ *
+ * <p>Keys are a packed int (command id and {@link com.jagrosh.jdautilities.command.Command.CooldownScope CooldownScope})
+ * plus up to two snowflakes, expiry is kept as epoch nanos. The old String keys are still supported for the
+ * {@link com.jagrosh.jdautilities.command.CommandClient CommandClient} API and live in the same table.
+ *
+ * <p>Every key can only sit in a small window of slots behind its hash. A live cooldown is never dropped for another
+ * one: if the window is full of live cooldowns the new one goes into an overflow map, which is only looked at while it
+ * isn't empty. The table has a fixed size, the overflow only holds cooldowns that are running and empties as they end.
+ * <br>Expired entries are removed by a hashed timing wheel that has to be driven by {@link #tick()}. The wheel holds
+ * one node per stored cooldown, plus cooldowns overwritten by {@link #apply(String, int)} until their old expiry.
+ */
+public class CooldownStore {
+    private static final int PROBES = 8;
+    private static final int LEGACY_SCOPE = -1;
+
+    private final AtomicReferenceArray<Entry> table;
+    private final int mask;
+    private final ConcurrentLinkedQueue<Entry>[] wheel;
+    private final long tickNanos;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<Key, Entry> overflow = new ConcurrentHashMap<>();
+    private final LongAdder overflowed = new LongAdder();
+    private long lastTick;
+
+    public CooldownStore() {
+        this(1 << 16, 512, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param capacity  Cooldowns the table holds before the overflow is used, rounded up to a power of two
+     * @param wheelSize Number of buckets of the timing wheel, rounded up to a power of two
+     * @param tick      How often {@link #tick()} gets called
+     */
+    public CooldownStore(int capacity, int wheelSize, long tick, TimeUnit unit) {
+        this(capacity, wheelSize, unit.toNanos(tick), epochNanoClock());
+    }
+
+    @SuppressWarnings("unchecked")
+    CooldownStore(int capacity, int wheelSize, long tickNanos, LongSupplier clock) {
+        this.table = new AtomicReferenceArray<>(powerOfTwo(Math.max(capacity, PROBES)));
+        this.mask = table.length() - 1;
+        this.wheel = new ConcurrentLinkedQueue[powerOfTwo(wheelSize)];
+        for (int i = 0; i < wheel.length; i++) wheel[i] = new ConcurrentLinkedQueue<>();
+        this.tickNanos = tickNanos;
+        this.clock = clock;
+        this.lastTick = clock.getAsLong() / tickNanos;
+    }
+
+    /**
+     * System.nanoTime anchored to the epoch once, so it is monotonic but can still be turned into a date.
+     */
+    private static LongSupplier epochNanoClock() {
+        long base = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()) - System.nanoTime();
+        return () -> base + System.nanoTime();
+    }
+
+    private static int powerOfTwo(int value) {
+        int result = 1;
+        while (result < value) result <<= 1;
+        return result;
+    }
+
+    private static int hash(int scope, long idOne, long idTwo) {
+        long h = idOne * 0x9E3779B97F4A7C15L ^ idTwo * 0xC2B2AE3D27D4EB4FL ^ scope * 0x165667B19E3779F9L;
+        h ^= h >>> 29;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * @return The remaining cooldown in seconds, 0 if there is none.
+     */
+    public int getRemaining(int scope, long idOne, long idTwo) {
+        return getRemaining(scope, idOne, idTwo, null);
+    }
+
+    public int getRemaining(String name) {
+        return getRemaining(LEGACY_SCOPE, name.hashCode(), 0, name);
+    }
+
+    /**
+     * Applies the cooldown, unless the key is already on cooldown.
+     *
+     * @return The remaining cooldown in seconds if there already was one, otherwise 0.
+     */
+    public int tryApply(int scope, long idOne, long idTwo, int seconds) {
+        return put(scope, idOne, idTwo, null, seconds, false);
+    }
+
+    public void apply(String name, int seconds) {
+        put(LEGACY_SCOPE, name.hashCode(), 0, name, seconds, true);
+    }
+
+    /**
+     * @return When the cooldown ends or null if there is none.
+     */
+    public OffsetDateTime getExpiry(String name) {
+        long now = clock.getAsLong();
+        Entry entry = find(LEGACY_SCOPE, name.hashCode(), 0, name, now);
+        if (entry == null) return null;
+        return OffsetDateTime.ofInstant(Instant.ofEpochSecond(0, entry.expiresAt), ZoneId.systemDefault());
+    }
+
+    private int getRemaining(int scope, long idOne, long idTwo, String name) {
+        long now = clock.getAsLong();
+        Entry entry = find(scope, idOne, idTwo, name, now);
+        return entry == null ? 0 : entry.remaining(now);
+    }
+
+    private Entry find(int scope, long idOne, long idTwo, String name, long now) {
+        int home = hash(scope, idOne, idTwo);
+        Entry found = null;
+        for (int p = 0; p < PROBES; p++) {
+            Entry entry = table.get((home + p) & mask);
+            if (entry != null && entry.matches(scope, idOne, idTwo, name) && entry.expiresAt > now && (found == null || entry.expiresAt > found.expiresAt))
+                found = entry;
+        }
+        if (found == null && !overflow.isEmpty()) {
+            Entry entry = overflow.get(new Key(scope, idOne, idTwo, name));
+            if (entry != null && entry.expiresAt > now) found = entry;
+        }
+        return found;
+    }
+
+    private int put(int scope, long idOne, long idTwo, String name, int seconds, boolean overwrite) {
+        int home = hash(scope, idOne, idTwo);
+        while (true) {
+            long now = clock.getAsLong();
+            int target = -1;
+            Entry replaced = null;
+            for (int p = 0; p < PROBES; p++) {
+                int slot = (home + p) & mask;
+                Entry entry = table.get(slot);
+                if (entry != null && entry.matches(scope, idOne, idTwo, name)) {
+                    if (!overwrite && entry.remaining(now) > 0) return entry.remaining(now);
+                    target = slot;
+                    replaced = entry;
+                    break;
+                }
+                // The first empty or expired slot, live cooldowns of other keys stay
+                if (target == -1 && (entry == null || entry.expiresAt <= now)) {
+                    target = slot;
+                    replaced = entry;
+                }
+            }
+            if (target == -1) return putOverflow(scope, idOne, idTwo, name, seconds, overwrite, now);
+            if (!overflow.isEmpty()) {
+                // Went to the overflow while the window was full, it stays there until it ends
+                Entry spilled = overflow.get(new Key(scope, idOne, idTwo, name));
+                if (spilled != null && spilled.expiresAt > now) return putOverflow(scope, idOne, idTwo, name, seconds, overwrite, now);
+            }
+            Entry entry = new Entry(scope, idOne, idTwo, name, now + TimeUnit.SECONDS.toNanos(seconds), target);
+            if (table.compareAndSet(target, replaced, entry)) {
+                wheel[(int) (entry.expiresAt / tickNanos) & (wheel.length - 1)].add(entry);
+                return 0;
+            }
+        }
+    }
+
+    private int putOverflow(int scope, long idOne, long idTwo, String name, int seconds, boolean overwrite, long now) {
+        int[] remaining = new int[1];
+        Entry[] added = new Entry[1];
+        overflow.compute(new Key(scope, idOne, idTwo, name), (key, existing) -> {
+            if (existing != null && existing.expiresAt > now && !overwrite) {
+                remaining[0] = existing.remaining(now);
+                return existing;
+            }
+            added[0] = new Entry(scope, idOne, idTwo, name, now + TimeUnit.SECONDS.toNanos(seconds), -1);
+            return added[0];
+        });
+        if (added[0] != null) {
+            overflowed.increment();
+            wheel[(int) (added[0].expiresAt / tickNanos) & (wheel.length - 1)].add(added[0]);
+        }
+        return remaining[0];
+    }
+
+    /**
+     * Advances the timing wheel and drops every cooldown that expired since the last tick.
+     */
+    public synchronized void tick() {
+        long now = clock.getAsLong();
+        // Only buckets that are completely in the past, everything in them has expired unless it's from a later round
+        long current = now / tickNanos - 1;
+        long from = Math.max(lastTick + 1, current - wheel.length + 1);
+        for (long t = from; t <= current; t++) {
+            ConcurrentLinkedQueue<Entry> bucket = wheel[(int) t & (wheel.length - 1)];
+            for (int i = bucket.size(); i > 0; i--) {
+                Entry entry = bucket.poll();
+                if (entry == null) break;
+                // Belongs to a later round of the wheel
+                if (entry.expiresAt > now) bucket.add(entry);
+                else if (entry.slot < 0) overflow.remove(entry.key(), entry);
+                else table.compareAndSet(entry.slot, entry, null);
+            }
+        }
+        lastTick = current;
+    }
+
+    /**
+     * Drops every expired entry right away, without waiting for the wheel.
+     */
+    public void sweep() {
+        long now = clock.getAsLong();
+        for (int i = 0; i < table.length(); i++) {
+            Entry entry = table.get(i);
+            if (entry != null && entry.expiresAt <= now) table.compareAndSet(i, entry, null);
+        }
+        overflow.values().removeIf(entry -> entry.expiresAt <= now);
+    }
+
+    public int size() {
+        long now = clock.getAsLong();
+        int size = 0;
+        for (int i = 0; i < table.length(); i++) {
+            Entry entry = table.get(i);
+            if (entry != null && entry.expiresAt > now) size++;
+        }
+        for (Entry entry : overflow.values()) if (entry.expiresAt > now) size++;
+        return size;
+    }
+
+    /**
+     * @return Slots of the table that hold an entry, expired ones the wheel didn't remove yet included.
+     */
+    int occupied() {
+        int occupied = 0;
+        for (int i = 0; i < table.length(); i++) if (table.get(i) != null) occupied++;
+        return occupied;
+    }
+
+    /**
+     * @return Entries in the overflow, expired ones the wheel didn't remove yet included.
+     */
+    public int getOverflowSize() {
+        return overflow.size();
+    }
+
+    /**
+     * @return How many cooldowns went to the overflow because their window of the table was full.
+     */
+    public long getOverflowed() {
+        return overflowed.sum();
+    }
+
+    private static class Entry {
+        final int scope;
+        final long idOne;
+        final long idTwo;
+        final String name;
+        final long expiresAt;
+        final int slot;
+
+        Entry(int scope, long idOne, long idTwo, String name, long expiresAt, int slot) {
+            this.scope = scope;
+            this.idOne = idOne;
+            this.idTwo = idTwo;
+            this.name = name;
+            this.expiresAt = expiresAt;
+            this.slot = slot;
+        }
+
+        boolean matches(int scope, long idOne, long idTwo, String name) {
+            return this.scope == scope && this.idOne == idOne && this.idTwo == idTwo && (name == null || name.equals(this.name));
+        }
+
+        Key key() {
+            return new Key(scope, idOne, idTwo, name);
+        }
+
+        int remaining(long now) {
+            return (int) TimeUnit.NANOSECONDS.toSeconds(expiresAt - now);
+        }
+    }
+
+    private static final class Key {
+        final int scope;
+        final long idOne;
+        final long idTwo;
+        final String name;
+
+        Key(int scope, long idOne, long idTwo, String name) {
+            this.scope = scope;
+            this.idOne = idOne;
+            this.idTwo = idTwo;
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return scope == key.scope && idOne == key.idOne && idTwo == key.idTwo && Objects.equals(name, key.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash(scope, idOne, idTwo);
+        }
+    }
+}
@@ -6,10 +6,10 @@
 
 package com.jagrosh.jdautilities.doc;
 
-import com.jagrosh.jdautilities.commons.utils.FixedSizeCache;
 import com.jagrosh.jdautilities.doc.standard.CommandInfo;
 import com.jagrosh.jdautilities.doc.standard.Error;
 import com.jagrosh.jdautilities.doc.standard.RequiredPermissions;
+import me.turulix.main.UtilClasses.SubClasses.TinyLfuCache;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
@@ -57,7 +57,7 @@ import java.util.stream.Collectors;
  */
 public class DocGenerator {
     private final HashMap<Class<? extends Annotation>, DocConverter<? extends Annotation>> map;
-    private final FixedSizeCache<AnnotatedElement, String> cache;
+    private final TinyLfuCache<AnnotatedElement, String> cache;
     private final String separator;
 
     /**
@@ -103,7 +103,7 @@ public class DocGenerator {
     public DocGenerator(String separator, int cacheSize) {
         this.separator = separator;
         map = new HashMap<>();
-        cache = new FixedSizeCache<>(cacheSize);
+        cache = new TinyLfuCache<>(cacheSize);
     }
 
     /**
@@ -225,7 +225,8 @@ public class DocGenerator {
     @SuppressWarnings("unchecked")
     private String read(AnnotatedElement ae) {
         // Have we already read this?
-        if (cache.contains(ae)) return cache.get(ae);
+        String cached = cache.get(ae);
+        if (cached != null) return cached;
 
         StringBuilder b = new StringBuilder();
         synchronized (map) {
@@ -260,7 +261,7 @@ public class DocGenerator {
         String doc = b.toString().trim();
 
         // Cache the read value, even if it's empty.
-        cache.add(ae, doc);
+        cache.put(ae, doc);
 
         return doc;
     }
@@ -8,15 +8,17 @@ package me.turulix.main.Commands.Animals;
 
 import com.jagrosh.jdautilities.command.Command;
 import com.jagrosh.jdautilities.command.CommandEvent;
+import me.turulix.main.Logger;
 import me.turulix.main.UtilClasses.Anotations.DankCommand;
+import me.turulix.main.UtilClasses.JsonStreams;
 import me.turulix.main.UtilClasses.Utils;
 import me.turulix.main.i18n.I18nContext;
 import net.dv8tion.jda.core.EmbedBuilder;
 import net.dv8tion.jda.core.Permission;
 import org.jetbrains.annotations.Nullable;
-import org.json.JSONObject;
 
 import java.awt.*;
+import java.io.IOException;
 import java.text.MessageFormat;
 
 @DankCommand
@@ -33,11 +35,17 @@ public class CatCommand extends Command {
 
     @Override
     protected void execute(CommandEvent event, I18nContext context) {
-        @Nullable String msg = Utils.getUrl("http://aws.random.cat/meow");
-        assert msg == null;
-        @Nullable JSONObject obj = new JSONObject(msg);
-
-        msg = obj.getString("file");
+        @Nullable String msg;
+        try {
+            msg = Utils.readJson("http://aws.random.cat/meow", reader -> JsonStreams.getString(reader, "file"));
+        } catch (IOException ex) {
+            Logger.error(ex);
+            msg = null;
+        }
+        if (msg == null) {
+            event.replyError("The cats are hiding, try again later :c");
+            return;
+        }
         EmbedBuilder builder = new EmbedBuilder().setColor(new Color(255, 154, 136));
         builder.setTitle("Awwwww!");
         builder.setImage(msg);
@@ -8,6 +8,8 @@ package me.turulix.main.Commands.BotOwner;
 
 import com.jagrosh.jdautilities.command.Command;
 import com.jagrosh.jdautilities.command.CommandEvent;
+import com.jagrosh.jdautilities.command.impl.AdmissionLimiter;
+import com.jagrosh.jdautilities.command.impl.CommandExecutionEngine;
 import me.turulix.main.DiscordBot;
 import me.turulix.main.UtilClasses.Anotations.DankCommand;
 import me.turulix.main.UtilClasses.FormatUtil;
@@ -34,9 +36,16 @@ public class DebugCommand extends Command {
     protected void execute(@NotNull CommandEvent event, I18nContext context) {
         long totalMb = Runtime.getRuntime().totalMemory() / (1024 * 1024);
         long usedMb = (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) / (1024 * 1024);
-        @NotNull StringBuilder sb = new StringBuilder("**" + event.getSelfUser().getName() + "** statistics:" + "\nLast Startup: " + FormatUtil.secondsToTime(event.getClient().getStartTime().until(OffsetDateTime.now(), ChronoUnit.SECONDS)) + " ago" + "\nGuilds: **" + DiscordBot.instance.registerStuff.shardManager.getGuildCache().size() + "**" + "\nMemory: **" + usedMb + "**Mb / **" + totalMb + "**Mb" + "\nAverage Ping: **" + DiscordBot.instance.registerStuff.shardManager.getAveragePing() + "**ms" + "\nShard Total: **" + DiscordBot.instance.registerStuff.shardManager.getShardsTotal() + "**" + "\nShard Connectivity: ```diff");
+        @NotNull StringBuilder sb = new StringBuilder("**" + event.getSelfUser().getName() + "** statistics:" + "\nLast Startup: " + FormatUtil.secondsToTime(event.getClient().getStartTime().until(OffsetDateTime.now(), ChronoUnit.SECONDS)) + " ago" + "\nGuilds: **" + DiscordBot.instance.registerStuff.shardManager.getGuildCache().size() + "**" + "\nMemory: **" + usedMb + "**Mb / **" + totalMb + "**Mb" + "\nAverage Ping: **" + DiscordBot.instance.registerStuff.shardManager.getAveragePing() + "**ms" + "\nPrefix Filter: **" + event.getClient().getAcceptedMessages() + "** accepted / **" + event.getClient().getRejectedMessages() + "** rejected" + "\nShard Total: **" + DiscordBot.instance.registerStuff.shardManager.getShardsTotal() + "**" + "\nShard Connectivity: ```diff");
         DiscordBot.instance.registerStuff.shardManager.getShards().forEach(jda -> sb.append("\n").append(jda.getStatus() == JDA.Status.CONNECTED ? "+ " : "- ").append(jda.getShardInfo().getShardId() < 10 ? "0" : "").append(jda.getShardInfo().getShardId()).append(": ").append(jda.getStatus()).append(" ~ ").append(jda.getGuildCache().size()).append(" guilds"));
-        sb.append("\n```");
+        sb.append("\n```\nCommand Lanes: ```");
+        CommandExecutionEngine engine = event.getClient().getExecutionEngine();
+        for (CommandExecutionEngine.Lane lane : CommandExecutionEngine.Lane.values())
+            sb.append("\n").append(lane).append(": ").append(engine.getActiveCount(lane)).append(" active ~ ").append(engine.getQueueDepth(lane)).append(" queued ~ ").append(engine.getBacklog(lane)).append(" waiting ~ ").append(engine.getRejectedCount(lane)).append(" rejected");
+        sb.append("\nBusy guilds: ").append(engine.getBusyQueues()).append("\n```");
+        AdmissionLimiter limiter = event.getClient().getAdmissionLimiter();
+        if (limiter != null)
+            sb.append("\nThrottled: **").append(limiter.getThrottled(AdmissionLimiter.Scope.USER)).append("** user / **").append(limiter.getThrottled(AdmissionLimiter.Scope.GUILD)).append("** guild / **").append(limiter.getThrottled(AdmissionLimiter.Scope.SHARD)).append("** shard");
         event.reply(sb.toString().trim());
     }
 }
\ No newline at end of file
@@ -8,13 +8,16 @@ package me.turulix.main.Commands.Fun;
 
 import com.jagrosh.jdautilities.command.Command;
 import com.jagrosh.jdautilities.command.CommandEvent;
+import me.turulix.main.Logger;
 import me.turulix.main.UtilClasses.Anotations.DankCommand;
+import me.turulix.main.UtilClasses.JsonStreams;
 import me.turulix.main.UtilClasses.Utils;
 import me.turulix.main.i18n.I18nContext;
 import net.dv8tion.jda.core.Permission;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.json.JSONObject;
+
+import java.io.IOException;
 
 @DankCommand
 public class ChuckCommand extends Command {
@@ -30,10 +33,17 @@ public class ChuckCommand extends Command {
 
     @Override
     protected void execute(@NotNull CommandEvent event, I18nContext context) {
-        @Nullable String msg = Utils.getUrl("http://api.icndb.com/jokes/random");
-        if (msg == null) throw new NullPointerException("Chuck joke is null.");
-        @Nullable JSONObject obj = new JSONObject(msg);
-        String Quote = obj.getJSONObject("value").getString("joke");
+        @Nullable String Quote;
+        try {
+            Quote = Utils.readJson("http://api.icndb.com/jokes/random", reader -> JsonStreams.getString(reader, "value", "joke"));
+        } catch (IOException ex) {
+            Logger.error("Could not fetch a Chuck Norris joke", ex);
+            Quote = null;
+        }
+        if (Quote == null) {
+            event.replyError("Chuck Norris is busy, try again later :c");
+            return;
+        }
         event.reply(Quote.replaceAll("&quot;", "**"));
     }
 }
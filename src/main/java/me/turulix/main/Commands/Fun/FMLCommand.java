@@ -10,11 +10,11 @@ import com.jagrosh.jdautilities.command.Command;
 import com.jagrosh.jdautilities.command.CommandEvent;
 import me.turulix.main.Logger;
 import me.turulix.main.UtilClasses.Anotations.DankCommand;
+import me.turulix.main.UtilClasses.Utils;
 import me.turulix.main.i18n.I18nContext;
 import net.dv8tion.jda.core.EmbedBuilder;
 import net.dv8tion.jda.core.Permission;
 import org.jetbrains.annotations.NotNull;
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 
 import java.awt.*;
@@ -36,7 +36,7 @@ public class FMLCommand extends Command {
         //TODO: Change this to use @EmbedBuilder
         try {
 
-            Document doc = Jsoup.connect("http://fmylife.com/random").userAgent("Mozilla/5.0 (Windows; U; WindowsNT 5.1; en-US; rv1.8.1.6) Gecko/20070725 Firefox/2.0.0.6").get();
+            Document doc = Utils.readHtml("http://fmylife.com/random");
             String[] authorInfo = doc.select("#content > div > div.col-sm-8 > div > article:nth-child(2) > div > div.article-topbar").text().split(" -");
             String author = authorInfo[0].substring(3);
             String date = authorInfo[1];
@@ -16,8 +16,6 @@ import me.turulix.main.i18n.I18nContext;
 import net.dv8tion.jda.core.Permission;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.Random;
 
 @DankCommand
 public class KillCommand extends Command {
@@ -35,15 +33,18 @@ public class KillCommand extends Command {
         @NotNull String[] args = event.getMessage().getContentRaw().split(" ");
         DiscordBot discordBot = DiscordBot.instance;
         if (args.length == 2) {
-            @NotNull Random rn = new Random();
             if (event.getMessage().getMentionedUsers().size() == 0) {
                 TextUtilities.SendUsage(event, this);
                 return;
             }
             String mention = event.getGuild().getMember(event.getMessage().getMentionedUsers().get(0)).getEffectiveName();
             String author = event.getMember().getEffectiveName();
-            @NotNull ArrayList<KillManager.Kill> kill = discordBot.registerStuff.database.killManager.getKills();
-            event.reply(kill.get(rn.nextInt(kill.size())).getMsg().replace("$author", author).replace("$mention", mention));
+            KillManager.Kill kill = discordBot.registerStuff.database.killManager.next(event.getGuild().getIdLong());
+            if (kill == null) {
+                event.replyError("Strange the kills are hiding :c");
+                return;
+            }
+            event.reply(kill.getMsg().replace("$author", author).replace("$mention", mention));
         } else {
             TextUtilities.SendUsage(event, this);
         }
@@ -11,6 +11,7 @@ import com.jagrosh.jdautilities.command.CommandEvent;
 import me.turulix.main.UtilClasses.Anotations.DankCommand;
 import me.turulix.main.UtilClasses.TextUtilities;
 import me.turulix.main.i18n.I18nContext;
+import me.turulix.main.i18n.MessageKey;
 import net.dv8tion.jda.core.Permission;
 import net.dv8tion.jda.core.entities.Member;
 
@@ -23,6 +24,12 @@ import java.util.Random;
  */
 @DankCommand
 public class LoveCommand extends Command {
+    private static final MessageKey BAD = MessageKey.of("command.love.bad");
+    private static final MessageKey OKAY = MessageKey.of("command.love.okay");
+    private static final MessageKey GOOD = MessageKey.of("command.love.good");
+    private static final MessageKey PERFECT = MessageKey.of("command.love.perfect");
+    private static final MessageKey SELF = MessageKey.of("command.love.self");
+
     public LoveCommand() {
         this.name = "love";
         this.arguments = "<@User>";
@@ -55,15 +62,15 @@ public class LoveCommand extends Command {
         int precentage = (user1.getUser().getIdLong() == user2.getUser().getIdLong() ? 101 : random.nextInt(101));
         String result;
         if (precentage < 45) {
-            result = context.get("command.love.bad");
+            result = context.get(BAD);
         } else if (precentage < 75) {
-            result = context.get("command.love.okay");
+            result = context.get(OKAY);
         } else if (precentage < 100) {
-            result = context.get("command.love.good");
+            result = context.get(GOOD);
         } else {
-            result = context.get("command.love.perfect");
+            result = context.get(PERFECT);
             if (precentage == 101) {
-                result = context.get("command.love.self");
+                result = context.get(SELF);
             }
         }
         event.reply(result);
@@ -15,9 +15,6 @@ import me.turulix.main.i18n.I18nContext;
 import net.dv8tion.jda.core.Permission;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.Random;
-
 @DankCommand
 public class RoastCommand extends Command {
     public RoastCommand() {
@@ -32,9 +29,12 @@ public class RoastCommand extends Command {
     @Override
     protected void execute(@NotNull CommandEvent event, I18nContext context) {
         DiscordBot discordBot = DiscordBot.instance;
-        @NotNull Random rn = new Random();
-        @NotNull ArrayList<RoastManager.Roast> roasts = discordBot.registerStuff.database.roastManager.getRoasts();
+        RoastManager.Roast roast = discordBot.registerStuff.database.roastManager.next(event.getGuild().getIdLong());
+        if (roast == null) {
+            event.replyError("Strange the roasts are hiding :c");
+            return;
+        }
         String author = event.getMember().getEffectiveName();
-        event.reply(roasts.get(rn.nextInt(roasts.size())).getMsg().replace("$author", author));
+        event.reply(roast.getMsg().replace("$author", author));
     }
 }
@@ -16,7 +16,7 @@ import me.turulix.main.i18n.I18nContext;
 import net.dv8tion.jda.core.EmbedBuilder;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 @DankCommand
 public class Meme extends Command {
@@ -33,10 +33,9 @@ public class Meme extends Command {
     @Override
     protected void execute(@NotNull CommandEvent event, I18nContext context) {
         @NotNull RegisterStuff registerStuff = DiscordBot.instance.registerStuff;
-        if (registerStuff.cachedMemes.size() != 0) {
+        SubClasses.RedditMeme meme = registerStuff.cachedMemes.next(event.getGuild().getIdLong(), ThreadLocalRandom.current());
+        if (meme != null) {
             @NotNull EmbedBuilder eb = new EmbedBuilder();
-            @NotNull Random random = new Random();
-            SubClasses.RedditMeme meme = registerStuff.cachedMemes.get(random.nextInt(registerStuff.cachedMemes.size()));
             eb.setImage(meme.getImageURL());
             eb.setDescription("[" + meme.getTitle().trim().substring(0, Math.min(meme.getTitle().length(), 100)) + "]" + "(" + SHORTENED_URL + meme.getId() + ")");
             eb.setFooter("\uD83D\uDC4D " + meme.getThumbsUp() + " | " + "\uD83D\uDCAC " + meme.getCommentAmount(), null);
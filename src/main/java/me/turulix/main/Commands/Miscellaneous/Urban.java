@@ -8,17 +8,20 @@ package me.turulix.main.Commands.Miscellaneous;
 
 import com.jagrosh.jdautilities.command.Command;
 import com.jagrosh.jdautilities.command.CommandEvent;
+import me.turulix.main.Logger;
 import me.turulix.main.UtilClasses.Anotations.DankCommand;
 import me.turulix.main.UtilClasses.FormatUtil;
+import me.turulix.main.UtilClasses.JsonStreams;
 import me.turulix.main.UtilClasses.Utils;
 import me.turulix.main.i18n.I18nContext;
 import net.dv8tion.jda.core.EmbedBuilder;
 import net.dv8tion.jda.core.Permission;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.json.JSONObject;
 
 import java.awt.*;
+import java.io.IOException;
+import java.util.Map;
 
 @DankCommand
 public class Urban extends Command {
@@ -35,22 +38,32 @@ public class Urban extends Command {
     protected void execute(@NotNull CommandEvent event, I18nContext context) {
         @NotNull String term = event.getArgs().replace(" ", "%20").trim();
         if (!event.getMessage().getContentRaw().equalsIgnoreCase("")) {
-            @Nullable String message = Utils.getUrl("http://api.urbandictionary.com/v0/define?term=" + term);
-            @NotNull JSONObject obj = new JSONObject(message);
-            if (obj.getJSONArray("list").length() == 0) {
+            @Nullable Map<String, String> firstObject;
+            try {
+                // Only the first definition is read
+                firstObject = Utils.readJson("http://api.urbandictionary.com/v0/define?term=" + term, reader -> {
+                    if (!JsonStreams.descend(reader, "list")) return null;
+                    reader.beginArray();
+                    return reader.hasNext() ? JsonStreams.fields(reader, "word", "permalink", "definition", "example") : null;
+                });
+            } catch (IOException ex) {
+                Logger.error(ex);
+                event.replyError("Urban Dictionary didn't answer, try again later.");
+                return;
+            }
+            if (firstObject == null) {
                 event.reply("Nothing found under the term: " + event.getArgs());
                 return;
             }
-            @NotNull JSONObject firstObject = (JSONObject) obj.getJSONArray("list").get(0);
             @NotNull EmbedBuilder eb = new EmbedBuilder();
             StringBuilder stringBuilder = new StringBuilder();
-            stringBuilder.append("[Definition for the word: " + FormatUtil.decodeUTF8(firstObject.getString("word")).trim().substring(0, Math.min(FormatUtil.decodeUTF8(firstObject.getString("word")).trim().length(), 60)) + "]" + "(" + firstObject.getString("permalink") + ")");
+            stringBuilder.append("[Definition for the word: " + FormatUtil.decodeUTF8(firstObject.getOrDefault("word", "")).trim().substring(0, Math.min(FormatUtil.decodeUTF8(firstObject.getOrDefault("word", "")).trim().length(), 60)) + "]" + "(" + firstObject.getOrDefault("permalink", "") + ")");
             //eb.setAuthor(firstObject.getString("author"));
             eb.setColor(new Color(42, 255, 140));
 
 
-            stringBuilder.append("\n__**Definition:**__\n" + FormatUtil.decodeUTF8(firstObject.getString("definition")));
-            stringBuilder.append("\n\n__**Example:**__\n" + FormatUtil.decodeUTF8(firstObject.getString("example")));
+            stringBuilder.append("\n__**Definition:**__\n" + FormatUtil.decodeUTF8(firstObject.getOrDefault("definition", "")));
+            stringBuilder.append("\n\n__**Example:**__\n" + FormatUtil.decodeUTF8(firstObject.getOrDefault("example", "")));
             eb.setDescription(stringBuilder.toString().substring(0, Math.min(stringBuilder.toString().length(), 2045)));
             if (eb.length() == 2045) eb.appendDescription("...");
             event.reply(eb.build());
@@ -8,15 +8,17 @@ package me.turulix.main.Commands.Nsfw;
 
 import com.jagrosh.jdautilities.command.Command;
 import com.jagrosh.jdautilities.command.CommandEvent;
+import me.turulix.main.Logger;
 import me.turulix.main.UtilClasses.Anotations.DankCommand;
+import me.turulix.main.UtilClasses.JsonStreams;
 import me.turulix.main.UtilClasses.Utils;
 import me.turulix.main.i18n.I18nContext;
 import net.dv8tion.jda.core.EmbedBuilder;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.json.JSONObject;
 
 import java.awt.*;
+import java.io.IOException;
 
 @DankCommand
 public class NekoCommand extends Command {
@@ -31,11 +33,14 @@ public class NekoCommand extends Command {
 
     @Override
     protected void execute(@NotNull CommandEvent event, I18nContext context) {
-        @Nullable String msg = Utils.getUrl("https://nekos.life/api/v2/img/lewd");
-        if (msg == null) return;
-        @Nullable JSONObject obj = new JSONObject(msg);
-
-        String link = obj.getString("url");
+        @Nullable String link;
+        try {
+            link = Utils.readJson("https://nekos.life/api/v2/img/lewd", reader -> JsonStreams.getString(reader, "url"));
+        } catch (IOException ex) {
+            Logger.error(ex);
+            return;
+        }
+        if (link == null) return;
         EmbedBuilder builder = new EmbedBuilder().setColor(new Color(165, 29, 255));
         builder.setTitle("Some free neko's ;)");
         builder.setImage(link);
@@ -12,10 +12,10 @@ import me.turulix.main.Logger;
 import me.turulix.main.UtilClasses.Anotations.DankCommand;
 import me.turulix.main.UtilClasses.SubClasses.SubClasses;
 import me.turulix.main.UtilClasses.TextUtilities;
+import me.turulix.main.UtilClasses.Utils;
 import me.turulix.main.i18n.I18nContext;
 import net.dv8tion.jda.core.EmbedBuilder;
 import org.apache.http.client.utils.URIBuilder;
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
@@ -64,9 +64,10 @@ public class PornhubCommand extends Command {
             Logger.error(event.getArgs(), e);
         }
         try {
-            doc = Jsoup.connect(term).userAgent("Mozilla/5.0 (Windows; U; WindowsNT 5.1; en-US; rv1.8.1.6) Gecko/20070725 Firefox/2.0.0.6").get();
+            doc = Utils.readHtml(term);
         } catch (IOException e) {
-            Logger.error(e);
+            Logger.error(event, e);
+            return;
         }
         Element mainFrame = null;
         if (doc.getElementById("videoSearchResult") != null) {
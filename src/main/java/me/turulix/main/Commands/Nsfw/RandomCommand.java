@@ -8,11 +8,9 @@ package me.turulix.main.Commands.Nsfw;
 
 import com.jagrosh.jdautilities.command.Command;
 import com.jagrosh.jdautilities.command.CommandEvent;
-import com.mongodb.client.model.Filters;
 import me.turulix.main.DiscordBot;
 import me.turulix.main.RegisterStuff;
 import me.turulix.main.UtilClasses.Anotations.DankCommand;
-import me.turulix.main.UtilClasses.SubClasses.DatabaseInterface;
 import me.turulix.main.UtilClasses.SubClasses.SubClasses;
 import me.turulix.main.UtilClasses.TextUtilities;
 import me.turulix.main.UtilClasses.Utils;
@@ -24,9 +22,7 @@ import net.dv8tion.jda.core.entities.TextChannel;
 import org.jetbrains.annotations.NotNull;
 
 import java.awt.*;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 import java.util.UUID;
 
 @DankCommand
@@ -44,9 +40,11 @@ public class RandomCommand extends Command {
 
     @Override
     protected void execute(@NotNull CommandEvent event, I18nContext context) {
-        @NotNull Random rn = new Random();
-        @NotNull ArrayList<SubClasses.RandomClass> randoms = DiscordBot.instance.registerStuff.database.randomManager.getRandoms();
-        SubClasses.RandomClass random = randoms.get(rn.nextInt(randoms.size()));
+        SubClasses.RandomClass random = DiscordBot.instance.registerStuff.database.randomManager.next(event.getGuild().getIdLong());
+        if (random == null) {
+            event.replyError("Strange the randoms are hiding :c");
+            return;
+        }
         @NotNull List<String> urls = Utils.extractUrls(random.getRandom());
         @NotNull EmbedBuilder embedBuilder = new EmbedBuilder();
         embedBuilder.setTitle("Random Stuff ID: " + random.getID() + " by " + random.getCREATOR_TAG());
@@ -93,7 +91,6 @@ public class RandomCommand extends Command {
 
         @Override
         protected void execute(@NotNull CommandEvent event, I18nContext context) {
-            DatabaseInterface databaseInterface = new DatabaseInterface();
             @NotNull String[] args = event.getArgs().split(" ");
             UUID id;
             if (args.length > 0 && !event.getArgs().equalsIgnoreCase("")) {
@@ -104,7 +101,8 @@ public class RandomCommand extends Command {
                     return;
                 }
                 @NotNull RegisterStuff registerStuff = DiscordBot.instance.registerStuff;
-                if (databaseInterface.getDocument(Filters.eq("_id", id), "RandomList").size() == 0) {
+                SubClasses.RandomClass random = registerStuff.database.randomManager.getRandom(id);
+                if (random == null) {
                     event.reply("ID " + id + " not found.");
                     return;
                 }
@@ -112,12 +110,7 @@ public class RandomCommand extends Command {
                 TextChannel reportChannel = supportServer.getTextChannelById(registerStuff.NotDankMemerReportChannelID);
                 @NotNull EmbedBuilder eb = new EmbedBuilder();
                 eb.setTitle("ID: " + id + " Reporting user: " + event.getAuthor().getName() + "#" + event.getAuthor().getDiscriminator());
-                for (@NotNull SubClasses.RandomClass random : registerStuff.database.randomManager.getRandoms()) {
-                    if (random.getID().toString().equals(id.toString())) {
-                        eb.setDescription("Randoms Message: \n" + random.getRandom());
-                        break;
-                    }
-                }
+                eb.setDescription("Randoms Message: \n" + random.getRandom());
                 reportChannel.sendMessage(eb.build()).queue();
                 event.reply("Message Reported");
 
@@ -146,8 +139,10 @@ public class RandomCommand extends Command {
                     TextUtilities.SendUsage(event, this);
                     return;
                 }
-                DiscordBot.instance.registerStuff.database.randomManager.removeRandom(id);
-                DiscordBot.instance.registerStuff.database.randomManager.invalidateCache();
+                if (!DiscordBot.instance.registerStuff.database.randomManager.removeRandom(id)) {
+                    event.reply("ID " + id + " not found.");
+                    return;
+                }
                 event.reply("The Random Message with the ID: " + id + " got deleted.");
             } else {
                 TextUtilities.SendUsage(event, this);
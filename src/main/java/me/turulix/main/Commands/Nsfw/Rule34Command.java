@@ -9,15 +9,16 @@ package me.turulix.main.Commands.Nsfw;
 import com.jagrosh.jdautilities.command.Command;
 import com.jagrosh.jdautilities.command.CommandEvent;
 import me.turulix.main.UtilClasses.Anotations.DankCommand;
+import me.turulix.main.UtilClasses.JsonStreams;
 import me.turulix.main.UtilClasses.Utils;
 import me.turulix.main.i18n.I18nContext;
 import net.dv8tion.jda.core.EmbedBuilder;
 import net.dv8tion.jda.core.Permission;
-import org.json.JSONArray;
-import org.json.JSONObject;
 
 import java.awt.*;
+import java.io.IOException;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 @DankCommand
 public class Rule34Command extends Command {
@@ -34,21 +35,24 @@ public class Rule34Command extends Command {
 
     @Override
     protected void execute(CommandEvent event, I18nContext context) {
-        String downloadedString = Utils.getUrl("https://r34-json-api.herokuapp.com/posts?tags=" + event.getArgs().replace(" ", "%20"));
-        if (downloadedString.startsWith("<!DOCTYPE html>")) {
+        Random random = ThreadLocalRandom.current();
+        String fileUrl;
+        try {
+            // Only the file_url of every post is read, posts without one aren't picked
+            fileUrl = Utils.readJson("https://r34-json-api.herokuapp.com/posts?tags=" + event.getArgs().replace(" ", "%20"),
+                    reader -> JsonStreams.sample(reader, random, post -> JsonStreams.fields(post, "file_url").get("file_url")));
+        } catch (IOException ex) {
+            // The API answers with an HTML page while it is down
             event.reply("The Command is currently broken cause of the api being down OwO");
             return;
         }
-        JSONObject obj = new JSONObject("{\"array\":" + downloadedString + "}");
-        JSONArray array = obj.getJSONArray("array");
-        if (array.length() == 0) {
+        if (fileUrl == null) {
             event.reply("There was actually nothing found for: " + event.getArgs());
             return;
         }
-        Random random = new Random();
         EmbedBuilder builder = new EmbedBuilder().setColor(new Color(165, 29, 255));
         builder.setTitle("It exists...");
-        builder.setImage(array.getJSONObject(random.nextInt(array.length())).getString("file_url"));
+        builder.setImage(fileUrl);
         builder.setFooter("Here " + event.getAuthor().getName() + "!", event.getAuthor().getAvatarUrl());
         event.reply(builder.build());
     }
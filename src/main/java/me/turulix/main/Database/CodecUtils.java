@@ -0,0 +1,54 @@
+package me.turulix.main.Database;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+
+import java.util.Date;
+
+/**
+ * Lenient readers for the hand written codecs of the managers. Old documents were written by different versions of
+ * the bot, so numbers can be stored as int, long or double and any field may be null.
+ *
+ * @author Turulix
+ * @project NotDankMemer
+ * @since 17.10.2026 20:05
+ */
+public class CodecUtils {
+    public static long readLong(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case INT32:
+                return reader.readInt32();
+            case INT64:
+                return reader.readInt64();
+            case DOUBLE:
+                return (long) reader.readDouble();
+            case STRING:
+                return Long.parseLong(reader.readString());
+            default:
+                reader.skipValue();
+                return 0;
+        }
+    }
+
+    public static int readInt(BsonReader reader) {
+        return (int) readLong(reader);
+    }
+
+    public static String readString(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.STRING) return reader.readString();
+        reader.skipValue();
+        return null;
+    }
+
+    public static Date readDate(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.DATE_TIME) return new Date(reader.readDateTime());
+        reader.skipValue();
+        return null;
+    }
+
+    public static void writeString(BsonWriter writer, String name, String value) {
+        if (value == null) writer.writeNull(name);
+        else writer.writeString(name, value);
+    }
+}
@@ -11,14 +11,22 @@ import com.mongodb.MongoCredential;
 import com.mongodb.ServerAddress;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
 import me.turulix.main.Database.Manager.*;
+import me.turulix.main.DiscordBot;
+import me.turulix.main.Logger;
 import me.turulix.main.UtilClasses.SubClasses.DatabaseInterface;
+import org.bson.Document;
 import org.bson.codecs.configuration.CodecRegistries;
 import org.bson.codecs.configuration.CodecRegistry;
 import org.bson.codecs.pojo.PojoCodecProvider;
 
-import java.text.MessageFormat;
 import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Turulix
@@ -27,6 +35,8 @@ import java.util.Collections;
  */
 
 public class Database extends DatabaseInterface {
+    private static final long CONTENT_REFRESH_MINUTES = 5;
+
     public MongoClient mongoClient;
 
     public GuildSettingsDataManager guildSettingsDataManager;
@@ -35,14 +45,24 @@ public class Database extends DatabaseInterface {
     public RoastManager roastManager;
     public UserManager userManager;
 
+    /**
+     * Updates that may reach the database a moment later, flushed on shutdown.
+     */
+    public final WriteBehindQueue writeBehind;
+
+    private final CodecRegistry codecRegistry;
+    private final ConcurrentHashMap<String, ConcurrentHashMap<Class<?>, MongoCollection<?>>> collections = new ConcurrentHashMap<>();
+    private volatile MongoDatabase mongoDatabase;
+
     public Database(String location, String user, String password) {
-        String url = MessageFormat.format("mongodb://{0}:{1}@{2}/?authSource={3}&authMechanism=SCRAM-SHA-256", user, password, location.split("/")[0], location.split("/")[1]);
-        //url = MessageFormat.format("mongodb://{0}:{1}@{2}/?authSource={3}", user, password, location.split("/")[0], location.split("/")[1]);
+        this(createClient(location, user, password));
+    }
 
-        CodecRegistry codecRegistry = CodecRegistries.fromRegistries(MongoClientSettings.getDefaultCodecRegistry(), CodecRegistries.fromProviders(PojoCodecProvider.builder().automatic(true).build()));
-        MongoCredential credential = MongoCredential.createScramSha256Credential(user, location.split("/")[1], password.toCharArray());
-        MongoClientSettings settings = MongoClientSettings.builder().codecRegistry(codecRegistry).credential(credential).applyToClusterSettings(builder -> builder.hosts(Collections.singletonList(new ServerAddress(location.split("/")[0], 27017)))).build();
-        mongoClient = MongoClients.create(settings);
+    /**
+     * Builds the managers on top of an already created client, e.g. a local stand-in when running offline.
+     */
+    public Database(MongoClient mongoClient) {
+        this.mongoClient = mongoClient;
 
         guildSettingsDataManager = new GuildSettingsDataManager();
         killManager = new KillManager();
@@ -50,6 +70,70 @@ public class Database extends DatabaseInterface {
         roastManager = new RoastManager();
         userManager = new UserManager();
 
+        codecRegistry = CodecRegistries.fromCodecs(guildSettingsDataManager.new GuildSettingsCodec(), userManager.new UserSettingsCodec(), killManager.new KillCodec(), roastManager.new RoastCodec(), new RandomManager.RandomCodec());
+        writeBehind = new WriteBehindQueue(name -> getCollection(name, Document.class), 500, 250);
+        Runtime.getRuntime().addShutdownHook(new Thread(writeBehind::close, "WriteBehind-Shutdown"));
+    }
+
+    /**
+     * Loads the kill, roast and random lists now instead of on the first command, and picks up what other processes
+     * added to them every few minutes.
+     */
+    public void loadContent() {
+        killManager.getKills();
+        roastManager.getRoasts();
+        randomManager.getRandoms();
+        ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Content-Refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(() -> {
+            try {
+                killManager.refresh();
+                roastManager.refresh();
+                randomManager.refresh();
+            } catch (Exception ex) {
+                Logger.error("Could not refresh the content lists", ex);
+            }
+        }, CONTENT_REFRESH_MINUTES, CONTENT_REFRESH_MINUTES, TimeUnit.MINUTES);
+    }
 
+    /**
+     * The codecs of the manager records, on top of whatever the client was created with.
+     */
+    public CodecRegistry getCodecRegistry() {
+        return codecRegistry;
+    }
+
+    /**
+     * The database named in {@code SQLLocation}, resolved once.
+     */
+    public MongoDatabase getMongoDatabase() {
+        MongoDatabase database = mongoDatabase;
+        if (database == null) {
+            database = mongoClient.getDatabase(DiscordBot.instance.tomlManager.getToml().sql.SQLLocation.split("/")[1]);
+            mongoDatabase = database = database.withCodecRegistry(CodecRegistries.fromRegistries(codecRegistry, database.getCodecRegistry()));
+        }
+        return database;
+    }
+
+    /**
+     * @return The collection decoding into the type, the handle is created once per name and type.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> MongoCollection<T> getCollection(String name, Class<T> type) {
+        ConcurrentHashMap<Class<?>, MongoCollection<?>> byType = collections.get(name);
+        if (byType == null) byType = collections.computeIfAbsent(name, key -> new ConcurrentHashMap<>(4));
+        MongoCollection<?> collection = byType.get(type);
+        if (collection == null) collection = byType.computeIfAbsent(type, key -> getMongoDatabase().getCollection(name, key));
+        return (MongoCollection<T>) collection;
+    }
+
+    private static MongoClient createClient(String location, String user, String password) {
+        CodecRegistry codecRegistry = CodecRegistries.fromRegistries(MongoClientSettings.getDefaultCodecRegistry(), CodecRegistries.fromProviders(PojoCodecProvider.builder().automatic(true).build()));
+        MongoCredential credential = MongoCredential.createScramSha256Credential(user, location.split("/")[1], password.toCharArray());
+        MongoClientSettings settings = MongoClientSettings.builder().codecRegistry(codecRegistry).credential(credential).applyToClusterSettings(builder -> builder.hosts(Collections.singletonList(new ServerAddress(location.split("/")[0], 27017)))).build();
+        return MongoClients.create(settings);
     }
 }
@@ -8,21 +8,56 @@ package me.turulix.main.Database.Manager;
 
 import com.jagrosh.jdautilities.command.GuildSettingsManager;
 import com.jagrosh.jdautilities.command.GuildSettingsProvider;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertManyOptions;
+import me.turulix.main.Database.CodecUtils;
 import me.turulix.main.DiscordBot;
+import me.turulix.main.Logger;
+import me.turulix.main.UtilClasses.SubClasses.ConcurrentLongMap;
 import me.turulix.main.UtilClasses.SubClasses.DatabaseInterface;
-import me.turulix.main.UtilClasses.SubClasses.FixedCache;
+import me.turulix.main.UtilClasses.SubClasses.LongTinyLfuCache;
+import net.dv8tion.jda.core.JDA;
 import net.dv8tion.jda.core.entities.Guild;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
 import org.bson.Document;
-import org.bson.conversions.Bson;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 public class GuildSettingsDataManager extends DatabaseInterface implements GuildSettingsManager {
-    private final FixedCache<Long, GuildSettings> cache = new FixedCache<>(1000);
+    private static final int PRELOAD_BATCH = 500;
+    private static final InsertManyOptions UNORDERED = new InsertManyOptions().ordered(false);
+
+    private final ConcurrentLongMap<String> prefixes = new ConcurrentLongMap<>(1000);
+    // Known prefixes only live as long as the cached settings, so they don't pile up for every guild ever seen
+    private final LongTinyLfuCache<GuildSettings> cache = new LongTinyLfuCache<>(100000, 0, (guildId, settings) -> prefixes.remove(guildId));
+    private final ExecutorService preloader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "GuildSettings-Preload");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final LongAdder preloadQueued = new LongAdder();
+    private final LongAdder preloadLoaded = new LongAdder();
 
     public GuildSettingsDataManager() {
         collectionName = "GuildSettings";
@@ -44,21 +79,140 @@ public class GuildSettingsDataManager extends DatabaseInterface implements Guild
     }
 
     private GuildSettings returnSettings(Guild guild) {
-        if (cache.contains(guild.getIdLong())) return cache.get(guild.getIdLong());
-        GuildSettings settings = new GuildSettings(guild);
-        cache.put(guild.getIdLong(), settings);
+        return cache.get(guild.getIdLong(), id -> load(guild));
+    }
+
+    private GuildSettings load(Guild guild) {
+        return attach(findOrCreate(GuildSettings.class, guild.getIdLong()), guild);
+    }
+
+    private GuildSettings attach(GuildSettings settings, Guild guild) {
+        settings.guild = guild;
+        if (settings.prefix != null) prefixes.put(guild.getIdLong(), settings.prefix);
         return settings;
     }
 
+    /**
+     * Caches the settings of a batch of guilds with one query, and creates the missing ones with one insert.
+     */
+    private void preload(List<Guild> guilds) {
+        Map<Long, Guild> pending = new HashMap<>(guilds.size() * 2);
+        for (Guild guild : guilds) pending.put(guild.getIdLong(), guild);
+        for (GuildSettings settings : getCollection(GuildSettings.class).find(Filters.in("_id", pending.keySet())).into(new ArrayList<>())) {
+            Guild guild = pending.remove(settings.guildId);
+            if (guild != null) cachePreloaded(settings, guild);
+        }
+        if (pending.isEmpty()) return;
+
+        // Only the id, like findOrCreate, so the default prefix isn't stored
+        List<Long> missing = new ArrayList<>(pending.keySet());
+        List<Document> documents = new ArrayList<>(missing.size());
+        for (Long id : missing) documents.add(new Document("_id", id));
+        Set<Integer> failed = new HashSet<>();
+        try {
+            getCollection().insertMany(documents, UNORDERED);
+        } catch (MongoBulkWriteException ex) {
+            // Created by a command in between, it cached the stored settings already
+            for (BulkWriteError error : ex.getWriteErrors()) {
+                if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY) throw ex;
+                failed.add(error.getIndex());
+            }
+        }
+        for (int i = 0; i < missing.size(); i++)
+            if (!failed.contains(i)) cachePreloaded(new GuildSettings(missing.get(i), null, null), pending.get(missing.get(i)));
+    }
+
+    private void cachePreloaded(GuildSettings settings, Guild guild) {
+        // A command may have loaded and changed them since the batch started
+        if (!cache.contains(guild.getIdLong())) cache.put(guild.getIdLong(), attach(settings, guild));
+    }
+
+
+    /**
+     * Settings of a guild that are cached already. Never touches the database.
+     *
+     * @return The settings or null if they aren't cached.
+     */
+    @Nullable
+    public GuildSettings getCachedSettings(long guildId) {
+        return cache.get(guildId);
+    }
+
+    /**
+     * Prefix of a guild whose settings have been loaded before. Never touches the database.
+     *
+     * @return The prefix or null if the guild wasn't loaded yet.
+     */
+    @Nullable
+    public String getKnownPrefix(long guildId) {
+        return prefixes.get(guildId);
+    }
 
+    /**
+     * Loads the settings of every guild of the shard in the background, in batches of {@value #PRELOAD_BATCH}, so the
+     * first command in each guild finds them cached.
+     */
     @Override
-    public void init() {
+    public void init(JDA jda) {
+        List<Guild> guilds = new ArrayList<>(jda.getGuildCache().asList());
+        preloadQueued.add(guilds.size());
+        preloader.execute(() -> {
+            long start = System.nanoTime();
+            for (int i = 0; i < guilds.size(); i += PRELOAD_BATCH) {
+                List<Guild> batch = guilds.subList(i, Math.min(i + PRELOAD_BATCH, guilds.size()));
+                try {
+                    preload(batch);
+                } catch (Exception ex) {
+                    // These load lazily like before
+                    Logger.error("Could not preload guild settings", ex);
+                }
+                preloadLoaded.add(batch.size());
+            }
+            Logger.info("Preloaded the settings of " + guilds.size() + " guilds in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+        });
+    }
+
+    @Override
+    public void prefetch(Guild guild) {
+        preloadQueued.increment();
+        preloader.execute(() -> {
+            try {
+                returnSettings(guild);
+            } catch (Exception ex) {
+                Logger.error("Could not prefetch guild settings", ex);
+            } finally {
+                preloadLoaded.increment();
+            }
+        });
+    }
+
+    /**
+     * @return Guilds whose settings were queued for preloading since the start, see {@link #getPreloadLoaded()}.
+     */
+    public long getPreloadQueued() {
+        return preloadQueued.sum();
+    }
 
+    /**
+     * @return Guilds whose preload finished, failed ones included.
+     */
+    public long getPreloadLoaded() {
+        return preloadLoaded.sum();
+    }
+
+    /**
+     * Writes the preload progress in the Prometheus text format.
+     */
+    public void writePrometheus(StringBuilder out) {
+        out.append("# HELP notdankmemer_guild_settings_preload Guilds whose settings were queued for preloading and how many of them are done.\n");
+        out.append("# TYPE notdankmemer_guild_settings_preload gauge\n");
+        out.append("notdankmemer_guild_settings_preload{state=\"queued\"} ").append(getPreloadQueued()).append('\n');
+        out.append("notdankmemer_guild_settings_preload{state=\"loaded\"} ").append(getPreloadLoaded()).append('\n');
     }
 
     @Override
     public void shutdown() {
-
+        DiscordBot.instance.registerStuff.database.writeBehind.flush();
     }
 
     public void invalidateCache(Guild guild) {
@@ -66,27 +220,27 @@ public class GuildSettingsDataManager extends DatabaseInterface implements Guild
     }
 
     public void invalidateCache(long guildId) {
-        cache.pull(guildId);
+        cache.remove(guildId);
+        // Also if the settings were evicted already and only a prefix set in between is left
+        prefixes.remove(guildId);
+    }
+
+    @Override
+    public void forget(Guild guild) {
+        invalidateCache(guild);
     }
 
     public class GuildSettings implements GuildSettingsProvider {
+        private final long guildId;
         @Nullable
         private String prefix;
         private Guild guild;
         private String lang;
-        private Bson filters;
 
-        private GuildSettings(Guild guild) {
-            this.guild = guild;
-            filters = Filters.eq("_id", guild.getIdLong());
-
-            Document document = getDocument(filters);
-            if (document == null) {
-                insert(new Document().append("_id", guild.getIdLong()));
-                document = getDocument(filters);
-            }
-            prefix = document.containsKey("prefix") ? document.getString("prefix") : DiscordBot.instance.registerStuff.commandClient.getPrefix();
-            lang = document.containsKey("language") ? document.getString("language") : "en_US";
+        private GuildSettings(long guildId, @Nullable String prefix, @Nullable String lang) {
+            this.guildId = guildId;
+            this.prefix = prefix != null ? prefix : DiscordBot.instance.registerStuff.commandClient.getPrefix();
+            this.lang = lang != null ? lang : "en_US";
         }
 
 
@@ -96,7 +250,8 @@ public class GuildSettingsDataManager extends DatabaseInterface implements Guild
 
         public void setPrefix(String prefix) {
             this.prefix = prefix;
-            update(filters, "prefix", prefix);
+            if (prefix != null) prefixes.put(guildId, prefix);
+            updateLater(guildId, "prefix", prefix);
         }
 
         public Guild getGuild() {
@@ -109,7 +264,7 @@ public class GuildSettingsDataManager extends DatabaseInterface implements Guild
 
         public void setLang(String lang) {
             this.lang = lang;
-            update(filters, "lang", lang);
+            updateLater(guildId, "language", lang);
         }
 
 
@@ -118,4 +273,48 @@ public class GuildSettingsDataManager extends DatabaseInterface implements Guild
             return Collections.singleton(prefix);
         }
     }
+
+    /**
+     * Decodes the stored guild document, the guild itself is set by whoever loaded it.
+     */
+    public class GuildSettingsCodec implements Codec<GuildSettings> {
+        @Override
+        public GuildSettings decode(BsonReader reader, DecoderContext decoderContext) {
+            long id = 0;
+            String prefix = null;
+            String lang = null;
+            reader.readStartDocument();
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                switch (reader.readName()) {
+                    case "_id":
+                        id = CodecUtils.readLong(reader);
+                        break;
+                    case "prefix":
+                        prefix = CodecUtils.readString(reader);
+                        break;
+                    case "language":
+                        lang = CodecUtils.readString(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.readEndDocument();
+            return new GuildSettings(id, prefix, lang);
+        }
+
+        @Override
+        public void encode(BsonWriter writer, GuildSettings value, EncoderContext encoderContext) {
+            writer.writeStartDocument();
+            writer.writeInt64("_id", value.guildId);
+            CodecUtils.writeString(writer, "prefix", value.prefix);
+            CodecUtils.writeString(writer, "language", value.lang);
+            writer.writeEndDocument();
+        }
+
+        @Override
+        public Class<GuildSettings> getEncoderClass() {
+            return GuildSettings.class;
+        }
+    }
 }
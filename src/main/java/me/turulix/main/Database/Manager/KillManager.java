@@ -7,27 +7,56 @@
 package me.turulix.main.Database.Manager;
 
 
-import com.mongodb.Block;
-import com.mongodb.client.FindIterable;
+import com.mongodb.client.model.Filters;
+import me.turulix.main.Database.CodecUtils;
 import me.turulix.main.UtilClasses.SubClasses.DatabaseInterface;
-import org.bson.Document;
+import me.turulix.main.UtilClasses.SubClasses.ShuffleBags;
+import me.turulix.main.UtilClasses.SubClasses.SnapshotList;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 public class KillManager extends DatabaseInterface {
-    @NotNull
-    public static ArrayList<Kill> cache = new ArrayList<>();
+    private final SnapshotList<Kill> kills = new SnapshotList<>(() -> getCollection(Kill.class).find().into(new ArrayList<>()), Kill::getID);
+    private final ShuffleBags delivered = new ShuffleBags(100_000, TimeUnit.HOURS.toNanos(6));
+
+    public KillManager() {
+        collectionName = "KillList";
+    }
 
     @NotNull
-    public ArrayList<Kill> getKills() {
-        if (cache.isEmpty()) {
-            FindIterable<Document> cursor = getDocument("KillList");
-            cursor.forEach((Block<? super Document>) dbObject -> cache.add(new Kill((int) dbObject.get("_id"), (String) dbObject.get("msg"))));
-        }
-        return cache;
+    public List<Kill> getKills() {
+        return kills.get();
     }
 
+    /**
+     * @return A kill the guild didn't get since it got all of them, null if there are none.
+     */
+    @Nullable
+    public Kill next(long guildId) {
+        return kills.next(delivered, guildId, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Picks up kills other processes added since, ids only grow. If the count still doesn't match, something was
+     * removed and everything is loaded again.
+     */
+    public void refresh() {
+        int newest = 0;
+        for (Kill kill : kills.get()) newest = Math.max(newest, kill.getID());
+        kills.merge(getCollection(Kill.class).find(Filters.gt("_id", newest)).into(new ArrayList<>()));
+        if (getCollection().estimatedDocumentCount() != kills.get().size()) kills.reload();
+    }
 
     public class Kill {
         private int ID;
@@ -47,4 +76,39 @@ public class KillManager extends DatabaseInterface {
         }
     }
 
-}
\ No newline at end of file
+    public class KillCodec implements Codec<Kill> {
+        @Override
+        public Kill decode(BsonReader reader, DecoderContext decoderContext) {
+            int id = 0;
+            String msg = null;
+            reader.readStartDocument();
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                switch (reader.readName()) {
+                    case "_id":
+                        id = CodecUtils.readInt(reader);
+                        break;
+                    case "msg":
+                        msg = CodecUtils.readString(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.readEndDocument();
+            return new Kill(id, msg);
+        }
+
+        @Override
+        public void encode(BsonWriter writer, Kill value, EncoderContext encoderContext) {
+            writer.writeStartDocument();
+            writer.writeInt32("_id", value.getID());
+            CodecUtils.writeString(writer, "msg", value.getMsg());
+            writer.writeEndDocument();
+        }
+
+        @Override
+        public Class<Kill> getEncoderClass() {
+            return Kill.class;
+        }
+    }
+}
@@ -6,52 +6,145 @@
 
 package me.turulix.main.Database.Manager;
 
-import com.mongodb.Block;
-import com.mongodb.client.FindIterable;
 import com.mongodb.client.model.Filters;
+import me.turulix.main.Database.CodecUtils;
 import me.turulix.main.UtilClasses.SubClasses.DatabaseInterface;
+import me.turulix.main.UtilClasses.SubClasses.ShuffleBags;
+import me.turulix.main.UtilClasses.SubClasses.SnapshotList;
 import me.turulix.main.UtilClasses.SubClasses.SubClasses;
-import org.bson.Document;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 public class RandomManager extends DatabaseInterface {
+    /**
+     * Clock difference between processes that {@link #refresh()} still tolerates.
+     */
+    private static final long CLOCK_SKEW = TimeUnit.MINUTES.toMillis(1);
 
-    @NotNull
-    public static ArrayList<SubClasses.RandomClass> cache = new ArrayList<>();
+    private final SnapshotList<SubClasses.RandomClass> randoms = new SnapshotList<>(() -> getCollection(SubClasses.RandomClass.class).find().into(new ArrayList<>()), SubClasses.RandomClass::getID);
+    private final ShuffleBags delivered = new ShuffleBags(100_000, TimeUnit.HOURS.toNanos(6));
+    private volatile long lastRefresh = System.currentTimeMillis();
 
     public RandomManager() {
         collectionName = "RandomList";
     }
 
     @NotNull
-    public ArrayList<SubClasses.RandomClass> getRandoms() {
-        if (cache.isEmpty()) {
-            FindIterable<Document> cursor = getDocument();
-            cursor.forEach((Block<? super Document>) dbObject -> cache.add(new SubClasses.RandomClass(UUID.fromString((String) dbObject.get("_id")), (String) dbObject.get("msg"), (String) dbObject.get("creatorTag"), (Long) dbObject.get("userID"))));
-        }
-        return cache;
+    public List<SubClasses.RandomClass> getRandoms() {
+        return randoms.get();
+    }
+
+    /**
+     * @return A random the guild didn't get since it got all of them, null if there are none.
+     */
+    @Nullable
+    public SubClasses.RandomClass next(long guildId) {
+        return randoms.next(delivered, guildId, ThreadLocalRandom.current());
     }
 
+    /**
+     * @return The random with the id, null if there is none.
+     */
+    @Nullable
+    public SubClasses.RandomClass getRandom(UUID id) {
+        return randoms.find(id);
+    }
+
+    /**
+     * Loads all randoms again.
+     */
     public void invalidateCache() {
-        cache.clear();
+        randoms.reload();
     }
 
     public UUID addRandom(String msg, String creatorTag, Long userID) {
         UUID id = UUID.randomUUID();
-        Document document = new Document();
-        document.append("_id", id.toString());
-        document.append("msg", msg);
-        document.append("creatorTag", creatorTag);
-        document.append("userID", userID);
-        insert(document);
+        SubClasses.RandomClass random = new SubClasses.RandomClass(id, msg, creatorTag, userID);
+        getCollection(SubClasses.RandomClass.class).insertOne(random);
+        randoms.add(random);
         return id;
     }
 
-    public void removeRandom(UUID id) {
-        remove(Filters.eq("_id", id.toString()));
+    /**
+     * @return If there was a random with the id.
+     */
+    public boolean removeRandom(UUID id) {
+        // The database first, if the delete fails the random stays in both
+        long deleted = remove(Filters.eq("_id", id.toString()));
+        // Another process may have added it since the last refresh, or removed it already
+        return randoms.remove(id) || deleted > 0;
+    }
+
+    /**
+     * Picks up randoms other processes added since the last refresh by the time they were added at. If the count still
+     * doesn't match, something was removed and everything is loaded again.
+     */
+    public void refresh() {
+        long start = System.currentTimeMillis();
+        randoms.merge(getCollection(SubClasses.RandomClass.class).find(Filters.gte("added", new Date(lastRefresh - CLOCK_SKEW))).into(new ArrayList<>()));
+        if (getCollection().estimatedDocumentCount() != randoms.get().size()) randoms.reload();
+        lastRefresh = start;
     }
 
-}
\ No newline at end of file
+    public static class RandomCodec implements Codec<SubClasses.RandomClass> {
+        @Override
+        public SubClasses.RandomClass decode(BsonReader reader, DecoderContext decoderContext) {
+            UUID id = null;
+            String msg = null;
+            String creatorTag = null;
+            long userId = 0;
+            reader.readStartDocument();
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                switch (reader.readName()) {
+                    case "_id":
+                        String value = CodecUtils.readString(reader);
+                        id = value == null ? null : UUID.fromString(value);
+                        break;
+                    case "msg":
+                        msg = CodecUtils.readString(reader);
+                        break;
+                    case "creatorTag":
+                        creatorTag = CodecUtils.readString(reader);
+                        break;
+                    case "userID":
+                        userId = CodecUtils.readLong(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.readEndDocument();
+            return new SubClasses.RandomClass(id, msg, creatorTag, userId);
+        }
+
+        @Override
+        public void encode(BsonWriter writer, SubClasses.RandomClass value, EncoderContext encoderContext) {
+            writer.writeStartDocument();
+            writer.writeString("_id", value.getID().toString());
+            CodecUtils.writeString(writer, "msg", value.getRandom());
+            CodecUtils.writeString(writer, "creatorTag", value.getCREATOR_TAG());
+            writer.writeInt64("userID", value.getUSER_ID());
+            // Randoms are only encoded to be inserted, RandomManager.refresh finds new ones by this
+            writer.writeDateTime("added", System.currentTimeMillis());
+            writer.writeEndDocument();
+        }
+
+        @Override
+        public Class<SubClasses.RandomClass> getEncoderClass() {
+            return SubClasses.RandomClass.class;
+        }
+    }
+}
@@ -6,29 +6,55 @@
 
 package me.turulix.main.Database.Manager;
 
-import com.mongodb.Block;
-import com.mongodb.client.FindIterable;
+import com.mongodb.client.model.Filters;
+import me.turulix.main.Database.CodecUtils;
 import me.turulix.main.UtilClasses.SubClasses.DatabaseInterface;
-import org.bson.Document;
+import me.turulix.main.UtilClasses.SubClasses.ShuffleBags;
+import me.turulix.main.UtilClasses.SubClasses.SnapshotList;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 public class RoastManager extends DatabaseInterface {
-
-    public static ArrayList<Roast> cache = new ArrayList<>();
+    private final SnapshotList<Roast> roasts = new SnapshotList<>(() -> getCollection(Roast.class).find().into(new ArrayList<>()), Roast::getID);
+    private final ShuffleBags delivered = new ShuffleBags(100_000, TimeUnit.HOURS.toNanos(6));
 
     public RoastManager() {
         collectionName = "RoastList";
     }
 
     @NotNull
-    public ArrayList<Roast> getRoasts() {
-        if (cache.isEmpty()) {
-            FindIterable<Document> cursor = getDocument();
-            cursor.forEach((Block<? super Document>) document -> cache.add(new Roast(document.getInteger("_id"), document.getString("msg"))));
-        }
-        return cache;
+    public List<Roast> getRoasts() {
+        return roasts.get();
+    }
+
+    /**
+     * @return A roast the guild didn't get since it got all of them, null if there are none.
+     */
+    @Nullable
+    public Roast next(long guildId) {
+        return roasts.next(delivered, guildId, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Picks up roasts other processes added since, ids only grow. If the count still doesn't match, something was
+     * removed and everything is loaded again.
+     */
+    public void refresh() {
+        int newest = 0;
+        for (Roast roast : roasts.get()) newest = Math.max(newest, roast.getID());
+        roasts.merge(getCollection(Roast.class).find(Filters.gt("_id", newest)).into(new ArrayList<>()));
+        if (getCollection().estimatedDocumentCount() != roasts.get().size()) roasts.reload();
     }
 
     public class Roast {
@@ -50,4 +76,39 @@ public class RoastManager extends DatabaseInterface {
 
     }
 
-}
\ No newline at end of file
+    public class RoastCodec implements Codec<Roast> {
+        @Override
+        public Roast decode(BsonReader reader, DecoderContext decoderContext) {
+            int id = 0;
+            String msg = null;
+            reader.readStartDocument();
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                switch (reader.readName()) {
+                    case "_id":
+                        id = CodecUtils.readInt(reader);
+                        break;
+                    case "msg":
+                        msg = CodecUtils.readString(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.readEndDocument();
+            return new Roast(id, msg);
+        }
+
+        @Override
+        public void encode(BsonWriter writer, Roast value, EncoderContext encoderContext) {
+            writer.writeStartDocument();
+            writer.writeInt32("_id", value.getID());
+            CodecUtils.writeString(writer, "msg", value.getMsg());
+            writer.writeEndDocument();
+        }
+
+        @Override
+        public Class<Roast> getEncoderClass() {
+            return Roast.class;
+        }
+    }
+}
@@ -7,39 +7,72 @@
 package me.turulix.main.Database.Manager;
 
 
-import com.mongodb.client.model.Filters;
+import me.turulix.main.Database.CodecUtils;
+import me.turulix.main.Database.UserSettingsStore;
+import me.turulix.main.DiscordBot;
 import me.turulix.main.Logger;
 import me.turulix.main.UtilClasses.SubClasses.DatabaseInterface;
 import net.dv8tion.jda.core.entities.Member;
 import net.dv8tion.jda.core.entities.User;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
 import org.bson.Document;
-import org.bson.conversions.Bson;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.Calendar;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class UserManager extends DatabaseInterface {
-    public static HashMap<Long, UserSettings> cache = new HashMap<>();
+    /**
+     * How long a vote unlocks the vote only commands.
+     */
+    public static final long VOTE_DURATION = TimeUnit.DAYS.toMillis(7);
+    private static final Executor REFRESHER = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "UserSettings-Refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public final UserSettingsStore cache = new UserSettingsStore(1000000, TimeUnit.HOURS.toSeconds(6), 0.2, 0.8, REFRESHER);
 
     public UserManager() {
         collectionName = "UserDatabase";
     }
 
     public UserSettings getUserSettings(Long id) {
-        Bson filters = Filters.eq("_id", id);
-        if (cache.containsKey(id)) return cache.get(id);
-        Document document = getDocument(filters);
-        if (document == null) {
-            insert(new Document().append("_id", id));
-            document = getDocument(filters);
-        }
+        return cache.get(id, this::load);
+    }
 
-        String lang = document.containsKey("language") ? document.getString("language") : "en_US";
-        UserSettings settings = new UserSettings(lang, hasUserVoted(id));
+    /**
+     * @return The settings of the user if they are cached already, null otherwise. Never touches the database.
+     */
+    @Nullable
+    public UserSettings getCachedUserSettings(long id) {
+        return cache.getIfPresent(id);
+    }
+
+    /**
+     * Loads the user, with a vote that is still queued for the database already applied.
+     */
+    private UserSettings load(long id) {
+        // Looked at before and after the read, a flush may finish or a vote may come in while it runs
+        long queued = queuedVoteExpiresAt(id);
+        UserSettings settings = findOrCreate(UserSettings.class, id);
+        queued = Math.max(queued, queuedVoteExpiresAt(id));
+        if (settings == null || queued <= settings.getVoteExpiresAt()) return settings;
+        return new UserSettings(settings.getLang(), queued);
+    }
 
-        cache.put(id, settings);
-        return settings;
+    private long queuedVoteExpiresAt(long id) {
+        Document pending = DiscordBot.instance.registerStuff.database.writeBehind.getPending(collectionName, id);
+        Date voteDate = pending == null ? null : pending.getDate("voteDate");
+        return voteDate == null ? 0 : voteDate.getTime() + VOTE_DURATION;
     }
 
 
@@ -53,35 +86,44 @@ public class UserManager extends DatabaseInterface {
 
     public boolean hasUserVoted(Long id) {
         try {
-            Date date = getDocument(Filters.eq("_id", id)).getDate("voteDate");
-            if (date == null) {
-                return false;
-            }
-            Calendar calendar = Calendar.getInstance();
-            calendar.setTime(date);
-            calendar.add(Calendar.DATE, 7);
-            return date.before(calendar.getTime());
+            return getUserSettings(id).getHasVoted();
         } catch (Exception ex) {
             Logger.error("Could not find user", ex);
         }
         return true;
     }
 
+    /**
+     * Stores a vote through the write behind queue and applies it to the cached user right away. A user that isn't
+     * cached gets it from the queue when they are loaded.
+     */
+    public void registerVote(long id, Date date) {
+        updateLater(id, "voteDate", date);
+        cache.setVoteExpiresAt(id, date.getTime() + VOTE_DURATION);
+    }
+
     public void removeUser(Long id) {
-        cache.remove(id);
+        cache.invalidate(id);
     }
 
     public void clearCache() {
         cache.clear();
     }
 
-    public class UserSettings {
-        String lang;
-        Boolean hasVoted = true;
+    /**
+     * A snapshot of what {@link #cache} stores for a user.
+     */
+    public static class UserSettings {
+        final String lang;
+        final long voteExpiresAt;
 
         public UserSettings(String lang, Boolean hasVoted) {
+            this(lang, hasVoted ? System.currentTimeMillis() + VOTE_DURATION : 0);
+        }
+
+        public UserSettings(String lang, long voteExpiresAt) {
             this.lang = lang;
-            this.hasVoted = hasVoted;
+            this.voteExpiresAt = voteExpiresAt;
         }
 
         public String getLang() {
@@ -89,11 +131,52 @@ public class UserManager extends DatabaseInterface {
         }
 
         public Boolean getHasVoted() {
-            return hasVoted;
+            return System.currentTimeMillis() < voteExpiresAt;
+        }
+
+        /**
+         * @return Epoch millis until the last vote counts, 0 if the user never voted.
+         */
+        public long getVoteExpiresAt() {
+            return voteExpiresAt;
+        }
+    }
+
+    /**
+     * Decodes the language and the vote of a stored user, so loading a user needs only the one document.
+     */
+    public class UserSettingsCodec implements Codec<UserSettings> {
+        @Override
+        public UserSettings decode(BsonReader reader, DecoderContext decoderContext) {
+            String lang = null;
+            Date voteDate = null;
+            reader.readStartDocument();
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                switch (reader.readName()) {
+                    case "language":
+                        lang = CodecUtils.readString(reader);
+                        break;
+                    case "voteDate":
+                        voteDate = CodecUtils.readDate(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.readEndDocument();
+            return new UserSettings(lang == null ? "en_US" : lang, voteDate == null ? 0 : voteDate.getTime() + VOTE_DURATION);
+        }
+
+        @Override
+        public void encode(BsonWriter writer, UserSettings value, EncoderContext encoderContext) {
+            writer.writeStartDocument();
+            CodecUtils.writeString(writer, "language", value.getLang());
+            writer.writeEndDocument();
         }
 
-        public void setHasVoted(Boolean hasVoted) {
-            this.hasVoted = hasVoted;
+        @Override
+        public Class<UserSettings> getEncoderClass() {
+            return UserSettings.class;
         }
     }
 }
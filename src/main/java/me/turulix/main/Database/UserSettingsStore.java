@@ -0,0 +1,480 @@
+package me.turulix.main.Database;
+
+import me.turulix.main.Database.Manager.UserManager.UserSettings;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * The {@link UserSettings} of every user that used the bot lately, packed into primitive open addressing tables.
+ * <p>
+ * A user takes three longs in the table of one of 64 segments: the id, the vote expiry and a word holding the expiry of
+ * the entry, its refresh ahead window, the language as an index into a small table of language names and the CLOCK
+ * bits. The tables are kept between 37.5% and 75% full, so a user costs 32 to 64 bytes and there is no object per
+ * user. {@link #get} hands out a fresh {@link UserSettings} on every call.
+ * <p>
+ * Entries expire after a TTL with random jitter, so users loaded at the same time don't all miss at once. Reads after
+ * the refresh ahead fraction of the TTL still return the stored settings and reload them in the background, concurrent
+ * misses of the same user share one load. A segment that grows over its share of the capacity drops expired entries
+ * and then the ones that weren't read since its last sweep.
+ * <p>
+ * Reads are optimistic and only lock if a write got in between, writes lock their segment.
+ *
+ * @author Turulix
+ * @project NotDankMemer
+ * @since 17.10.2026 22:15
+ */
+public class UserSettingsStore {
+    private static final int SEGMENT_BITS = 6;
+    private static final int INITIAL_TABLE = 16;
+
+    private static final long EXPIRY_MASK = 0xFFFFFFFFL;
+    private static final int LEAD_SHIFT = 32;
+    private static final long LEAD_MASK = 0xFFFFL;
+    private static final int LANG_SHIFT = 48;
+    private static final int LANG_MASK = 0x1FFF;
+    private static final long OCCUPIED = 1L << 61;
+    private static final long REFERENCED = 1L << 62;
+    private static final long REFRESHING = 1L << 63;
+
+    private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+    private final ConcurrentHashMap<Long, CompletableFuture<UserSettings>> loading = new ConcurrentHashMap<>();
+    private final int segmentCapacity;
+    private final long ttl;
+    private final double jitter;
+    private final double refreshAhead;
+    private final Executor refresher;
+    private final LongSupplier clock;
+    private final long base;
+    private volatile String[] langs = {null};
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param capacity     Users kept before the segments start evicting.
+     * @param ttlSeconds   Longest time an entry is served.
+     * @param jitter       Fraction of the TTL that is randomly cut off per entry, 0.2 means 80% to 100% of the TTL.
+     * @param refreshAhead Fraction of an entries TTL after which a read reloads it in the background.
+     * @param refresher    Runs the background reloads.
+     */
+    public UserSettingsStore(int capacity, long ttlSeconds, double jitter, double refreshAhead, Executor refresher) {
+        this(capacity, ttlSeconds, jitter, refreshAhead, refresher, System::nanoTime);
+    }
+
+    UserSettingsStore(int capacity, long ttlSeconds, double jitter, double refreshAhead, Executor refresher, LongSupplier clock) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive!");
+        if (ttlSeconds <= 0 || ttlSeconds > EXPIRY_MASK / 2) throw new IllegalArgumentException("TTL out of range!");
+        if (jitter < 0 || jitter >= 1) throw new IllegalArgumentException("Jitter must be in [0, 1)!");
+        if (refreshAhead <= 0 || refreshAhead > 1) throw new IllegalArgumentException("Refresh ahead must be in (0, 1]!");
+        for (int i = 0; i < segments.length; i++) segments[i] = new Segment();
+        this.segmentCapacity = Math.max(1, (capacity + segments.length - 1) / segments.length);
+        this.ttl = ttlSeconds;
+        this.jitter = jitter;
+        this.refreshAhead = refreshAhead;
+        this.refresher = refresher;
+        this.clock = clock;
+        this.base = clock.getAsLong();
+    }
+
+    private static long mix(long key) {
+        return key * 0x9E3779B97F4A7C15L;
+    }
+
+    private static int slot(long key, int mask) {
+        long h = mix(key);
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static long expiry(long meta) {
+        return meta & EXPIRY_MASK;
+    }
+
+    private static long refreshAt(long meta) {
+        return expiry(meta) - ((meta >>> LEAD_SHIFT) & LEAD_MASK);
+    }
+
+    private static int langIndex(long meta) {
+        return (int) (meta >>> LANG_SHIFT) & LANG_MASK;
+    }
+
+    private static int find(Table table, long key) {
+        int mask = table.keys.length - 1;
+        // Bounded, a read racing a write can see a torn table
+        for (int i = slot(key, mask), n = 0; n <= mask; i = (i + 1) & mask, n++) {
+            if ((table.metas[i] & OCCUPIED) == 0) return -1;
+            if (table.keys[i] == key) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Seconds since the store was created, which fits the 32 bits of the expiry for the next 136 years.
+     */
+    private long now() {
+        return TimeUnit.NANOSECONDS.toSeconds(clock.getAsLong() - base);
+    }
+
+    private Segment segment(long key) {
+        return segments[(int) (mix(key) >>> (64 - SEGMENT_BITS))];
+    }
+
+    /**
+     * @return The stored settings, or the settings the loader returned for the user. Null is returned but not stored.
+     */
+    public UserSettings get(long key, LongFunction<UserSettings> loader) {
+        long now = now();
+        Segment segment = segment(key);
+        long stamp = segment.tryOptimisticRead();
+        Table table = segment.table;
+        int i = find(table, key);
+        long meta = i < 0 ? 0 : table.metas[i];
+        long vote = i < 0 ? 0 : table.votes[i];
+        if (!segment.validate(stamp)) {
+            stamp = segment.readLock();
+            try {
+                table = segment.table;
+                i = find(table, key);
+                meta = i < 0 ? 0 : table.metas[i];
+                vote = i < 0 ? 0 : table.votes[i];
+            } finally {
+                segment.unlockRead(stamp);
+            }
+        }
+        if (i >= 0 && now < expiry(meta)) {
+            hits.increment();
+            boolean refresh = now >= refreshAt(meta) && (meta & REFRESHING) == 0;
+            // Only the first read after a sweep or of a due entry has to lock
+            if ((refresh || (meta & REFERENCED) == 0) && touch(segment, key, now)) refresh(key, loader);
+            return new UserSettings(langs[langIndex(meta)], vote);
+        }
+        misses.increment();
+        return load(key, loader);
+    }
+
+    /**
+     * @return The stored settings without loading or refreshing them.
+     */
+    @Nullable
+    public UserSettings getIfPresent(long key) {
+        Segment segment = segment(key);
+        long stamp = segment.readLock();
+        try {
+            Table table = segment.table;
+            int i = find(table, key);
+            if (i < 0 || now() >= expiry(table.metas[i])) return null;
+            return new UserSettings(langs[langIndex(table.metas[i])], table.votes[i]);
+        } finally {
+            segment.unlockRead(stamp);
+        }
+    }
+
+    public void put(long key, UserSettings settings) {
+        long meta = newMeta(settings.getLang());
+        Segment segment = segment(key);
+        long stamp = segment.writeLock();
+        try {
+            segment.put(key, settings.getVoteExpiresAt(), meta);
+            if (segment.size > segmentCapacity) evict(segment, key);
+        } finally {
+            segment.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Changes the vote expiry of a stored user, without loading the user if it isn't stored.
+     *
+     * @return If the user was stored.
+     */
+    public boolean setVoteExpiresAt(long key, long voteExpiresAt) {
+        Segment segment = segment(key);
+        long stamp = segment.writeLock();
+        try {
+            Table table = segment.table;
+            int i = find(table, key);
+            if (i < 0) return false;
+            table.votes[i] = voteExpiresAt;
+            return true;
+        } finally {
+            segment.unlockWrite(stamp);
+        }
+    }
+
+    public void invalidate(long key) {
+        Segment segment = segment(key);
+        long stamp = segment.writeLock();
+        try {
+            int i = find(segment.table, key);
+            if (i >= 0) segment.delete(i);
+        } finally {
+            segment.unlockWrite(stamp);
+        }
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            long stamp = segment.writeLock();
+            try {
+                segment.table = new Table(INITIAL_TABLE);
+                segment.size = 0;
+            } finally {
+                segment.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * @return The number of stored users, not atomic over all segments.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            long stamp = segment.readLock();
+            size += segment.size;
+            segment.unlockRead(stamp);
+        }
+        return size;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getRefreshes() {
+        return refreshes.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private long newMeta(String lang) {
+        long now = now();
+        long lifetime = Math.max(1, ttl - (long) (ttl * jitter * ThreadLocalRandom.current().nextDouble()));
+        long lead = Math.min(LEAD_MASK, lifetime - (long) (lifetime * refreshAhead));
+        return OCCUPIED | (long) internLang(lang) << LANG_SHIFT | lead << LEAD_SHIFT | (now + lifetime);
+    }
+
+    /**
+     * @return The index of the language in {@link #langs}, 0 for null or if the table is full.
+     */
+    private int internLang(String lang) {
+        if (lang == null) return 0;
+        String[] current = langs;
+        for (int i = 1; i < current.length; i++) if (current[i].equals(lang)) return i;
+        synchronized (this) {
+            current = langs;
+            for (int i = 1; i < current.length; i++) if (current[i].equals(lang)) return i;
+            if (current.length > LANG_MASK) return 0;
+            String[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = lang;
+            langs = grown;
+            return current.length;
+        }
+    }
+
+    /**
+     * Sets the referenced bit and claims the refresh of the entry if it is due.
+     *
+     * @return If the caller has to refresh the entry.
+     */
+    private boolean touch(Segment segment, long key, long now) {
+        long stamp = segment.writeLock();
+        try {
+            Table table = segment.table;
+            int i = find(table, key);
+            if (i < 0) return false;
+            long meta = table.metas[i] | REFERENCED;
+            boolean refresh = now >= refreshAt(meta) && (meta & REFRESHING) == 0;
+            table.metas[i] = refresh ? meta | REFRESHING : meta;
+            return refresh;
+        } finally {
+            segment.unlockWrite(stamp);
+        }
+    }
+
+    private void refresh(long key, LongFunction<UserSettings> loader) {
+        try {
+            refresher.execute(() -> {
+                UserSettings settings = null;
+                try {
+                    settings = loader.apply(key);
+                } catch (RuntimeException ignored) {
+                    // Keep serving the stored settings, the next read tries again
+                }
+                long meta = settings == null ? 0 : newMeta(settings.getLang());
+                Segment segment = segment(key);
+                long stamp = segment.writeLock();
+                try {
+                    Table table = segment.table;
+                    int i = find(table, key);
+                    // A put or invalidate since the refresh started wins over the reloaded settings
+                    if (i < 0 || (table.metas[i] & REFRESHING) == 0) return;
+                    if (settings == null) {
+                        table.metas[i] &= ~REFRESHING;
+                        return;
+                    }
+                    // A vote may not be flushed to the database yet, a reload never takes it back
+                    table.votes[i] = Math.max(table.votes[i], settings.getVoteExpiresAt());
+                    table.metas[i] = meta | (table.metas[i] & REFERENCED);
+                    refreshes.increment();
+                } finally {
+                    segment.unlockWrite(stamp);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            Segment segment = segment(key);
+            long stamp = segment.writeLock();
+            try {
+                int i = find(segment.table, key);
+                if (i >= 0) segment.table.metas[i] &= ~REFRESHING;
+            } finally {
+                segment.unlockWrite(stamp);
+            }
+        }
+    }
+
+    private UserSettings load(long key, LongFunction<UserSettings> loader) {
+        CompletableFuture<UserSettings> created = new CompletableFuture<>();
+        CompletableFuture<UserSettings> pending = loading.putIfAbsent(key, created);
+        if (pending != null) {
+            try {
+                return pending.join();
+            } catch (CompletionException ex) {
+                if (ex.getCause() instanceof RuntimeException) throw (RuntimeException) ex.getCause();
+                throw ex;
+            }
+        }
+        try {
+            UserSettings settings = loader.apply(key);
+            if (settings != null) put(key, settings);
+            created.complete(settings);
+            return settings;
+        } catch (RuntimeException ex) {
+            created.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            loading.remove(key, created);
+        }
+    }
+
+    /**
+     * Drops expired entries, then runs CLOCK over the rest until 10% of the segment capacity is free again, and rebuilds
+     * the table without the victims. Called with the write lock held.
+     *
+     * @param added The user that was just added, it wasn't read yet but shouldn't be the first victim.
+     */
+    private void evict(Segment segment, long added) {
+        long now = now();
+        Table table = segment.table;
+        int excess = segment.size - (segmentCapacity - segmentCapacity / 10);
+        int removed = 0;
+        for (int i = 0; i < table.metas.length; i++) {
+            long meta = table.metas[i];
+            if ((meta & OCCUPIED) != 0 && now >= expiry(meta)) {
+                table.metas[i] = 0;
+                removed++;
+            }
+        }
+        // The first pass clears the reference bits, so the second one always finds victims
+        for (int pass = 0; pass < 2 && removed < excess; pass++) {
+            for (int i = 0; i < table.metas.length && removed < excess; i++) {
+                long meta = table.metas[i];
+                if ((meta & OCCUPIED) == 0 || table.keys[i] == added) continue;
+                if ((meta & REFERENCED) != 0) table.metas[i] = meta & ~REFERENCED;
+                else {
+                    table.metas[i] = 0;
+                    removed++;
+                }
+            }
+        }
+        evictions.add(removed);
+        segment.rehash(table.keys.length);
+    }
+
+    private static final class Table {
+        final long[] keys;
+        final long[] votes;
+        final long[] metas;
+
+        Table(int length) {
+            keys = new long[length];
+            votes = new long[length];
+            metas = new long[length];
+        }
+    }
+
+    /**
+     * The lock of the segment is the segment itself, everything else is only touched while holding it.
+     */
+    private static final class Segment extends StampedLock {
+        Table table = new Table(INITIAL_TABLE);
+        int size;
+
+        void put(long key, long vote, long meta) {
+            Table table = this.table;
+            int mask = table.keys.length - 1;
+            int i = slot(key, mask);
+            while ((table.metas[i] & OCCUPIED) != 0 && table.keys[i] != key) i = (i + 1) & mask;
+            if ((table.metas[i] & OCCUPIED) == 0) size++;
+            table.keys[i] = key;
+            table.votes[i] = vote;
+            table.metas[i] = meta;
+            if (size * 4 > table.keys.length * 3) rehash(table.keys.length * 2);
+        }
+
+        /**
+         * Backward shift deletion, so the probe sequences stay intact without tombstones.
+         */
+        void delete(int i) {
+            Table table = this.table;
+            int mask = table.keys.length - 1;
+            for (int j = (i + 1) & mask; (table.metas[j] & OCCUPIED) != 0; j = (j + 1) & mask) {
+                int home = slot(table.keys[j], mask);
+                // Entries whose home is cyclically in (i, j] can't move in front of it
+                if (i <= j ? i < home && home <= j : i < home || home <= j) continue;
+                table.keys[i] = table.keys[j];
+                table.votes[i] = table.votes[j];
+                table.metas[i] = table.metas[j];
+                i = j;
+            }
+            table.metas[i] = 0;
+            size--;
+        }
+
+        void rehash(int length) {
+            Table old = table;
+            Table table = new Table(length);
+            int mask = length - 1;
+            int size = 0;
+            for (int j = 0; j < old.keys.length; j++) {
+                if ((old.metas[j] & OCCUPIED) == 0) continue;
+                int i = slot(old.keys[j], mask);
+                while ((table.metas[i] & OCCUPIED) != 0) i = (i + 1) & mask;
+                table.keys[i] = old.keys[j];
+                table.votes[i] = old.votes[j];
+                table.metas[i] = old.metas[j];
+                size++;
+            }
+            this.size = size;
+            this.table = table;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package me.turulix.main.Database;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import me.turulix.main.Logger;
+import me.turulix.main.UtilClasses.SubClasses.LatencyHistogram;
+import org.bson.Document;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Field updates that don't have to be in the database before the caller goes on, like a changed prefix or a vote.
+ * <p>
+ * Updates are coalesced per collection and {@code _id}, the last value of a field wins, and written as upserting
+ * {@code $set}s in unordered bulk writes, whenever {@code maxBatch} documents are pending or every {@code
+ * flushIntervalMillis}. Flushes run one at a time, so an older value never overtakes a newer one. Until the flush is
+ * done a fresh read from the database still sees the old values, whoever updates also has to update their cache or lay
+ * {@link #getPending(String, Object)} over what they load.
+ * <p>
+ * Writes that fail because the database can't be reached are queued again, unless the field got a newer value in the
+ * meantime, and the timer waits twice as long after every failed flush, up to a minute. Writes the server rejects are
+ * dropped. At most {@code maxPending} documents wait at once, updates to further documents are dropped until the
+ * database catches up. Errors are logged at most once a minute, with the number of the ones left out.
+ * {@link #close()} flushes what is left.
+ *
+ * @author Turulix
+ * @project NotDankMemer
+ * @since 18.10.2026 00:10
+ */
+public class WriteBehindQueue {
+    private static final UpdateOptions UPSERT = new UpdateOptions().upsert(true);
+    private static final BulkWriteOptions UNORDERED = new BulkWriteOptions().ordered(false);
+    private static final int DEFAULT_MAX_PENDING = 100000;
+    private static final long MAX_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final long ERROR_LOG_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final Function<String, MongoCollection<Document>> collections;
+    private final int maxBatch;
+    private final int maxPending;
+    private final long flushIntervalMillis;
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "WriteBehind-Flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private LinkedHashMap<Key, Document> pending = new LinkedHashMap<>();
+    // The batch that is being written, still visible to getPending until the write is done
+    private Map<Key, Document> inFlight = Collections.emptyMap();
+    // Written under the flush lock, the timer doesn't flush before retryAt while the database fails
+    private volatile long backoffMillis;
+    private volatile long retryAt;
+    private final AtomicLong lastErrorLog = new AtomicLong(System.nanoTime() - ERROR_LOG_INTERVAL_NANOS);
+    private final LongAdder unloggedErrors = new LongAdder();
+
+    private final LatencyHistogram flushLatency = new LatencyHistogram();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+
+    /**
+     * @param collections Resolves a collection name to its handle.
+     */
+    public WriteBehindQueue(Function<String, MongoCollection<Document>> collections, int maxBatch, long flushIntervalMillis) {
+        this(collections, maxBatch, flushIntervalMillis, DEFAULT_MAX_PENDING);
+    }
+
+    /**
+     * @param collections Resolves a collection name to its handle.
+     * @param maxPending  How many documents may wait for a flush at once.
+     */
+    public WriteBehindQueue(Function<String, MongoCollection<Document>> collections, int maxBatch, long flushIntervalMillis, int maxPending) {
+        this.collections = collections;
+        this.maxBatch = maxBatch;
+        this.maxPending = maxPending;
+        this.flushIntervalMillis = flushIntervalMillis;
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues {@code $set: {field: value}} for the document, creating it if it doesn't exist. The update is dropped if
+     * the document isn't pending already and {@code maxPending} others are.
+     */
+    public void set(String collection, Object id, String field, Object value) {
+        int depth;
+        synchronized (this) {
+            Key key = new Key(collection, id);
+            Document fields = pending.get(key);
+            if (fields == null && pending.size() < maxPending) pending.put(key, fields = new Document());
+            if (fields != null) fields.put(field, value);
+            depth = fields == null ? -1 : pending.size();
+        }
+        if (depth < 0) {
+            overflowed.increment();
+            logError("Dropped the queued write to " + collection + " " + id + ", " + maxPending + " documents are pending already", null);
+            return;
+        }
+        if (depth >= maxBatch && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushRequested.set(false);
+                flushQuietly();
+            });
+        }
+    }
+
+    /**
+     * @return The fields set for the document that may not be in the database yet, newest values win, null if there
+     * are none.
+     */
+    @Nullable
+    public synchronized Document getPending(String collection, Object id) {
+        Key key = new Key(collection, id);
+        Document writing = inFlight.get(key);
+        Document queued = pending.get(key);
+        if (writing == null && queued == null) return null;
+        Document fields = new Document();
+        if (writing != null) fields.putAll(writing);
+        if (queued != null) fields.putAll(queued);
+        return fields;
+    }
+
+    /**
+     * Writes everything that is pending, on the calling thread.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            LinkedHashMap<Key, Document> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) return;
+                batch = pending;
+                pending = new LinkedHashMap<>();
+                inFlight = batch;
+            }
+            long start = System.nanoTime();
+            Map<String, List<Map.Entry<Key, Document>>> byCollection = new LinkedHashMap<>();
+            for (Map.Entry<Key, Document> entry : batch.entrySet())
+                byCollection.computeIfAbsent(entry.getKey().collection, name -> new ArrayList<>()).add(entry);
+            boolean failed = false;
+            for (Map.Entry<String, List<Map.Entry<Key, Document>>> entries : byCollection.entrySet())
+                for (int i = 0; i < entries.getValue().size(); i += maxBatch)
+                    failed |= !write(entries.getKey(), entries.getValue().subList(i, Math.min(i + maxBatch, entries.getValue().size())));
+            flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            backoffMillis = failed ? nextBackoffMillis() : 0;
+            retryAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMillis);
+        } finally {
+            synchronized (this) {
+                inFlight = Collections.emptyMap();
+            }
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Stops the timer and flushes what is left.
+     */
+    public void close() {
+        flusher.shutdown();
+        flush();
+    }
+
+    public synchronized int getQueueDepth() {
+        return pending.size();
+    }
+
+    /**
+     * Writes the state of the queue in the Prometheus text format.
+     */
+    public void writePrometheus(StringBuilder out) {
+        out.append("# HELP notdankmemer_write_behind_queue_depth Documents with updates waiting for the next flush.\n");
+        out.append("# TYPE notdankmemer_write_behind_queue_depth gauge\n");
+        out.append("notdankmemer_write_behind_queue_depth ").append(getQueueDepth()).append('\n');
+        out.append("# HELP notdankmemer_write_behind_documents_total Queued document updates by outcome.\n");
+        out.append("# TYPE notdankmemer_write_behind_documents_total counter\n");
+        out.append("notdankmemer_write_behind_documents_total{result=\"written\"} ").append(getWritten()).append('\n');
+        out.append("notdankmemer_write_behind_documents_total{result=\"retried\"} ").append(getRetried()).append('\n');
+        out.append("notdankmemer_write_behind_documents_total{result=\"dropped\"} ").append(getDropped()).append('\n');
+        out.append("notdankmemer_write_behind_documents_total{result=\"overflowed\"} ").append(getOverflowed()).append('\n');
+        out.append("# HELP notdankmemer_write_behind_backoff_seconds How long the flush timer waits because the database failed, 0 while it is fine.\n");
+        out.append("# TYPE notdankmemer_write_behind_backoff_seconds gauge\n");
+        out.append("notdankmemer_write_behind_backoff_seconds ").append(getBackoffMillis() / 1000.0).append('\n');
+        out.append("# HELP notdankmemer_write_behind_flush_seconds Time a flush of the write behind queue took.\n");
+        out.append("# TYPE notdankmemer_write_behind_flush_seconds summary\n");
+        getFlushLatency().writeSummary(out, "notdankmemer_write_behind_flush_seconds", "");
+    }
+
+    public LatencyHistogram getFlushLatency() {
+        return flushLatency;
+    }
+
+    /**
+     * @return Documents written since the start.
+     */
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getRetried() {
+        return retried.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return Updates dropped because too many documents were pending.
+     */
+    public long getOverflowed() {
+        return overflowed.sum();
+    }
+
+    /**
+     * @return How long the timer waits after the last failed flush, 0 while the database is fine.
+     */
+    long getBackoffMillis() {
+        return backoffMillis;
+    }
+
+    private long nextBackoffMillis() {
+        return Math.min(MAX_BACKOFF_MILLIS, Math.max(flushIntervalMillis, backoffMillis * 2));
+    }
+
+    private void flushQuietly() {
+        try {
+            // Explicit flushes and close still write right away
+            if (backoffMillis > 0 && System.nanoTime() - retryAt < 0) return;
+            flush();
+        } catch (Exception ex) {
+            logError("Could not flush the queued writes", ex);
+        }
+    }
+
+    /**
+     * Logs the error unless another one was logged less than a minute ago, so a database outage doesn't flood the
+     * error webhook.
+     */
+    private void logError(String message, @Nullable Exception ex) {
+        long now = System.nanoTime();
+        long last = lastErrorLog.get();
+        if (now - last < ERROR_LOG_INTERVAL_NANOS || !lastErrorLog.compareAndSet(last, now)) {
+            unloggedErrors.increment();
+            return;
+        }
+        long unlogged = unloggedErrors.sumThenReset();
+        if (unlogged > 0) message += " (" + unlogged + " more errors since the last one weren't logged)";
+        if (ex == null) Logger.error(message);
+        else Logger.error(message, ex);
+    }
+
+    /**
+     * @return False if the database couldn't be reached and the entries got queued again.
+     */
+    private boolean write(String collection, List<Map.Entry<Key, Document>> entries) {
+        List<UpdateOneModel<Document>> models = new ArrayList<>(entries.size());
+        for (Map.Entry<Key, Document> entry : entries)
+            models.add(new UpdateOneModel<>(Filters.eq("_id", entry.getKey().id), new Document("$set", entry.getValue()), UPSERT));
+        try {
+            collections.apply(collection).bulkWrite(models, UNORDERED);
+            written.add(entries.size());
+            return true;
+        } catch (MongoBulkWriteException ex) {
+            if (!ex.getWriteErrors().isEmpty()) {
+                BulkWriteError first = ex.getWriteErrors().get(0);
+                logError("Dropped " + ex.getWriteErrors().size() + " queued writes to " + collection + ", the first to " + entries.get(first.getIndex()).getKey().id + ": " + first.getMessage(), null);
+            }
+            written.add(entries.size() - ex.getWriteErrors().size());
+            dropped.add(ex.getWriteErrors().size());
+            return true;
+        } catch (MongoException ex) {
+            retried.add(entries.size());
+            int lost = requeue(entries);
+            logError("Could not write " + entries.size() + " queued updates to " + collection + ", retrying in " + nextBackoffMillis() + "ms" + (lost > 0 ? ", " + lost + " of them didn't fit into the queue again" : ""), ex);
+            return false;
+        }
+    }
+
+    /**
+     * @return How many entries were dropped because too many documents are pending.
+     */
+    private synchronized int requeue(List<Map.Entry<Key, Document>> entries) {
+        int lost = 0;
+        for (Map.Entry<Key, Document> entry : entries) {
+            Document fields = pending.get(entry.getKey());
+            if (fields == null) {
+                if (pending.size() >= maxPending) {
+                    lost++;
+                    continue;
+                }
+                pending.put(entry.getKey(), fields = new Document());
+            }
+            // Values set since the failed flush are newer
+            entry.getValue().forEach(fields::putIfAbsent);
+        }
+        overflowed.add(lost);
+        return lost;
+    }
+
+    private static final class Key {
+        final String collection;
+        final Object id;
+
+        Key(String collection, Object id) {
+            this.collection = collection;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return collection.equals(key.collection) && id.equals(key.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(collection, id);
+        }
+    }
+}
@@ -9,14 +9,13 @@ package me.turulix.main;
 import com.jagrosh.jdautilities.command.Command;
 import com.jagrosh.jdautilities.command.CommandClientBuilder;
 import com.jagrosh.jdautilities.command.CommandEvent;
+import com.jagrosh.jdautilities.command.impl.AdmissionLimiter;
 import com.neovisionaries.ws.client.WebSocketFactory;
 import me.turulix.main.Database.Database;
-import me.turulix.main.Database.Manager.GuildSettingsDataManager;
+import me.turulix.main.Files.Config;
 import me.turulix.main.Files.TomlManager;
 import me.turulix.main.Listeners.CMDListener;
 import me.turulix.main.UtilClasses.OneTimeCode;
-import me.turulix.main.UtilClasses.SubClasses.SubClasses;
-import me.turulix.main.UtilClasses.Utils;
 import me.turulix.main.Webserver.ApiWebServer;
 import net.dv8tion.jda.bot.sharding.DefaultShardManagerBuilder;
 import net.dv8tion.jda.core.JDA;
@@ -24,10 +23,6 @@ import net.dv8tion.jda.core.entities.ChannelType;
 import net.dv8tion.jda.core.entities.Game;
 import net.dv8tion.jda.core.utils.SessionControllerAdapter;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
 
 import java.util.*;
 import java.util.concurrent.Executors;
@@ -124,10 +119,18 @@ public class DiscordBot implements Runnable {
             //builder.setDiscordBotsKey(registerStuff.tokens.get(4));
             builder.setEmojis("✅", "⚠", "⛔");
             builder.setLinkedCacheSize(0);
-            builder.setGuildSettingsManager(new GuildSettingsDataManager());
+            builder.setGuildSettingsManager(registerStuff.database.guildSettingsDataManager);
             //builder.setShutdownAutomatically(false);
             builder.setServerInvite("https://discord.gg/CYVjCvV");
             builder.setScheduleExecutor(threadpool);
+            Config.Limits limits = tomlManager.getToml().limits;
+            if (limits != null) {
+                AdmissionLimiter.Limit user = AdmissionLimiter.Limit.of(limits.userBurst, limits.userPerSecond);
+                AdmissionLimiter.Limit guild = AdmissionLimiter.Limit.of(limits.guildBurst, limits.guildPerSecond);
+                AdmissionLimiter.Limit shard = AdmissionLimiter.Limit.of(limits.shardBurst, limits.shardPerSecond);
+                if (user != null || guild != null || shard != null)
+                    builder.setAdmissionLimiter(new AdmissionLimiter(user, guild, shard));
+            }
             registerStuff.addCommands(builder);
             registerStuff.commandClient = builder.build();
         }
@@ -164,7 +167,10 @@ public class DiscordBot implements Runnable {
             Logger.info(registerStuff.shardManager.getShards().size() + " Shards started!");
         }
         started = true;
-        if (initialiseCommandHandler) registerStuff.commandClient.getSettingsManager().init();
+        if (initialiseCommandHandler) {
+            registerStuff.commandClient.getSettingsManager().init();
+            registerStuff.database.loadContent();
+        }
 
         scanner = new Scanner(System.in);
         if (initialiseCommandHandler) {
@@ -190,6 +196,15 @@ public class DiscordBot implements Runnable {
         }
     }
 
+    /**
+     * Offline instance without a gateway connection or command client, everything else has to be set up by the caller.
+     */
+    DiscordBot(@NotNull RegisterStuff registerStuff, TomlManager tomlManager) {
+        instance = this;
+        this.registerStuff = registerStuff;
+        this.tomlManager = tomlManager;
+    }
+
     public static void main(String[] args) {
         //@NotNull DiscordBot discordBot = new DiscordBot();
         //Thread bot = new Thread(discordBot, "bot");
@@ -204,7 +219,6 @@ public class DiscordBot implements Runnable {
 
         @NotNull Timer MinUpdate = new Timer();
         @NotNull Timer HourUpdate = new Timer();
-        Timer DayUpdate = new Timer();
         MinUpdate.schedule(new TimerTask() {
             public void run() {
                 if (started) {
@@ -216,48 +230,11 @@ public class DiscordBot implements Runnable {
 
         HourUpdate.schedule(new TimerTask() {
             public void run() {
-                try {
-                    Logger.info("Updating Meme Cache");
-                    String after = "null";
-                    DiscordBot.instance.registerStuff.cachedMemes.clear();
-                    for (int i = 0; i < 3; i++) {
-                        @Nullable String memeString = Utils.getUrl("https://old.reddit.com/u/turulix/m/notdankmemer/top/.json?sort=top&t=day&limit=100&after=" + after);
-                        @NotNull JSONObject obj = new JSONObject(memeString);
-                        JSONArray arr = obj.getJSONObject("data").getJSONArray("children");
-                        try {
-                            after = obj.getJSONObject("data").getString("after");
-                        } catch (JSONException ex) {
-                            after = "null";
-                        }
-                        for (Object o : arr) {
-                            JSONObject meme = (JSONObject) o;
-                            meme = meme.getJSONObject("data");
-                            String url = meme.getString("url");
-                            @NotNull String permURL = "https://www.reddit.com" + meme.getString("permalink");
-                            String title = meme.getString("title");
-                            int commentAmount = meme.getInt("num_comments");
-                            int upVotes = meme.getInt("ups");
-                            String id = meme.getString("id");
-                            DiscordBot.instance.registerStuff.cachedMemes.add(new SubClasses.RedditMeme(url, permURL, commentAmount, upVotes, title, id));
-                        }
-                        if (after.equalsIgnoreCase("null")) {
-                            break;
-                        }
-                    }
-                } catch (Exception ex) {
-                    ex.printStackTrace();
-                    Logger.error(ex);
-                }
+                Logger.info("Updating Meme Cache");
+                instance.registerStuff.cachedMemes.refresh(instance.tomlManager.getToml().memes.sources);
             }
         }, 0, ((60 * 1000) * 60));
 
-        DayUpdate.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                instance.registerStuff.database.userManager.clearCache();
-            }
-        }, 0, (60 * 1000) * 60 * 24);
-
     }
 
     public void setRunning(boolean running) {
@@ -1,5 +1,8 @@
 package me.turulix.main.Files;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * @author Turulix
  * @project NotDankMemer
@@ -11,6 +14,8 @@ public class Config {
     public SQL sql = new SQL();
     public Tokens tokens = new Tokens();
     public Auth auth = new Auth();
+    public Limits limits = new Limits();
+    public Memes memes = new Memes();
 
     public class Tokens {
         public String token = "";
@@ -32,5 +37,25 @@ public class Config {
     public class Auth {
         public String webHookSecret = "";
     }
+
+    /**
+     * Token buckets every command has to pass, a missing or 0 value turns that limit off. All of them are off unless
+     * configured, 5 at 0.5/s per user, 30 at 5/s per guild and 250 at 50/s per shard are a sensible start.
+     */
+    public class Limits {
+        public Integer userBurst;
+        public Double userPerSecond;
+        public Integer guildBurst;
+        public Double guildPerSecond;
+        public Integer shardBurst;
+        public Double shardPerSecond;
+    }
+
+    public class Memes {
+        /**
+         * Reddit listings the meme command picks from, as path and the time window of their top posts.
+         */
+        public List<String> sources = new ArrayList<>(List.of("u/turulix/m/notdankmemer:day"));
+    }
 }
 
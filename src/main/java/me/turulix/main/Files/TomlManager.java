@@ -15,12 +15,14 @@ import java.util.Map;
  * @since 22.03.2019 23:18
  */
 public class TomlManager {
-    String settingsPath = DiscordBot.instance.registerStuff.filePath + "/Settings/";
-    File tomlFile = new File(settingsPath + "Config.toml");
+    String settingsPath;
+    File tomlFile;
     private Config toml;
     private Map<String, Object> originalConfigs;
 
     public TomlManager() {
+        settingsPath = DiscordBot.instance.registerStuff.filePath + "/Settings/";
+        tomlFile = new File(settingsPath + "Config.toml");
         if (!tomlFile.exists()) {
             TomlWriter writer = new TomlWriter();
             try {
@@ -34,9 +36,16 @@ public class TomlManager {
 
     }
 
+    /**
+     * Uses the given config instead of the file, {@link #save()} won't write anything.
+     */
+    public TomlManager(Config config) {
+        toml = config;
+    }
+
     public void save() {
         TomlWriter writer = new TomlWriter();
-        if (!toml.testMode) {
+        if (!toml.testMode && tomlFile != null) {
             originalConfigs.put("runOneTimeCode", false);
             try {
                 writer.write(originalConfigs, tomlFile);
@@ -9,6 +9,7 @@ package me.turulix.main;
 import com.jagrosh.jdautilities.command.CommandEvent;
 import me.turulix.main.UtilClasses.ConsoleColors;
 import me.turulix.main.UtilClasses.FormatUtil;
+import me.turulix.main.UtilClasses.Http;
 import net.dv8tion.jda.core.entities.Guild;
 import net.dv8tion.jda.core.entities.TextChannel;
 import okhttp3.*;
@@ -159,13 +160,11 @@ public class Logger implements Thread.UncaughtExceptionHandler {
         jsonObject.put("username", name);
         jsonObject.put("avatar_url", "https://lh3.googleusercontent.com/iAAi10x_VAthDyioYzFUrpAI_TTfrpDouT_y0K8ChCCsDpE-JDl2ZsrdHN89oVdMlA");
         jsonObject.put("tts", false);
-        OkHttpClient client = new OkHttpClient();
         String url = "https://discordapp.com/api/webhooks/531077203459440640/nmLniKuTa_a0QFfzZeZ5QJmHrJlrcuCrX0MSAg9Zbt6o7hXn6euaY5MLzpt3X7w820Bs";
         RequestBody body = RequestBody.create(MediaType.parse("application/json"), jsonObject.toString());
         Request request = new Request.Builder().url(url).post(body).build();
         try {
-            Response response = client.newCall(request).execute();
-            //System.out.println(response.body().string());
+            Http.execute(request, responseBody -> null);
         } catch (IOException e) {
             e.printStackTrace();
         }
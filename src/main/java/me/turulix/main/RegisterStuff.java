@@ -17,7 +17,7 @@ import me.turulix.main.Commands.Memes.GenericMeme;
 import me.turulix.main.Commands.Music.Managers.MusicManager;
 import me.turulix.main.Database.Database;
 import me.turulix.main.UtilClasses.Anotations.DankCommand;
-import me.turulix.main.UtilClasses.SubClasses.SubClasses;
+import me.turulix.main.UtilClasses.SubClasses.MemeStore;
 import net.dv8tion.jda.bot.sharding.ShardManager;
 import net.dv8tion.jda.core.Permission;
 import net.dv8tion.jda.core.utils.SessionController;
@@ -37,7 +37,7 @@ public class RegisterStuff {
     public final List<String> trumpPictures;
     @NotNull
     public final Map<String, String> StaticGifs;
-    public List<SubClasses.RedditMeme> cachedMemes;
+    public final MemeStore cachedMemes;
     @NotNull
     public String NotDankMemerServerID = "497769262749057026";
     @NotNull
@@ -56,7 +56,7 @@ public class RegisterStuff {
     public MusicManager musicManager;
 
     RegisterStuff() {
-        cachedMemes = new ArrayList<>();
+        cachedMemes = new MemeStore();
         filePath = System.getProperty("user.dir");
         trumpPictures = new ArrayList<>();
         StaticGifs = new HashMap<>();
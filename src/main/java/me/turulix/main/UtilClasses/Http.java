@@ -0,0 +1,198 @@
+package me.turulix.main.UtilClasses;
+
+import me.turulix.main.UtilClasses.SubClasses.LatencyHistogram;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The one HTTP client every outgoing request of the bot goes through.
+ * <p>
+ * All requests share one connection pool, so connections and TLS sessions are reused, and talk HTTP/2 to hosts that
+ * support it. Every host has a limit of requests at once, a request that doesn't get a slot in time fails instead of
+ * piling up, and can have its own timeout. Responses are always closed, the caller only sees the body while it is
+ * read. Latency and errors are recorded per host for the /metrics endpoint.
+ *
+ * @author Turulix
+ * @project NotDankMemer
+ * @since 18.10.2026 04:10
+ */
+public class Http {
+    private static final int DEFAULT_MAX_CONCURRENT = 8;
+    private static final long DEFAULT_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    /**
+     * How long a request waits for a slot of its host.
+     */
+    private static final long ACQUIRE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    private static volatile OkHttpClient client = new OkHttpClient.Builder()
+            .connectionPool(new ConnectionPool(16, 5, TimeUnit.MINUTES))
+            .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+            .connectTimeout(10, TimeUnit.SECONDS)
+            .readTimeout(20, TimeUnit.SECONDS)
+            .callTimeout(DEFAULT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)
+            .build();
+    private static final ConcurrentHashMap<String, Host> HOSTS = new ConcurrentHashMap<>();
+
+    static {
+        // Renders the image before it answers
+        configure("turulix.de", 4, TimeUnit.SECONDS.toMillis(60));
+    }
+
+    /**
+     * Reads what it needs from the body of a successful response.
+     */
+    @FunctionalInterface
+    public interface BodyHandler<T> {
+        T read(@NotNull ResponseBody body) throws IOException;
+    }
+
+    /**
+     * Sets the limit of requests at once and the timeout of a whole request, for a host that needs other ones than the
+     * defaults. Requests that already run keep the old ones.
+     */
+    public static void configure(@NotNull String host, int maxConcurrent, long timeoutMillis) {
+        HOSTS.put(host, new Host(host, maxConcurrent, timeoutMillis));
+    }
+
+    /**
+     * Replaces the client every request goes through, for example with one that sends everything to local stand-ins
+     * instead of the real APIs. The limits and metrics of the hosts stay, their own timeouts are applied on top.
+     */
+    public static void useClient(@NotNull OkHttpClient replacement) {
+        client = replacement;
+        HOSTS.values().forEach(Host::derive);
+    }
+
+    /**
+     * Runs the request and reads the body with the handler, the response is closed afterwards.
+     *
+     * @throws IOException If the request failed, didn't get a slot of its host in time, the response isn't a success
+     *                     or the handler failed.
+     */
+    public static <T> T execute(@NotNull Request request, @NotNull BodyHandler<T> handler) throws IOException {
+        Host host = host(request.url().host());
+        try {
+            if (!host.permits.tryAcquire(ACQUIRE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                host.errors.increment();
+                throw new IOException("Too many requests to " + host.name + " at once");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + host.name);
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try (Response response = host.client.newCall(request).execute()) {
+            ResponseBody body = response.body();
+            if (!response.isSuccessful() || body == null)
+                throw new IOException("HTTP " + response.code() + " from " + host.name);
+            T result = handler.read(body);
+            failed = false;
+            return result;
+        } finally {
+            host.permits.release();
+            host.latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            (failed ? host.errors : host.successes).increment();
+        }
+    }
+
+    /**
+     * @return Every host a request went to, with its metrics.
+     */
+    @NotNull
+    public static Collection<Host> getHosts() {
+        return HOSTS.values();
+    }
+
+    /**
+     * Writes the traffic of every host in the Prometheus text format.
+     */
+    public static void writePrometheus(StringBuilder out) {
+        out.append("# HELP notdankmemer_http_requests_total Outgoing HTTP requests by host and outcome.\n");
+        out.append("# TYPE notdankmemer_http_requests_total counter\n");
+        for (Host host : HOSTS.values()) {
+            out.append("notdankmemer_http_requests_total{host=\"").append(host.name).append("\",result=\"success\"} ").append(host.getSuccesses()).append('\n');
+            out.append("notdankmemer_http_requests_total{host=\"").append(host.name).append("\",result=\"error\"} ").append(host.getErrors()).append('\n');
+        }
+        out.append("# HELP notdankmemer_http_in_flight Outgoing HTTP requests running right now by host.\n");
+        out.append("# TYPE notdankmemer_http_in_flight gauge\n");
+        for (Host host : HOSTS.values())
+            out.append("notdankmemer_http_in_flight{host=\"").append(host.name).append("\"} ").append(host.getInFlight()).append('\n');
+        out.append("# HELP notdankmemer_http_request_seconds Time outgoing HTTP requests took by host, including reading the body.\n");
+        out.append("# TYPE notdankmemer_http_request_seconds summary\n");
+        for (Host host : HOSTS.values())
+            host.latency.writeSummary(out, "notdankmemer_http_request_seconds", "host=\"" + host.name + "\"");
+    }
+
+    private static Host host(String name) {
+        return HOSTS.computeIfAbsent(name, key -> new Host(key, DEFAULT_MAX_CONCURRENT, DEFAULT_TIMEOUT_MILLIS));
+    }
+
+    public static final class Host {
+        private final String name;
+        private final Semaphore permits;
+        private final int maxConcurrent;
+        private final long timeoutMillis;
+        private volatile OkHttpClient client;
+        private final LongAdder successes = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private Host(String name, int maxConcurrent, long timeoutMillis) {
+            this.name = name;
+            this.maxConcurrent = maxConcurrent;
+            this.permits = new Semaphore(maxConcurrent);
+            this.timeoutMillis = timeoutMillis;
+            derive();
+        }
+
+        private void derive() {
+            // Derived clients share the pool and dispatcher of the one client. A host that takes long to answer may
+            // stay silent for as long as the whole request may take.
+            client = timeoutMillis == DEFAULT_TIMEOUT_MILLIS ? Http.client : Http.client.newBuilder()
+                    .readTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                    .callTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                    .build();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return Requests to the host that are running right now.
+         */
+        public int getInFlight() {
+            return maxConcurrent - permits.availablePermits();
+        }
+
+        public long getSuccesses() {
+            return successes.sum();
+        }
+
+        /**
+         * @return Requests that failed, got no success status, couldn't be read or didn't get a slot.
+         */
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+    }
+}
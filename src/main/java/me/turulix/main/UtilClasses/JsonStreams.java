@@ -0,0 +1,134 @@
+package me.turulix.main.UtilClasses;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Pulls single fields out of JSON while it is read, see {@link Utils#readJson(String, Handler)}. Everything that isn't
+ * asked for is skipped without being built.
+ *
+ * @author Turulix
+ * @project NotDankMemer
+ * @since 18.10.2026 02:15
+ */
+public class JsonStreams {
+    /**
+     * Reads what it needs from a response.
+     */
+    @FunctionalInterface
+    public interface Handler<T> {
+        T read(@NotNull JsonReader reader) throws IOException;
+    }
+
+    /**
+     * Moves into the nested objects along the path, e.g. {@code "value", "joke"}, so the next token is the value of the
+     * last field.
+     *
+     * @return False if a field on the way is missing or not an object.
+     */
+    public static boolean descend(@NotNull JsonReader reader, @NotNull String... path) throws IOException {
+        for (String name : path) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) return false;
+            reader.beginObject();
+            if (!skipTo(reader, name)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Skips the fields of the current object up to the one with the name.
+     *
+     * @return False if the object ended without it.
+     */
+    public static boolean skipTo(@NotNull JsonReader reader, @NotNull String name) throws IOException {
+        while (reader.hasNext()) {
+            if (reader.nextName().equals(name)) return true;
+            reader.skipValue();
+        }
+        return false;
+    }
+
+    /**
+     * @return The string at the path, null if it is missing or not a string, number or boolean.
+     */
+    @Nullable
+    public static String getString(@NotNull JsonReader reader, @NotNull String... path) throws IOException {
+        return descend(reader, path) ? scalar(reader) : null;
+    }
+
+    /**
+     * Reads the next object, keeping only the fields with the names.
+     *
+     * @return Field name to value as string, fields that are missing, null or not scalar are left out.
+     */
+    @NotNull
+    public static Map<String, String> fields(@NotNull JsonReader reader, @NotNull String... names) throws IOException {
+        Map<String, String> fields = new HashMap<>(names.length * 2);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (contains(names, name)) {
+                String value = scalar(reader);
+                if (value != null) fields.put(name, value);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return fields;
+    }
+
+    /**
+     * Picks one element of the next array uniformly at random in one pass (reservoir sampling). Every element is read
+     * with the handler, elements it returns null for don't count, so the pick is uniform among the usable ones. Only
+     * the value of the current pick is kept.
+     *
+     * @return The picked element, null if the array has no element the handler could read.
+     */
+    @Nullable
+    public static <T> T sample(@NotNull JsonReader reader, @NotNull Random random, @NotNull Handler<T> element) throws IOException {
+        T picked = null;
+        int seen = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            T value = element.read(reader);
+            if (value == null) continue;
+            // The n-th usable element replaces the pick with probability 1/n
+            if (random.nextInt(++seen) == 0) picked = value;
+        }
+        reader.endArray();
+        return picked;
+    }
+
+    /**
+     * @return The next value as string, null for null, objects and arrays, which are skipped.
+     */
+    @Nullable
+    public static String scalar(@NotNull JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case STRING:
+            case NUMBER:
+                return reader.nextString();
+            case BOOLEAN:
+                return String.valueOf(reader.nextBoolean());
+            case NULL:
+                reader.nextNull();
+                return null;
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    private static boolean contains(String[] names, String name) {
+        for (String candidate : names) if (candidate.equals(name)) return true;
+        return false;
+    }
+}
@@ -0,0 +1,68 @@
+package me.turulix.main.UtilClasses.SubClasses;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Random;
+
+/**
+ * Picks an index with a probability proportional to its weight in constant time, with Vose's alias method.
+ * <p>
+ * Building the table is O(n). Every slot holds its own index with some probability and the index of one other,
+ * "alias", entry otherwise, so a pick is one uniform slot and one coin flip, without allocating.
+ *
+ * @author Turulix
+ * @project NotDankMemer
+ * @since 18.10.2026 02:50
+ */
+public final class AliasTable {
+    private final double[] probability;
+    private final int[] alias;
+
+    /**
+     * @param weights Non negative weights, at least one of them positive.
+     */
+    public AliasTable(@NotNull double[] weights) {
+        int n = weights.length;
+        double total = 0;
+        for (double weight : weights) {
+            if (!(weight >= 0) || Double.isInfinite(weight)) throw new IllegalArgumentException("Weights must be finite and not negative!");
+            total += weight;
+        }
+        if (!(total > 0)) throw new IllegalArgumentException("At least one weight must be positive!");
+        probability = new double[n];
+        alias = new int[n];
+
+        // Scaled so the average is 1, slots below 1 get topped up by one slot above 1
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallSize = 0;
+        int largeSize = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1) small[smallSize++] = i;
+            else large[largeSize++] = i;
+        }
+        while (smallSize > 0 && largeSize > 0) {
+            int less = small[--smallSize];
+            int more = large[--largeSize];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1;
+            if (scaled[more] < 1) small[smallSize++] = more;
+            else large[largeSize++] = more;
+        }
+        // Whatever is left is 1 up to rounding errors
+        while (largeSize > 0) probability[large[--largeSize]] = 1;
+        while (smallSize > 0) probability[small[--smallSize]] = 1;
+    }
+
+    public int size() {
+        return probability.length;
+    }
+
+    public int next(@NotNull Random random) {
+        int slot = random.nextInt(probability.length);
+        return random.nextDouble() < probability[slot] ? slot : alias[slot];
+    }
+}
@@ -0,0 +1,166 @@
+package me.turulix.main.UtilClasses.SubClasses;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Open addressing map with primitive long keys (Discord snowflakes).
+ * <p>
+ * Reads are lock free and don't allocate, writes are synchronized. Removed keys stay in their slot with a null value
+ * until the next resize, so lookups never have to shift entries around.
+ *
+ * @param <V> value type
+ * @author Turulix
+ * @project NotDankMemer
+ * @since 17.10.2026 11:02
+ */
+public class ConcurrentLongMap<V> {
+    private volatile AtomicReferenceArray<Entry<V>> table;
+    private int size;
+    private int used;
+
+    public ConcurrentLongMap() {
+        this(16);
+    }
+
+    public ConcurrentLongMap(int expectedSize) {
+        this.table = new AtomicReferenceArray<>(tableSizeFor(expectedSize));
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity < expectedSize * 2) capacity <<= 1;
+        return capacity;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @Nullable
+    public V get(long key) {
+        AtomicReferenceArray<Entry<V>> tab = table;
+        int mask = tab.length() - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            Entry<V> entry = tab.get(i);
+            if (entry == null) return null;
+            if (entry.key == key) return entry.value;
+        }
+    }
+
+    public V getOrDefault(long key, V defaultValue) {
+        V value = get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    @Nullable
+    public synchronized V put(long key, @NotNull V value) {
+        if (value == null) throw new NullPointerException("Value can't be null!");
+        AtomicReferenceArray<Entry<V>> tab = table;
+        int mask = tab.length() - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            Entry<V> entry = tab.get(i);
+            if (entry == null) {
+                tab.set(i, new Entry<>(key, value));
+                size++;
+                if (++used * 2 > tab.length()) resize();
+                return null;
+            }
+            if (entry.key == key) {
+                tab.set(i, new Entry<>(key, value));
+                if (entry.value == null) size++;
+                return entry.value;
+            }
+        }
+    }
+
+    @Nullable
+    public synchronized V putIfAbsent(long key, @NotNull V value) {
+        V current = get(key);
+        return current != null ? current : put(key, value);
+    }
+
+    @Nullable
+    public synchronized V remove(long key) {
+        AtomicReferenceArray<Entry<V>> tab = table;
+        int mask = tab.length() - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            Entry<V> entry = tab.get(i);
+            if (entry == null) return null;
+            if (entry.key == key) {
+                if (entry.value != null) {
+                    tab.set(i, new Entry<>(key, null));
+                    size--;
+                }
+                return entry.value;
+            }
+        }
+    }
+
+    /**
+     * Removes the key only if it is still mapped to the given value.
+     */
+    public synchronized boolean remove(long key, V value) {
+        if (value == null || get(key) != value) return false;
+        remove(key);
+        return true;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized void clear() {
+        table = new AtomicReferenceArray<>(16);
+        size = 0;
+        used = 0;
+    }
+
+    /**
+     * Iterates over a weakly consistent view of the map, entries added while iterating may or may not show up.
+     */
+    public void forEach(LongObjConsumer<V> consumer) {
+        AtomicReferenceArray<Entry<V>> tab = table;
+        for (int i = 0; i < tab.length(); i++) {
+            Entry<V> entry = tab.get(i);
+            if (entry != null && entry.value != null) consumer.accept(entry.key, entry.value);
+        }
+    }
+
+    private void resize() {
+        AtomicReferenceArray<Entry<V>> old = table;
+        AtomicReferenceArray<Entry<V>> tab = new AtomicReferenceArray<>(tableSizeFor(size + size / 2 + 1));
+        int mask = tab.length() - 1;
+        for (int j = 0; j < old.length(); j++) {
+            Entry<V> entry = old.get(j);
+            if (entry == null || entry.value == null) continue;
+            int i = hash(entry.key) & mask;
+            while (tab.get(i) != null) i = (i + 1) & mask;
+            tab.set(i, entry);
+        }
+        used = size;
+        table = tab;
+    }
+
+    @FunctionalInterface
+    public interface LongObjConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    private static class Entry<V> {
+        final long key;
+        final V value;
+
+        Entry(long key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
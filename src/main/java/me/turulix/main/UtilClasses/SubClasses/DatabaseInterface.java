@@ -1,62 +1,134 @@
 package me.turulix.main.UtilClasses.SubClasses;
 
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoException;
 import com.mongodb.client.FindIterable;
-import com.mongodb.client.MongoClient;
-import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
 import com.mongodb.client.model.Updates;
+import me.turulix.main.Database.Database;
 import me.turulix.main.DiscordBot;
 import org.bson.Document;
 import org.bson.conversions.Bson;
 
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * @author Turulix
  * @project NotDankMemer
  * @since 22.03.2019 17:16
  */
 public class DatabaseInterface {
+    private static final FindOneAndUpdateOptions UPSERT = new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER);
+
     public String collectionName = "";
+    private volatile Handles handles;
+
+    /**
+     * The handles of {@link #collectionName}, resolved again only if the database or the collection name changed.
+     */
+    private Handles handles() {
+        Database database = DiscordBot.instance.registerStuff.database;
+        Handles handles = this.handles;
+        // Names are compared by reference, a new string with the same name just resolves the handles once more
+        if (handles == null || handles.database != database || handles.name != collectionName)
+            this.handles = handles = new Handles(database, collectionName);
+        return handles;
+    }
 
-    private MongoDatabase gMD() {
-        return getMongoClient().getDatabase(DiscordBot.instance.tomlManager.getToml().sql.SQLLocation.split("/")[1]);
+    protected MongoCollection<Document> getCollection() {
+        return handles().documents;
     }
 
-    private MongoClient getMongoClient() {
-        return DiscordBot.instance.registerStuff.database.mongoClient;
+    /**
+     * @return {@link #collectionName} decoding straight into the type, see {@link Database#getCodecRegistry()}.
+     */
+    protected <T> MongoCollection<T> getCollection(Class<T> type) {
+        return handles().typed(type);
+    }
+
+    private MongoCollection<Document> getCollection(String name) {
+        return DiscordBot.instance.registerStuff.database.getCollection(name, Document.class);
+    }
+
+    /**
+     * Loads the document with the id and creates it first if there is none, in a single round trip.
+     *
+     * @return The whole document, decoded into the type.
+     */
+    protected <T> T findOrCreate(Class<T> type, Object id) {
+        Bson filters = Filters.eq("_id", id);
+        Bson update = Updates.setOnInsert("_id", id);
+        try {
+            return getCollection(type).findOneAndUpdate(filters, update, UPSERT);
+        } catch (MongoException ex) {
+            // Another upsert created the same document in between, it exists now
+            if (ErrorCategory.fromErrorCode(ex.getCode()) != ErrorCategory.DUPLICATE_KEY) throw ex;
+            return getCollection(type).findOneAndUpdate(filters, update, UPSERT);
+        }
     }
 
     public Document getDocument(Bson filters) {
-        return gMD().getCollection(collectionName).find(filters).first();
+        return getCollection().find(filters).first();
     }
 
     public Document getDocument(Bson filters, String name) {
-        return gMD().getCollection(name).find(filters).first();
+        return getCollection(name).find(filters).first();
     }
 
     public FindIterable<Document> getDocument() {
-        return gMD().getCollection(collectionName).find();
+        return getCollection().find();
     }
 
     public FindIterable<Document> getDocument(String name) {
-        return gMD().getCollection(name).find();
+        return getCollection(name).find();
     }
 
     public void insert(Document document) {
-        gMD().getCollection(collectionName).insertOne(document);
+        getCollection().insertOne(document);
     }
 
     public long remove(Bson filters) {
-        return gMD().getCollection(collectionName).deleteMany(filters).getDeletedCount();
+        return getCollection().deleteMany(filters).getDeletedCount();
     }
 
     public long update(Bson filters, String key, Object value) {
-        return gMD().getCollection(collectionName).updateOne(filters, Updates.set(key, value)).getMatchedCount();
+        return getCollection().updateOne(filters, Updates.set(key, value)).getMatchedCount();
+    }
+
+    /**
+     * Sets the field of the document with the id through {@link me.turulix.main.Database.Database#writeBehind}, creating the document if needed.
+     * The database has the new value within a flush interval, not when this returns.
+     */
+    public void updateLater(Object id, String key, Object value) {
+        DiscordBot.instance.registerStuff.database.writeBehind.set(collectionName, id, key, value);
     }
 
     public void renameField(Bson filters, String oldName, String newName) {
         if (getDocument(filters).containsKey(oldName)) {
-            gMD().getCollection(collectionName).updateMany(filters, Updates.rename(oldName, newName));
+            getCollection().updateMany(filters, Updates.rename(oldName, newName));
         }
     }
 
+    private static class Handles {
+        final Database database;
+        final String name;
+        final MongoCollection<Document> documents;
+        final ConcurrentHashMap<Class<?>, MongoCollection<?>> typed = new ConcurrentHashMap<>(4);
 
+        Handles(Database database, String name) {
+            this.database = database;
+            this.name = name;
+            this.documents = database.getCollection(name, Document.class);
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> MongoCollection<T> typed(Class<T> type) {
+            MongoCollection<?> collection = typed.get(type);
+            if (collection == null) collection = typed.computeIfAbsent(type, key -> database.getCollection(name, key));
+            return (MongoCollection<T>) collection;
+        }
+    }
 }
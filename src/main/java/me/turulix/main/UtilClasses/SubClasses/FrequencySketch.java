@@ -0,0 +1,70 @@
+package me.turulix.main.UtilClasses.SubClasses;
+
+/**
+ * Count-min sketch with 4 bit counters that estimates how often a key was used lately, for the admission of {@link
+ * TinyLfuPolicy}.
+ * <p>
+ * Every key has a counter in 4 of the 16 nibbles of the longs, the estimate is the smallest of them. After ten times
+ * the cache size increments all counters are halved, so old popularity fades out. Not thread safe, the policy only
+ * uses it while holding its lock.
+ *
+ * @author Turulix
+ * @project NotDankMemer
+ * @since 17.10.2026 23:20
+ */
+final class FrequencySketch {
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] table;
+    private final int counterMask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int maximumSize) {
+        int length = 1;
+        while (length < Math.max(1, maximumSize) / 4 + 1) length <<= 1;
+        this.table = new long[length];
+        this.counterMask = length * 16 - 1;
+        this.sampleSize = 10 * Math.max(1, maximumSize);
+    }
+
+    static int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+
+    private int counter(int hash, int depth) {
+        long h = (hash + SEEDS[depth]) * SEEDS[depth];
+        h += h >>> 32;
+        return (int) h & counterMask;
+    }
+
+    int frequency(int hash) {
+        int frequency = 15;
+        for (int depth = 0; depth < SEEDS.length; depth++) {
+            int counter = counter(hash, depth);
+            frequency = Math.min(frequency, (int) (table[counter >>> 4] >>> ((counter & 15) << 2)) & 15);
+        }
+        return frequency;
+    }
+
+    void increment(int hash) {
+        boolean added = false;
+        for (int depth = 0; depth < SEEDS.length; depth++) {
+            int counter = counter(hash, depth);
+            int shift = (counter & 15) << 2;
+            if (((table[counter >>> 4] >>> shift) & 15) != 15) {
+                table[counter >>> 4] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) reset();
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) table[i] = (table[i] >>> 1) & RESET_MASK;
+        additions /= 2;
+    }
+}
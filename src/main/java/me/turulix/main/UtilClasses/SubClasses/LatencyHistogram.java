@@ -0,0 +1,91 @@
+package me.turulix.main.UtilClasses.SubClasses;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed memory latency histogram with microsecond resolution.
+ * <p>
+ * Values are put into log-linear buckets (8 per power of two), so every percentile is accurate to about 12.5% from
+ * 1µs up to several hours, in 272 longs no matter how many values get recorded.
+ *
+ * @author Turulix
+ * @project NotDankMemer
+ * @since 17.10.2026 16:20
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 35;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumMicros = new LongAdder();
+
+    static int bucketFor(long micros) {
+        if (micros < SUB_BUCKETS) return (int) Math.max(micros, 0);
+        int exponent = Math.min(63 - Long.numberOfLeadingZeros(micros), MAX_EXPONENT);
+        int sub = (int) (Math.min(micros >>> (exponent - SUB_BITS), 2 * SUB_BUCKETS - 1) & (SUB_BUCKETS - 1));
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * @return The highest value that ends up in the bucket.
+     */
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        return ((SUB_BUCKETS + sub + 1) << (exponent - SUB_BITS)) - 1;
+    }
+
+    public void record(long duration, TimeUnit unit) {
+        long micros = unit.toMicros(duration);
+        counts.incrementAndGet(bucketFor(micros));
+        count.increment();
+        sumMicros.add(micros);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum(TimeUnit unit) {
+        return unit.convert(sumMicros.sum(), TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * @param quantile Between 0 and 1, e.g. 0.99
+     * @return The value in microseconds that the given quantile of all recorded values is below of, 0 if empty.
+     */
+    public long getPercentile(double quantile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) total += snapshot[i] = counts.get(i);
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank && snapshot[i] > 0) return upperBound(i);
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    /**
+     * Writes the median, the 99th percentile, sum and count in seconds, as the samples of a Prometheus summary. The
+     * HELP and TYPE lines are up to the caller.
+     *
+     * @param labels Labels of every sample like {@code host="a"}, empty for none.
+     */
+    public void writeSummary(StringBuilder out, String name, String labels) {
+        String separator = labels.isEmpty() ? "" : ",";
+        for (double quantile : new double[]{0.5, 0.99})
+            out.append(name).append('{').append(labels).append(separator).append("quantile=\"").append(quantile).append("\"} ").append(getPercentile(quantile) / 1e6).append('\n');
+        String suffix = labels.isEmpty() ? " " : "{" + labels + "} ";
+        out.append(name).append("_sum").append(suffix).append(getSum(TimeUnit.MICROSECONDS) / 1e6).append('\n');
+        out.append(name).append("_count").append(suffix).append(getCount()).append('\n');
+    }
+}
@@ -0,0 +1,166 @@
+package me.turulix.main.UtilClasses.SubClasses;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link TinyLfuCache} with primitive long keys (Discord snowflakes), so lookups don't box.
+ *
+ * @param <V> value type
+ * @author Turulix
+ * @project NotDankMemer
+ * @since 17.10.2026 23:20
+ */
+public class LongTinyLfuCache<V> extends TinyLfuPolicy<V> {
+    private final ConcurrentLongMap<LongNode<V>> map;
+    @Nullable
+    private final ConcurrentLongMap.LongObjConsumer<V> onRemoval;
+
+    public LongTinyLfuCache(int maximumSize) {
+        this(maximumSize, 0);
+    }
+
+    /**
+     * @param ttlNanos Time after a write until the entry isn't returned anymore, 0 to keep entries until evicted.
+     */
+    public LongTinyLfuCache(int maximumSize, long ttlNanos) {
+        this(maximumSize, ttlNanos, System::nanoTime, null);
+    }
+
+    /**
+     * @param onRemoval Called with every entry that is evicted, expires or is removed, under the lock of the cache, so
+     *                  it must not call back into it. Not called for {@link #clear()} or a replaced value.
+     */
+    public LongTinyLfuCache(int maximumSize, long ttlNanos, @Nullable ConcurrentLongMap.LongObjConsumer<V> onRemoval) {
+        this(maximumSize, ttlNanos, System::nanoTime, onRemoval);
+    }
+
+    /**
+     * @param ttlNanos          Time after the last write, or read if {@code expireAfterAccess}, until the entry isn't
+     *                          returned anymore, 0 to keep entries until evicted.
+     * @param expireAfterAccess If reads keep entries alive too, so only idle ones expire.
+     */
+    public LongTinyLfuCache(int maximumSize, long ttlNanos, boolean expireAfterAccess) {
+        this(maximumSize, ttlNanos, expireAfterAccess, System::nanoTime, null);
+    }
+
+    LongTinyLfuCache(int maximumSize, long ttlNanos, LongSupplier clock) {
+        this(maximumSize, ttlNanos, clock, null);
+    }
+
+    LongTinyLfuCache(int maximumSize, long ttlNanos, LongSupplier clock, @Nullable ConcurrentLongMap.LongObjConsumer<V> onRemoval) {
+        this(maximumSize, ttlNanos, false, clock, onRemoval);
+    }
+
+    LongTinyLfuCache(int maximumSize, long ttlNanos, boolean expireAfterAccess, LongSupplier clock, @Nullable ConcurrentLongMap.LongObjConsumer<V> onRemoval) {
+        super(maximumSize, ttlNanos, expireAfterAccess, clock);
+        this.map = new ConcurrentLongMap<>(Math.min(maximumSize, 1 << 16));
+        this.onRemoval = onRemoval;
+    }
+
+    private static int hash(long key) {
+        return FrequencySketch.spread((int) (key ^ (key >>> 32)));
+    }
+
+    @Nullable
+    public V get(long key) {
+        return read(map.get(key));
+    }
+
+    /**
+     * @return The cached value, or the value the loader returned for the key. Null values are returned but not cached.
+     */
+    public V get(long key, LongFunction<V> loader) {
+        V value = get(key);
+        if (value != null) return value;
+        value = loader.apply(key);
+        if (value != null) put(key, value);
+        return value;
+    }
+
+    /**
+     * Like {@link #get(long, LongFunction)}, but a missing value is created under the lock of the cache, so concurrent
+     * callers for one key all get the same value. Keep the loader cheap.
+     */
+    public V computeIfAbsent(long key, LongFunction<V> loader) {
+        V value = get(key);
+        if (value != null) return value;
+        int hash = hash(key);
+        lock();
+        try {
+            LongNode<V> existing = map.get(key);
+            if (isLive(existing)) return existing.value;
+            V created = loader.apply(key);
+            if (created == null) return null;
+            write(existing, h -> {
+                LongNode<V> node = new LongNode<>(key, h);
+                map.put(key, node);
+                return node;
+            }, created, hash);
+            return created;
+        } finally {
+            unlock();
+        }
+    }
+
+    public boolean contains(long key) {
+        return get(key) != null;
+    }
+
+    @Nullable
+    public V put(long key, @NotNull V value) {
+        if (value == null) throw new NullPointerException("Value can't be null!");
+        int hash = hash(key);
+        lock();
+        try {
+            return write(map.get(key), h -> {
+                LongNode<V> node = new LongNode<>(key, h);
+                map.put(key, node);
+                return node;
+            }, value, hash);
+        } finally {
+            unlock();
+        }
+    }
+
+    @Nullable
+    public V remove(long key) {
+        lock();
+        try {
+            LongNode<V> node = map.get(key);
+            if (node == null) return null;
+            removeNode(node);
+            return node.value;
+        } finally {
+            unlock();
+        }
+    }
+
+    public void clear() {
+        lock();
+        try {
+            map.clear();
+            clearPolicy();
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    void unmap(Node<V> node) {
+        LongNode<V> longNode = (LongNode<V>) node;
+        if (map.remove(longNode.key, longNode) && onRemoval != null) onRemoval.accept(longNode.key, longNode.value);
+    }
+
+    private static class LongNode<V> extends Node<V> {
+        final long key;
+
+        LongNode(long key, int hash) {
+            super(hash);
+            this.key = key;
+        }
+    }
+}
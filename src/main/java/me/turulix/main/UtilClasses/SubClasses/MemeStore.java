@@ -0,0 +1,287 @@
+package me.turulix.main.UtilClasses.SubClasses;
+
+import com.google.gson.stream.JsonReader;
+import me.turulix.main.Logger;
+import me.turulix.main.UtilClasses.JsonStreams;
+import me.turulix.main.UtilClasses.Utils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The memes of the configured Reddit listings, refreshed every hour.
+ * <p>
+ * A refresh fetches the sources in parallel, builds the next generation off to the side and publishes it with one
+ * volatile write, readers always see a complete generation. Fetched posts are merged into the previous generation by
+ * their Reddit id, a post that is fetched again gets its new vote and comment counts, a post that wasn't fetched for
+ * {@link #RETENTION} drops out. The posts of a source that fails stay until then, if all fail the previous generation
+ * stays.
+ * <p>
+ * {@link #random(Random)} prefers posts with more votes and comments and younger ones, see {@link #score(Seen, long)},
+ * through an {@link AliasTable} built with every generation. {@link #next(long, Random)} does the same without repeats
+ * per guild. Posts keep their order across generations and new ones are added at the end, so what a guild already got
+ * carries over to the next generation.
+ *
+ * @author Turulix
+ * @project NotDankMemer
+ * @since 18.10.2026 01:40
+ */
+public class MemeStore {
+    /**
+     * How long a post stays after it was fetched the last time.
+     */
+    public static final long RETENTION = TimeUnit.DAYS.toMillis(1);
+    private static final int PAGES = 3;
+    private static final ExecutorService FETCHER = Executors.newFixedThreadPool(4, runnable -> {
+        Thread thread = new Thread(runnable, "Meme-Fetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Generation generation = new Generation(0, 0, new LinkedHashMap<>(), null);
+    private final LongAdder failedFetches = new LongAdder();
+    private final LatencyHistogram refreshDuration = new LatencyHistogram();
+    private final ShuffleBags delivered = new ShuffleBags(100_000, TimeUnit.HOURS.toNanos(6));
+
+    /**
+     * @return The memes of the current generation, unmodifiable.
+     */
+    @NotNull
+    public List<SubClasses.RedditMeme> getMemes() {
+        return generation.memes;
+    }
+
+    /**
+     * @return A random meme weighted by its score, null if there are none yet.
+     */
+    @Nullable
+    public SubClasses.RedditMeme random(@NotNull Random random) {
+        Generation generation = this.generation;
+        return generation.memes.isEmpty() ? null : generation.memes.get(generation.weights.next(random));
+    }
+
+    /**
+     * Like {@link #random(Random)}, but the guild gets no meme twice until it got all of the generation.
+     *
+     * @param guildId The guild, or the user in direct messages.
+     * @return Null if there are no memes yet.
+     */
+    @Nullable
+    public SubClasses.RedditMeme next(long guildId, @NotNull Random random) {
+        Generation generation = this.generation;
+        if (generation.memes.isEmpty()) return null;
+        // A bag of the generation before keeps the posts that are still there, older bags start over
+        return generation.memes.get(delivered.next(guildId, generation.number, generation.memes.size(), random, generation.weights, generation.remap));
+    }
+
+    public int size() {
+        return generation.memes.size();
+    }
+
+    /**
+     * @return The number of the current generation, 0 until the first refresh worked.
+     */
+    public long getGeneration() {
+        return generation.number;
+    }
+
+    /**
+     * @return Milliseconds since the current generation was published, -1 if there is none yet.
+     */
+    public long getGenerationAge() {
+        Generation generation = this.generation;
+        return generation.number == 0 ? -1 : System.currentTimeMillis() - generation.publishedAt;
+    }
+
+    /**
+     * @return Sources whose fetch failed since the start.
+     */
+    public long getFailedFetches() {
+        return failedFetches.sum();
+    }
+
+    public LatencyHistogram getRefreshDuration() {
+        return refreshDuration;
+    }
+
+    /**
+     * Writes the state of the store in the Prometheus text format.
+     */
+    public void writePrometheus(StringBuilder out) {
+        out.append("# HELP notdankmemer_memes Memes in the current generation of the meme store.\n");
+        out.append("# TYPE notdankmemer_memes gauge\n");
+        out.append("notdankmemer_memes ").append(size()).append('\n');
+        out.append("# HELP notdankmemer_memes_generation_age_seconds Time since the current meme generation was published, -1 before the first.\n");
+        out.append("# TYPE notdankmemer_memes_generation_age_seconds gauge\n");
+        out.append("notdankmemer_memes_generation_age_seconds ").append(getGenerationAge() < 0 ? -1 : getGenerationAge() / 1000.0).append('\n');
+        out.append("# HELP notdankmemer_memes_generation Number of the current meme generation.\n");
+        out.append("# TYPE notdankmemer_memes_generation counter\n");
+        out.append("notdankmemer_memes_generation ").append(getGeneration()).append('\n');
+        out.append("# HELP notdankmemer_memes_fetch_failures_total Meme sources that couldn't be fetched, their posts from before stay.\n");
+        out.append("# TYPE notdankmemer_memes_fetch_failures_total counter\n");
+        out.append("notdankmemer_memes_fetch_failures_total ").append(getFailedFetches()).append('\n');
+        out.append("# HELP notdankmemer_memes_refresh_seconds Time a refresh of all meme sources took.\n");
+        out.append("# TYPE notdankmemer_memes_refresh_seconds summary\n");
+        refreshDuration.writeSummary(out, "notdankmemer_memes_refresh_seconds", "");
+    }
+
+    /**
+     * Fetches the top posts of the sources in parallel and merges them in, waits for all of them.
+     *
+     * @param sources Reddit listing paths with the time window of the top posts, like {@code r/dankmemes:week}, see
+     *                {@link me.turulix.main.Files.Config.Memes#sources}.
+     * @return If at least one source worked.
+     */
+    public boolean refresh(@NotNull List<String> sources) {
+        long start = System.nanoTime();
+        List<Future<List<Seen>>> fetches = new ArrayList<>(sources.size());
+        for (String source : sources) fetches.add(FETCHER.submit(() -> fetch(source)));
+        List<Seen> fetched = new ArrayList<>();
+        int worked = 0;
+        for (int i = 0; i < fetches.size(); i++) {
+            try {
+                fetched.addAll(fetches.get(i).get());
+                worked++;
+            } catch (ExecutionException ex) {
+                failedFetches.increment();
+                Logger.error("Could not fetch the memes of " + sources.get(i) + ", keeping the ones there are", ex.getCause());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        if (worked > 0) merge(fetched, System.currentTimeMillis());
+        refreshDuration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return worked > 0;
+    }
+
+    /**
+     * Publishes the next generation with the fetched posts merged in.
+     */
+    synchronized void merge(@NotNull Collection<Seen> fetched, long now) {
+        Generation previous = generation;
+        LinkedHashMap<String, Seen> next = new LinkedHashMap<>(Math.max(16, (previous.byId.size() + fetched.size()) * 2));
+        // The posts that stay come first in their order, so their index only shifts by the ones before them that left
+        int[] indexes = new int[previous.byId.size()];
+        int index = 0;
+        for (Map.Entry<String, Seen> entry : previous.byId.entrySet()) {
+            boolean retained = now - entry.getValue().fetchedAt < RETENTION;
+            indexes[index++] = retained ? next.size() : -1;
+            if (retained) next.put(entry.getKey(), entry.getValue());
+        }
+        // Posts fetched again keep their place, new ones are added at the end
+        for (Seen seen : fetched) next.put(seen.meme.getId(), seen);
+        generation = new Generation(previous.number + 1, now, next, new ShuffleBags.Remap(previous.number, previous.number + 1, indexes));
+    }
+
+    /**
+     * How likely a post is picked, relative to the others. Votes and comments count logarithmically, so one viral post
+     * doesn't crowd out everything else, and the score is divided by one plus the age of the post in days.
+     */
+    static double score(@NotNull Seen seen, long now) {
+        double days = Math.max(0, now - seen.createdAt) / (double) TimeUnit.DAYS.toMillis(1);
+        return (1 + Math.log1p(Math.max(0, seen.meme.getThumbsUp())) + 0.5 * Math.log1p(Math.max(0, seen.meme.getCommentAmount()))) / (1 + days);
+    }
+
+    private static List<Seen> fetch(String source) throws IOException {
+        int window = source.lastIndexOf(':');
+        String path = window < 0 ? source : source.substring(0, window);
+        String url = "https://old.reddit.com/" + path + "/top/.json?sort=top&t=" + (window < 0 ? "day" : source.substring(window + 1)) + "&limit=100&after=";
+        long now = System.currentTimeMillis();
+        List<Seen> memes = new ArrayList<>(PAGES * 100);
+        String after = "null";
+        for (int i = 0; i < PAGES; i++) {
+            after = Utils.readJson(url + after, reader -> readListing(reader, memes, now));
+            if (after == null) break;
+        }
+        return memes;
+    }
+
+    /**
+     * Adds the posts of one listing page.
+     *
+     * @return The name of the next page, null on the last one.
+     */
+    @Nullable
+    static String readListing(@NotNull JsonReader reader, @NotNull List<Seen> memes, long now) throws IOException {
+        String after = null;
+        if (!JsonStreams.descend(reader, "data")) throw new IOException("Not a listing");
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "after":
+                    after = JsonStreams.scalar(reader);
+                    break;
+                case "children":
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        reader.beginObject();
+                        if (!JsonStreams.skipTo(reader, "data")) throw new IOException("Post without data");
+                        Map<String, String> post = JsonStreams.fields(reader, "url", "permalink", "num_comments", "ups", "title", "id", "created_utc");
+                        while (reader.hasNext()) reader.skipValue();
+                        reader.endObject();
+                        SubClasses.RedditMeme meme = new SubClasses.RedditMeme(post.get("url"), "https://www.reddit.com" + post.get("permalink"), Integer.parseInt(post.getOrDefault("num_comments", "0")), Integer.parseInt(post.getOrDefault("ups", "0")), post.get("title"), post.get("id"));
+                        // Seconds with a fraction
+                        long createdAt = post.containsKey("created_utc") ? (long) (Double.parseDouble(post.get("created_utc")) * 1000) : now;
+                        memes.add(new Seen(meme, now, createdAt));
+                    }
+                    reader.endArray();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        return after;
+    }
+
+    static final class Seen {
+        final SubClasses.RedditMeme meme;
+        final long fetchedAt;
+        final long createdAt;
+
+        Seen(SubClasses.RedditMeme meme, long fetchedAt, long createdAt) {
+            this.meme = meme;
+            this.fetchedAt = fetchedAt;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private static final class Generation {
+        final long number;
+        final long publishedAt;
+        final Map<String, Seen> byId;
+        final List<SubClasses.RedditMeme> memes;
+        // Null while there are no memes
+        final AliasTable weights;
+        // From the generation before, null for the first
+        final ShuffleBags.Remap remap;
+
+        Generation(long number, long publishedAt, Map<String, Seen> byId, @Nullable ShuffleBags.Remap remap) {
+            this.number = number;
+            this.publishedAt = publishedAt;
+            this.byId = byId;
+            this.remap = remap;
+            List<SubClasses.RedditMeme> memes = new ArrayList<>(byId.size());
+            double[] scores = new double[byId.size()];
+            for (Seen seen : byId.values()) {
+                scores[memes.size()] = score(seen, publishedAt);
+                memes.add(seen.meme);
+            }
+            this.memes = List.copyOf(memes);
+            this.weights = memes.isEmpty() ? null : new AliasTable(scores);
+        }
+    }
+}
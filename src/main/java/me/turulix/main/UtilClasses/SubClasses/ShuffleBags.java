@@ -0,0 +1,157 @@
+package me.turulix.main.UtilClasses.SubClasses;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Picks indexes into a content list so that the same guild doesn't get an item again before it got all of them.
+ * <p>
+ * Every guild has a bag, a bitset of the indexes it already got. A pick takes a random index that isn't set yet, once
+ * all are set the bag starts over. A bag belongs to one version of the list, if the list changes its indexes may mean
+ * other items, so the bag starts over as well, unless a {@link Remap} tells where the items of the version before went.
+ * Bags of guilds that didn't pick for a while, or of the least active guilds beyond the maximum, are dropped and the
+ * guild starts over. A bag of a few hundred items is a few hundred
+ * bytes.
+ *
+ * @author Turulix
+ * @project NotDankMemer
+ * @since 18.10.2026 03:20
+ */
+public class ShuffleBags {
+    /**
+     * Weighted picks tried before a uniform one of the indexes that are left. Every guild still gets every item once
+     * per bag, the weights only decide the order: popular items tend to come early, and once mostly the ones the
+     * guild already got would be picked, the rest comes uniformly.
+     */
+    private static final int PREFERRED_TRIES = 4;
+
+    private final LongTinyLfuCache<Bag> bags;
+
+    /**
+     * @param maximumGuilds Bags kept at most.
+     * @param idleNanos     Time after the last pick of a guild until its bag is dropped.
+     */
+    public ShuffleBags(int maximumGuilds, long idleNanos) {
+        // Picks only read the cache, the reads keep the bag alive
+        this.bags = new LongTinyLfuCache<>(maximumGuilds, idleNanos, true);
+    }
+
+    /**
+     * @param guildId   Whose bag to pick from, e.g. the guild or for direct messages the user.
+     * @param version   Changes whenever the list does.
+     * @param size      Items in the list.
+     * @param preferred Weights of the items, e.g. by popularity, a weighted pick is taken if the guild didn't get that
+     *                  one yet, see {@link #PREFERRED_TRIES}. Null to pick uniformly.
+     * @return An index the guild didn't get yet, -1 if the list is empty.
+     */
+    public int next(long guildId, long version, int size, @NotNull Random random, @Nullable AliasTable preferred) {
+        return next(guildId, version, size, random, preferred, null);
+    }
+
+    /**
+     * Like {@link #next(long, long, int, Random, AliasTable)}, but a bag of the version before keeps the items it
+     * already got.
+     *
+     * @param remap From the version before to this one, null if there is none.
+     */
+    public int next(long guildId, long version, int size, @NotNull Random random, @Nullable AliasTable preferred, @Nullable Remap remap) {
+        if (size <= 0) return -1;
+        // Only a new bag is written, atomically so a racing first pick doesn't end up in a bag that gets replaced
+        Bag bag = bags.computeIfAbsent(guildId, key -> new Bag());
+        int index;
+        synchronized (bag) {
+            if (remap != null && bag.bits != null && bag.version == remap.from && remap.to == version) bag.remap(remap, size);
+            if (bag.bits == null || bag.version != version || bag.size != size || bag.seen == size) bag.reset(version, size);
+            index = -1;
+            if (preferred != null) {
+                for (int i = 0; i < PREFERRED_TRIES && index < 0; i++) {
+                    int candidate = preferred.next(random);
+                    if (candidate >= 0 && candidate < size && !bag.isSeen(candidate)) index = candidate;
+                }
+            }
+            if (index < 0) index = bag.unseen(random.nextInt(size - bag.seen));
+            bag.markSeen(index);
+        }
+        return index;
+    }
+
+    public int size() {
+        return bags.size();
+    }
+
+    /**
+     * Where the items of one version of a list are in the next one.
+     */
+    public static final class Remap {
+        final long from;
+        final long to;
+        final int[] indexes;
+
+        /**
+         * @param indexes The index in the version {@code to} of every index in the version {@code from}, -1 for items
+         *                that are gone.
+         */
+        public Remap(long from, long to, @NotNull int[] indexes) {
+            this.from = from;
+            this.to = to;
+            this.indexes = indexes;
+        }
+    }
+
+    private static final class Bag {
+        long version;
+        int size;
+        int seen;
+        long[] bits;
+
+        void reset(long version, int size) {
+            this.version = version;
+            this.size = size;
+            this.seen = 0;
+            int words = (size + 63) >>> 6;
+            if (bits == null || bits.length != words) bits = new long[words];
+            else Arrays.fill(bits, 0);
+        }
+
+        void remap(Remap remap, int size) {
+            long[] previous = bits;
+            int previousSize = this.size;
+            bits = null;
+            reset(remap.to, size);
+            for (int index = 0; index < previousSize && index < remap.indexes.length; index++) {
+                int moved = remap.indexes[index];
+                if ((previous[index >>> 6] & (1L << index)) != 0 && moved >= 0 && moved < size && !isSeen(moved)) markSeen(moved);
+            }
+        }
+
+        boolean isSeen(int index) {
+            return (bits[index >>> 6] & (1L << index)) != 0;
+        }
+
+        void markSeen(int index) {
+            bits[index >>> 6] |= 1L << index;
+            seen++;
+        }
+
+        /**
+         * @return The index of the rank-th item that wasn't seen yet, counting from 0.
+         */
+        int unseen(int rank) {
+            for (int word = 0; word < bits.length; word++) {
+                // Bits past the size are counted as seen
+                int valid = Math.min(64, size - (word << 6));
+                long free = ~bits[word] & (valid == 64 ? -1L : (1L << valid) - 1);
+                int count = Long.bitCount(free);
+                if (rank < count) {
+                    for (int i = 0; i < rank; i++) free &= free - 1;
+                    return (word << 6) + Long.numberOfTrailingZeros(free);
+                }
+                rank -= count;
+            }
+            throw new IllegalStateException("No unseen item left");
+        }
+    }
+}
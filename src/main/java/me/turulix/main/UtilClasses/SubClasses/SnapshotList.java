@@ -0,0 +1,172 @@
+package me.turulix.main.UtilClasses.SubClasses;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A list that readers only ever see as an immutable snapshot, for content that is read on every command and changed
+ * rarely.
+ * <p>
+ * Reads are a volatile load. Every change builds a new array and swaps it in, so a reader keeps the snapshot it got
+ * for as long as it wants and never sees a half done change. Changes are serialized. The first read loads the items
+ * if {@link #reload()} wasn't called before, concurrent first reads wait for the one load.
+ * <p>
+ * Next to the list an index by id is kept up to date with every change, so {@link #find(Object)} doesn't scan. Changes
+ * keep the order of the items that stay, and tell {@link ShuffleBags} where they went, so an added item doesn't start
+ * the bags over.
+ *
+ * @param <T> item type
+ * @author Turulix
+ * @project NotDankMemer
+ * @since 18.10.2026 01:05
+ */
+public class SnapshotList<T> {
+    private final Supplier<? extends Collection<? extends T>> loader;
+    private final Function<T, ?> id;
+    private volatile Snapshot<T> snapshot;
+    // Only replaced as a whole by loads, so a lookup never sees it half filled
+    private volatile ConcurrentHashMap<Object, T> index;
+
+    /**
+     * @param loader Loads all items, for the first read and {@link #reload()}.
+     * @param id     The key an item is identified by for {@link #find(Object)}, {@link #merge(Collection)} and
+     *               {@link #remove(Object)}.
+     */
+    public SnapshotList(Supplier<? extends Collection<? extends T>> loader, Function<T, ?> id) {
+        this.loader = loader;
+        this.id = id;
+    }
+
+    /**
+     * @return The current items, unmodifiable.
+     */
+    @NotNull
+    public List<T> get() {
+        return snapshot().items;
+    }
+
+    /**
+     * Picks an item the guild didn't get yet from the current items, see {@link ShuffleBags}.
+     *
+     * @return Null if there are no items.
+     */
+    @Nullable
+    public T next(@NotNull ShuffleBags bags, long guildId, @NotNull Random random) {
+        Snapshot<T> snapshot = snapshot();
+        int index = bags.next(guildId, snapshot.version, snapshot.items.size(), random, null, snapshot.remap);
+        return index < 0 ? null : snapshot.items.get(index);
+    }
+
+    /**
+     * @return The item with the id, null if there is none.
+     */
+    @Nullable
+    public T find(@NotNull Object key) {
+        if (index == null) get();
+        return index.get(key);
+    }
+
+    /**
+     * Replaces all items with freshly loaded ones.
+     */
+    public synchronized void reload() {
+        // Under the lock, so a change made while loading can't be overwritten by a load that started before it
+        load();
+    }
+
+    /**
+     * Adds the item, or replaces the one with the same id.
+     */
+    public synchronized void add(@NotNull T item) {
+        Object key = id.apply(item);
+        List<T> current = get();
+        List<T> next = new ArrayList<>(current.size() + 1);
+        if (index.containsKey(key)) {
+            for (T existing : current) if (!Objects.equals(id.apply(existing), key)) next.add(existing);
+        } else {
+            next.addAll(current);
+        }
+        next.add(item);
+        // The replaced one counts as a new item
+        boolean replaced = index.put(key, item) != null;
+        swap(current, next, replaced ? key : null);
+    }
+
+    /**
+     * Adds the items whose id isn't in the list yet.
+     *
+     * @return How many were added.
+     */
+    public synchronized int merge(@NotNull Collection<? extends T> found) {
+        List<T> current = get();
+        List<T> next = new ArrayList<>(current);
+        for (T item : found) if (index.putIfAbsent(id.apply(item), item) == null) next.add(item);
+        if (next.size() == current.size()) return 0;
+        swap(current, next, null);
+        return next.size() - current.size();
+    }
+
+    /**
+     * @return If there was an item with the id.
+     */
+    public synchronized boolean remove(@NotNull Object key) {
+        List<T> current = get();
+        if (index.remove(key) == null) return false;
+        List<T> next = new ArrayList<>(current.size());
+        for (T existing : current) if (!Objects.equals(id.apply(existing), key)) next.add(existing);
+        swap(current, next, key);
+        return true;
+    }
+
+    private void load() {
+        List<T> loaded = List.copyOf(loader.get());
+        ConcurrentHashMap<Object, T> byId = new ConcurrentHashMap<>(Math.max(16, loaded.size() * 2));
+        for (T item : loaded) byId.put(id.apply(item), item);
+        index = byId;
+        snapshot = new Snapshot<>(loaded, snapshot == null ? 0 : snapshot.version + 1, null);
+    }
+
+    private Snapshot<T> snapshot() {
+        Snapshot<T> snapshot = this.snapshot;
+        if (snapshot != null) return snapshot;
+        synchronized (this) {
+            if (this.snapshot == null) load();
+            return this.snapshot;
+        }
+    }
+
+    /**
+     * @param removed The id of the item that is gone from {@code current}, null if items were only added.
+     */
+    private void swap(List<T> current, List<T> next, @Nullable Object removed) {
+        int[] indexes = new int[current.size()];
+        int moved = 0;
+        for (int i = 0; i < indexes.length; i++)
+            indexes[i] = removed != null && Objects.equals(id.apply(current.get(i)), removed) ? -1 : moved++;
+        Snapshot<T> previous = snapshot;
+        snapshot = new Snapshot<>(List.copyOf(next), previous.version + 1, new ShuffleBags.Remap(previous.version, previous.version + 1, indexes));
+    }
+
+    private static final class Snapshot<T> {
+        final List<T> items;
+        // Changes with every swap, so a ShuffleBag knows its indexes are stale
+        final long version;
+        // From the version before, null after a load
+        final ShuffleBags.Remap remap;
+
+        Snapshot(List<T> items, long version, @Nullable ShuffleBags.Remap remap) {
+            this.items = items;
+            this.version = version;
+            this.remap = remap;
+        }
+    }
+}
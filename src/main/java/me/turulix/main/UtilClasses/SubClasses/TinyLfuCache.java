@@ -0,0 +1,110 @@
+package me.turulix.main.UtilClasses.SubClasses;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread safe cache with a fixed maximum size that keeps the keys that are used most often, see {@link TinyLfuPolicy}.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ * @author Turulix
+ * @project NotDankMemer
+ * @since 17.10.2026 23:20
+ */
+public class TinyLfuCache<K, V> extends TinyLfuPolicy<V> {
+    private final ConcurrentHashMap<K, KeyNode<K, V>> map;
+
+    public TinyLfuCache(int maximumSize) {
+        this(maximumSize, 0);
+    }
+
+    /**
+     * @param ttlNanos Time after a write until the entry isn't returned anymore, 0 to keep entries until evicted.
+     */
+    public TinyLfuCache(int maximumSize, long ttlNanos) {
+        this(maximumSize, ttlNanos, System::nanoTime);
+    }
+
+    TinyLfuCache(int maximumSize, long ttlNanos, LongSupplier clock) {
+        super(maximumSize, ttlNanos, clock);
+        this.map = new ConcurrentHashMap<>(Math.min(maximumSize, 1 << 16));
+    }
+
+    @Nullable
+    public V get(@NotNull K key) {
+        return read(map.get(key));
+    }
+
+    /**
+     * @return The cached value, or the value the loader returned for the key. Null values are returned but not cached.
+     */
+    public V get(@NotNull K key, Function<K, V> loader) {
+        V value = get(key);
+        if (value != null) return value;
+        value = loader.apply(key);
+        if (value != null) put(key, value);
+        return value;
+    }
+
+    public boolean contains(@NotNull K key) {
+        return get(key) != null;
+    }
+
+    @Nullable
+    public V put(@NotNull K key, @NotNull V value) {
+        if (value == null) throw new NullPointerException("Value can't be null!");
+        int hash = FrequencySketch.spread(key.hashCode());
+        lock();
+        try {
+            return write(map.get(key), h -> {
+                KeyNode<K, V> node = new KeyNode<>(key, h);
+                map.put(key, node);
+                return node;
+            }, value, hash);
+        } finally {
+            unlock();
+        }
+    }
+
+    @Nullable
+    public V remove(@NotNull K key) {
+        lock();
+        try {
+            KeyNode<K, V> node = map.get(key);
+            if (node == null) return null;
+            removeNode(node);
+            return node.value;
+        } finally {
+            unlock();
+        }
+    }
+
+    public void clear() {
+        lock();
+        try {
+            map.clear();
+            clearPolicy();
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    void unmap(Node<V> node) {
+        map.remove(((KeyNode<?, ?>) node).key, node);
+    }
+
+    private static class KeyNode<K, V> extends Node<V> {
+        final K key;
+
+        KeyNode(K key, int hash) {
+            super(hash);
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package me.turulix.main.UtilClasses.SubClasses;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * The W-TinyLFU eviction of {@link TinyLfuCache} and {@link LongTinyLfuCache}, the subclasses only bring the map.
+ * <p>
+ * New entries go into a small LRU window (1% of the size). Whatever falls out of the window only gets into the main
+ * space if a {@link FrequencySketch} says it was used more often than the entry the main space would drop for it, so a
+ * burst of one-off keys can't push out the hot ones. The main space is a segmented LRU: entries read again move from
+ * probation to the protected 80%.
+ * <p>
+ * Reads don't lock. They only go into lossy striped ring buffers that whoever gets the lock next replays against the
+ * policy, a full buffer drops the read. Writes lock.
+ *
+ * @param <V> value type
+ * @author Turulix
+ * @project NotDankMemer
+ * @since 17.10.2026 23:20
+ */
+public abstract class TinyLfuPolicy<V> {
+    private static final byte WINDOW = 0;
+    private static final byte PROBATION = 1;
+    private static final byte PROTECTED = 2;
+    private static final byte DEAD = 3;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReadBuffer readBuffer = new ReadBuffer();
+    private final FrequencySketch sketch;
+    private final Queue window = new Queue();
+    private final Queue probation = new Queue();
+    private final Queue protect = new Queue();
+    private final int maximumSize;
+    private final int windowMaximum;
+    private final int protectedMaximum;
+    private final long ttl;
+    private final boolean expireAfterAccess;
+    private final LongSupplier clock;
+    private int size;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maximumSize Entries kept at most.
+     * @param ttlNanos    Time after a write until the entry isn't returned anymore, 0 to keep entries until evicted.
+     */
+    TinyLfuPolicy(int maximumSize, long ttlNanos, LongSupplier clock) {
+        this(maximumSize, ttlNanos, false, clock);
+    }
+
+    /**
+     * @param expireAfterAccess If the TTL starts over with every read too, so only idle entries expire.
+     */
+    TinyLfuPolicy(int maximumSize, long ttlNanos, boolean expireAfterAccess, LongSupplier clock) {
+        if (maximumSize < 1) throw new IllegalArgumentException("Cache size must be at least 1!");
+        if (ttlNanos < 0) throw new IllegalArgumentException("TTL can't be negative!");
+        this.maximumSize = maximumSize;
+        this.windowMaximum = Math.max(1, maximumSize / 100);
+        this.protectedMaximum = (maximumSize - windowMaximum) * 4 / 5;
+        this.ttl = ttlNanos;
+        this.expireAfterAccess = expireAfterAccess;
+        this.clock = clock;
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    /**
+     * Removes the node from the map, if the key is still mapped to it.
+     */
+    abstract void unmap(Node<V> node);
+
+    /**
+     * @return The value of a live node, null for misses and expired nodes.
+     */
+    final V read(Node<V> node) {
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        if (ttl > 0 && clock.getAsLong() - node.expiresAt >= 0) {
+            misses.increment();
+            if (lock.tryLock()) {
+                try {
+                    if (node.queue != DEAD) removeNode(node);
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return null;
+        }
+        hits.increment();
+        if (expireAfterAccess) node.expiresAt = expiry();
+        if (!readBuffer.offer(node) && lock.tryLock()) {
+            try {
+                drain();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return node.value;
+    }
+
+    /**
+     * @return If the node is still mapped and didn't expire.
+     */
+    final boolean isLive(Node<V> node) {
+        return node != null && node.queue != DEAD && (ttl == 0 || clock.getAsLong() - node.expiresAt < 0);
+    }
+
+    /**
+     * Puts the value into the node the map holds for its key, or adds a new node.
+     *
+     * @param existing The node currently mapped, read under the same lock, null if there is none.
+     * @param created  Creates and maps the new node, only called if there is no live node for the key.
+     * @return The old value or null.
+     */
+    final V write(Node<V> existing, IntFunction<Node<V>> created, V value, int hash) {
+        V old = null;
+        if (existing != null && existing.queue != DEAD) {
+            old = existing.value;
+            existing.value = value;
+            existing.expiresAt = expiry();
+            sketch.increment(hash);
+            onAccess(existing);
+        } else {
+            Node<V> node = created.apply(hash);
+            node.value = value;
+            node.expiresAt = expiry();
+            sketch.increment(hash);
+            window.addLast(node);
+            node.queue = WINDOW;
+            size++;
+            evict();
+        }
+        return old;
+    }
+
+    /**
+     * Takes the lock for a write and catches up on the buffered reads first.
+     */
+    final void lock() {
+        lock.lock();
+        drain();
+    }
+
+    final void unlock() {
+        lock.unlock();
+    }
+
+    /**
+     * Unlinks the node and removes it from the map. Called with the lock held.
+     */
+    final void removeNode(Node<V> node) {
+        unlink(node);
+        unmap(node);
+    }
+
+    /**
+     * Forgets all nodes, the subclass clears its map. Called with the lock held.
+     */
+    final void clearPolicy() {
+        window.clear();
+        probation.clear();
+        protect.clear();
+        size = 0;
+    }
+
+    /**
+     * @return The number of entries, including expired ones that weren't removed yet.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return hits / (hits + misses), or 0 if nothing was read yet.
+     */
+    public double getHitRate() {
+        long hits = getHits();
+        long requests = hits + getMisses();
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    private long expiry() {
+        return ttl > 0 ? clock.getAsLong() + ttl : 0;
+    }
+
+    private Queue queue(Node<V> node) {
+        return node.queue == WINDOW ? window : node.queue == PROBATION ? probation : protect;
+    }
+
+    private void unlink(Node<V> node) {
+        if (node.queue == DEAD) return;
+        queue(node).remove(node);
+        node.queue = DEAD;
+        size--;
+    }
+
+    private void drain() {
+        readBuffer.drain(node -> {
+            if (node.queue == DEAD) return;
+            sketch.increment(node.hash);
+            onAccess(node);
+        });
+    }
+
+    private void onAccess(Node<V> node) {
+        if (node.queue == PROBATION) {
+            probation.remove(node);
+            protect.addLast(node);
+            node.queue = PROTECTED;
+            // The protected space is full, its least recently used entry gets another chance in probation
+            if (protect.size > protectedMaximum) {
+                Node<V> demoted = protect.head.next;
+                protect.remove(demoted);
+                probation.addLast(demoted);
+                demoted.queue = PROBATION;
+            }
+        } else {
+            Queue queue = queue(node);
+            queue.remove(node);
+            queue.addLast(node);
+        }
+    }
+
+    private void evict() {
+        while (window.size > windowMaximum) {
+            Node<V> candidate = window.head.next;
+            window.remove(candidate);
+            probation.addLast(candidate);
+            candidate.queue = PROBATION;
+            if (size <= maximumSize) continue;
+
+            Node<V> victim = probation.head.next;
+            if (victim == candidate) victim = protect.size > 0 ? protect.head.next : candidate;
+            Node<V> loser = victim != candidate && sketch.frequency(candidate.hash) > sketch.frequency(victim.hash) ? victim : candidate;
+            removeNode(loser);
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Intrusive doubly linked list with a sentinel, the head is the least recently used entry.
+     */
+    private final class Queue {
+        final Node<V> head = new Node<>(0);
+        int size;
+
+        Queue() {
+            head.next = head.prev = head;
+        }
+
+        void addLast(Node<V> node) {
+            node.prev = head.prev;
+            node.next = head;
+            head.prev.next = node;
+            head.prev = node;
+            size++;
+        }
+
+        void remove(Node<V> node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = node.next = null;
+            size--;
+        }
+
+        void clear() {
+            for (Node<V> node = head.next; node != head; node = node.next) node.queue = DEAD;
+            head.next = head.prev = head;
+            size = 0;
+        }
+    }
+
+    static class Node<V> {
+        final int hash;
+        volatile V value;
+        volatile long expiresAt;
+        // Guarded by the lock of the policy
+        Node<V> prev;
+        Node<V> next;
+        byte queue = WINDOW;
+
+        Node(int hash) {
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * Striped ring buffers of nodes that were read, so reads never wait for the lock.
+     */
+    private final class ReadBuffer {
+        private static final int SIZE = 64;
+        private final AtomicReferenceArray<Node<V>>[] buffers;
+        private final AtomicLongArray writes;
+        private final AtomicLongArray reads;
+
+        @SuppressWarnings("unchecked")
+        ReadBuffer() {
+            int stripes = 1;
+            while (stripes < Runtime.getRuntime().availableProcessors()) stripes <<= 1;
+            buffers = new AtomicReferenceArray[stripes];
+            for (int i = 0; i < stripes; i++) buffers[i] = new AtomicReferenceArray<>(SIZE);
+            // Neighbouring stripes share cache lines, good enough for hints
+            writes = new AtomicLongArray(stripes);
+            reads = new AtomicLongArray(stripes);
+        }
+
+        /**
+         * @return False if the stripe is half full and should be drained.
+         */
+        boolean offer(Node<V> node) {
+            int stripe = FrequencySketch.spread((int) Thread.currentThread().getId()) & (buffers.length - 1);
+            long read = reads.get(stripe);
+            long write = writes.get(stripe);
+            // Reads are only hints, losing one to a full buffer or a racing reader is fine
+            if (write - read >= SIZE) return false;
+            if (writes.compareAndSet(stripe, write, write + 1)) buffers[stripe].lazySet((int) write & (SIZE - 1), node);
+            return write - read < SIZE / 2;
+        }
+
+        /**
+         * Called with the lock held.
+         */
+        void drain(Consumer<Node<V>> consumer) {
+            for (int stripe = 0; stripe < buffers.length; stripe++) {
+                AtomicReferenceArray<Node<V>> buffer = buffers[stripe];
+                long read = reads.get(stripe);
+                long write = writes.get(stripe);
+                for (; read < write; read++) {
+                    int slot = (int) read & (SIZE - 1);
+                    Node<V> node = buffer.get(slot);
+                    // The reader claimed the slot but didn't publish the node yet, the next drain gets it
+                    if (node == null) break;
+                    buffer.lazySet(slot, null);
+                    consumer.accept(node);
+                }
+                reads.lazySet(stripe, read);
+            }
+        }
+    }
+}
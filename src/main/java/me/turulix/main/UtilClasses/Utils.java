@@ -7,18 +7,19 @@
 package me.turulix.main.UtilClasses;
 
 
+import com.google.gson.stream.JsonReader;
 import me.turulix.main.DiscordBot;
 import me.turulix.main.Logger;
-import okhttp3.OkHttpClient;
+import okhttp3.MediaType;
 import okhttp3.Request;
-import okhttp3.Response;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
 import org.jetbrains.annotations.NotNull;
 import org.json.JSONObject;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
 
 import java.io.*;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.net.URLConnection;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
@@ -26,80 +27,75 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class Utils {
-    @Deprecated
-    public static String OldgetUrl(@NotNull String URLString) {
-        try {
-            @NotNull URL url = new URL(URLString);
-            URLConnection hc = url.openConnection();
-            hc.setRequestProperty("User-Agent", "Mozilla/5.0 (Windows; U; WindowsNT 5.1; en-US; rv1.8.1.6) Gecko/20070725 Firefox/2.0.0.6");
-            @NotNull BufferedReader reader = new BufferedReader(new InputStreamReader(hc.getInputStream(), StandardCharsets.UTF_8));
-            String s;
-            @NotNull StringBuilder msg = new StringBuilder();
-            while ((s = reader.readLine()) != null) {
-                msg.append(s);
-            }
-            reader.close();
-            return msg.toString();
-        } catch (Exception ex) {
-            Logger.error(ex);
-        }
-        return null;
-
-    }
-
     public static String getUrl(String URLString) {
-        OkHttpClient client = new OkHttpClient();
-        Request request = new Request.Builder().url(URLString).get().build();
-        Response response;
         try {
-            response = client.newCall(request).execute();
-            return new String(response.body().bytes(), StandardCharsets.UTF_8);
+            return Http.execute(new Request.Builder().url(URLString).get().build(), body -> new String(body.bytes(), StandardCharsets.UTF_8));
         } catch (IOException e) {
             Logger.error(e);
         }
         return null;
     }
 
+    /**
+     * Reads the JSON response straight from the connection with the handler, without building the body as a String or
+     * a tree first.
+     *
+     * @throws IOException If the request failed or the response isn't the JSON the handler expected.
+     */
+    public static <T> T readJson(String URLString, JsonStreams.Handler<T> handler) throws IOException {
+        return Http.execute(new Request.Builder().url(URLString).get().build(), body -> {
+            try {
+                return handler.read(new JsonReader(body.charStream()));
+            } catch (IllegalStateException | NumberFormatException ex) {
+                // JsonReader reports a token of the wrong type like this
+                throw new IOException("Unexpected JSON from " + URLString, ex);
+            }
+        });
+    }
+
+    /**
+     * Parses the HTML page straight from the connection, with a browser user agent for sites that turn others away.
+     *
+     * @throws IOException If the request failed.
+     */
+    public static Document readHtml(String URLString) throws IOException {
+        Request request = new Request.Builder()
+                .url(URLString)
+                .header("User-Agent", "Mozilla/5.0 (Windows; U; WindowsNT 5.1; en-US; rv1.8.1.6) Gecko/20070725 Firefox/2.0.0.6")
+                .get()
+                .build();
+        // Without a charset Jsoup takes the one of the page
+        return Http.execute(request, body -> Jsoup.parse(body.byteStream(), null, URLString));
+    }
+
     public static String getUrl(String URLString, String AuthToken) {
-        OkHttpClient client = new OkHttpClient();
-        Request request = new Request.Builder().url(URLString).header("Authorization", AuthToken).get().build();
-        Response response;
         try {
-            response = client.newCall(request).execute();
-            return new String(response.body().bytes(), StandardCharsets.UTF_8);
+            return Http.execute(new Request.Builder().url(URLString).header("Authorization", AuthToken).get().build(), body -> new String(body.bytes(), StandardCharsets.UTF_8));
         } catch (IOException e) {
             Logger.error(e);
         }
         return null;
     }
 
+    /**
+     * @return The rendered image, read completely so no connection stays open while it is sent on, null on error.
+     */
     public static InputStream getMeme(String domain, String text, String avatar1, String avatar2, String username1, String username2, String Token) {
+        JSONObject jsonObject = new JSONObject("{}");
+        jsonObject.put("text", text);
+        jsonObject.put("avatar1", avatar1);
+        jsonObject.put("avatar2", avatar2);
+        jsonObject.put("username1", username1);
+        jsonObject.put("username2", username2);
+        Request request = new Request.Builder()
+                .url(domain)
+                .header("User-Agent", "Mozilla/5.0 (Windows; U; WindowsNT 5.1; en-US; rv1.8.1.6) Gecko/20070725 Firefox/2.0.0.6")
+                .header("authorization", Token)
+                .post(RequestBody.create(MediaType.parse("application/json; charset=UTF-8"), jsonObject.toString()))
+                .build();
         try {
-            JSONObject jsonObject = new JSONObject("{}");
-            jsonObject.put("text", text);
-            jsonObject.put("avatar1", avatar1);
-            jsonObject.put("avatar2", avatar2);
-            jsonObject.put("username1", username1);
-            jsonObject.put("username2", username2);
-            String json = jsonObject.toString();
-
-            URL url = new URL(domain);
-            HttpURLConnection hc = (HttpURLConnection) url.openConnection();
-            hc.setDoOutput(true);
-            hc.setRequestMethod("POST");
-            hc.setRequestProperty("User-Agent", "Mozilla/5.0 (Windows; U; WindowsNT 5.1; en-US; rv1.8.1.6) Gecko/20070725 Firefox/2.0.0.6");
-            hc.setRequestProperty("authorization", Token);
-            hc.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
-            hc.setRequestProperty("Content-Length", String.valueOf(json.getBytes(StandardCharsets.UTF_8).length));
-            hc.setConnectTimeout(10000);
-            //hc.setFixedLengthStreamingMode(json.getBytes(StandardCharsets.UTF_8).length);
-
-            hc.connect();
-            OutputStream os = hc.getOutputStream();
-            os.write(json.getBytes(StandardCharsets.UTF_8));
-            os.flush();
-            return hc.getInputStream();
-        } catch (Exception ex) {
+            return new ByteArrayInputStream(Http.execute(request, ResponseBody::bytes));
+        } catch (IOException ex) {
             Logger.error(ex);
             return null;
         }
@@ -111,15 +107,13 @@ public class Utils {
      * @return Response or null if error.
      */
     public static InputStream getMashapeApi(String url) {
-        OkHttpClient client = new OkHttpClient();
         Request request = new Request.Builder().url(url).get().header("X-Mashape-Key", DiscordBot.instance.tomlManager.getToml().tokens.mashapeToken).build();
-        Response response = null;
         try {
-            response = client.newCall(request).execute();
+            return new ByteArrayInputStream(Http.execute(request, ResponseBody::bytes));
         } catch (IOException e) {
-            e.printStackTrace();
+            Logger.error(e);
+            return null;
         }
-        return response.body().byteStream();
     }
 
     @NotNull
@@ -1,15 +1,19 @@
 package me.turulix.main.Webserver;
 
-import com.mongodb.client.model.Filters;
+import com.jagrosh.jdautilities.command.CommandClient;
+import com.jagrosh.jdautilities.command.impl.AdmissionLimiter;
 import me.turulix.main.DiscordBot;
+import me.turulix.main.UtilClasses.Http;
 import me.turulix.main.UtilClasses.SubClasses.DatabaseInterface;
-import org.bson.BsonDateTime;
-import org.bson.Document;
 import org.json.JSONException;
+import org.jetbrains.annotations.Nullable;
 import org.json.JSONObject;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.Date;
 
+import static spark.Spark.get;
 import static spark.Spark.port;
 import static spark.Spark.post;
 
@@ -23,30 +27,69 @@ public class ApiWebServer extends DatabaseInterface {
         collectionName = "UserDatabase";
         port(28138);
         post("/vote", ((request, response) -> {
-            JSONObject body = null;
+            // Answered right away, the vote reaches the database with the next write behind flush
+            if (!isAuthorized(request.headers("Authorization"))) {
+                response.status(401);
+                return "Declined.";
+            }
+            JSONObject body;
             try {
                 body = new JSONObject(request.body());
             } catch (JSONException ex) {
-                ex.printStackTrace();
+                response.status(400);
+                return "Declined.";
             }
-            if (request.headers("Authorization").equals(DiscordBot.instance.tomlManager.getToml().auth.webHookSecret)) {
-                if (body != null && body.getString("bot").equals("277608782123630593")) {
-                    if (body.getString("type").equals("upvote")) {
-                        Long userID = body.getLong("user");
-                        if (getDocument(Filters.eq("_id", userID)) != null) {
-                            update(Filters.eq("_id", userID), "voteDate", new BsonDateTime(new Date().getTime()));
-                            return "Accepted";
-                        } else {
-                            insert(new Document().append("_id", userID));
-                            update(Filters.eq("_id", userID), "voteDate", new BsonDateTime(new Date().getTime()));
-                            return "Accepted";
-                        }
-                    }
-                }
+            if (!body.optString("bot").equals("277608782123630593") || !body.optString("type").equals("upvote")) return "Declined.";
+            long userID = body.optLong("user");
+            if (userID <= 0) {
+                response.status(400);
                 return "Declined.";
-            } else {
+            }
+            DiscordBot.instance.registerStuff.database.userManager.registerVote(userID, new Date());
+            return "Accepted";
+        }));
+        get("/metrics", ((request, response) -> {
+            // Same port as the vote webhook, so the scraper has to send the webhook secret too
+            String authorization = request.headers("Authorization");
+            if (authorization != null && authorization.startsWith("Bearer ")) authorization = authorization.substring(7);
+            if (!isAuthorized(authorization)) {
+                response.status(401);
                 return "Declined.";
             }
+            response.type("text/plain; version=0.0.4");
+            return getMetrics();
         }));
     }
+
+    private static boolean isAuthorized(@Nullable String authorization) {
+        if (authorization == null) return false;
+        byte[] secret = DiscordBot.instance.tomlManager.getToml().auth.webHookSecret.getBytes(StandardCharsets.UTF_8);
+        // Without a configured secret nobody gets in, an empty header would match otherwise
+        if (secret.length == 0) return false;
+        return MessageDigest.isEqual(secret, authorization.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Everything in the Prometheus text format, for the /metrics endpoint. Every component writes its own section.
+     */
+    private String getMetrics() {
+        StringBuilder out = new StringBuilder();
+        CommandClient client = DiscordBot.instance.registerStuff.commandClient;
+        if (client == null) return "";
+        client.getMetrics().writePrometheus(out);
+
+        out.append("# HELP notdankmemer_messages_total Messages seen by the prefix filter.\n");
+        out.append("# TYPE notdankmemer_messages_total counter\n");
+        out.append("notdankmemer_messages_total{result=\"accepted\"} ").append(client.getAcceptedMessages()).append('\n');
+        out.append("notdankmemer_messages_total{result=\"rejected\"} ").append(client.getRejectedMessages()).append('\n');
+
+        client.getExecutionEngine().writePrometheus(out);
+        AdmissionLimiter limiter = client.getAdmissionLimiter();
+        if (limiter != null) limiter.writePrometheus(out);
+        DiscordBot.instance.registerStuff.database.guildSettingsDataManager.writePrometheus(out);
+        DiscordBot.instance.registerStuff.database.writeBehind.writePrometheus(out);
+        DiscordBot.instance.registerStuff.cachedMemes.writePrometheus(out);
+        Http.writePrometheus(out);
+        return out.toString();
+    }
 }
@@ -6,8 +6,17 @@
 
 package me.turulix.main.i18n;
 
+import org.reflections.Reflections;
+import org.reflections.scanners.ResourcesScanner;
+import org.reflections.util.ClasspathHelper;
+import org.reflections.util.ConfigurationBuilder;
+
+import java.util.HashSet;
 import java.util.Locale;
 import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * @author Turulix
@@ -15,11 +24,48 @@ import java.util.ResourceBundle;
  * @since 21.01.2019 18:46
  */
 public class I18n {
+    public static final Locale DEFAULT_LOCALE = new Locale("en", "US");
+    private static final Pattern LANG_FILE = Pattern.compile("lang_([a-z]{2})_([A-Z]{2})\\.properties");
     private static String baseName = "lang";
+    private static volatile MessageCatalog catalog;
 
     public static ResourceBundle getResourceBundle(Locale language) {
         ResourceBundle bundle = ResourceBundle.getBundle(baseName, language);
         return bundle;
     }
 
+    public static MessageCatalog getCatalog() {
+        MessageCatalog current = catalog;
+        if (current == null) {
+            synchronized (I18n.class) {
+                if (catalog == null) catalog = MessageCatalog.compile(getAvailableLocales());
+                current = catalog;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Drops every cached bundle and compiles the catalog again, used when the lang files changed.
+     */
+    public static void reload() {
+        ResourceBundle.clearCache();
+        catalog = MessageCatalog.compile(getAvailableLocales());
+    }
+
+    /**
+     * Scans the classpath for lang_*.properties files.
+     *
+     * @return Every locale a bundle exists for, always including {@link #DEFAULT_LOCALE}.
+     */
+    public static Set<Locale> getAvailableLocales() {
+        Set<Locale> locales = new HashSet<>();
+        locales.add(DEFAULT_LOCALE);
+        Reflections reflections = new Reflections(new ConfigurationBuilder().setUrls(ClasspathHelper.forResource(baseName + "_en_US.properties")).setScanners(new ResourcesScanner()));
+        for (String resource : reflections.getResources(LANG_FILE)) {
+            Matcher matcher = LANG_FILE.matcher(resource.substring(resource.lastIndexOf('/') + 1));
+            if (matcher.matches()) locales.add(new Locale(matcher.group(1), matcher.group(2)));
+        }
+        return locales;
+    }
 }
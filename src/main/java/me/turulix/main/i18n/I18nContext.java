@@ -11,7 +11,6 @@ import me.turulix.main.Database.Manager.UserManager;
 import me.turulix.main.Logger;
 
 import java.util.Locale;
-import java.util.ResourceBundle;
 
 /**
  * @author Turulix
@@ -21,40 +20,50 @@ import java.util.ResourceBundle;
 public class I18nContext {
     private GuildSettingsDataManager.GuildSettings guildSettings;
     private UserManager.UserSettings userSettings;
+    private Locale language;
 
     public I18nContext(GuildSettingsDataManager.GuildSettings guildSettings, UserManager.UserSettings userSettings) {
         this.guildSettings = guildSettings;
         this.userSettings = userSettings;
     }
 
+    public String get(MessageKey key) {
+        String message = I18n.getCatalog().get(getContextLanguage(), key);
+        if (message != null) return message;
+        Logger.sendToDiscord("No key Named: " + key + " found in en_US");
+        return key.getName();
+    }
+
+    /**
+     * Resolves the key on every call, keep a {@link MessageKey} where the key is known up front.
+     */
     public String get(String s) {
-        try {
-            ResourceBundle context = I18n.getResourceBundle(getContextLanguage());
-            return context.getString(s);
-        } catch (Exception ignored) {
-        }
-        try {
-            ResourceBundle context = I18n.getResourceBundle(new Locale("en", "US"));
-            return context.getString(s);
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
+        String message = I18n.getCatalog().get(getContextLanguage(), s);
+        if (message != null) return message;
         Logger.sendToDiscord("No key Named: " + s + " found in en_US");
         return s;
     }
 
+    /**
+     * Resolved once per context, the user language wins over the guild language.
+     */
     public Locale getContextLanguage() {
-        if (guildSettings.getLang() == null && userSettings.getLang() == null) {
-            return new Locale("en", "US");
+        if (language == null) {
+            String lang = userSettings.getLang();
+            if (lang == null && guildSettings != null) lang = guildSettings.getLang();
+            language = I18n.getCatalog().getLocale(lang);
         }
+        return language;
+    }
 
-        String lang;
-        if (userSettings.getLang() == null) {
-            lang = guildSettings.getLang();
-        } else {
-            lang = userSettings.getLang();
-        }
-        ResourceBundle context = I18n.getResourceBundle(new Locale("en", "US"));
-        return context == null ? new Locale("en", "US") : new Locale(lang.split("_")[0], lang.split("_")[1]);
+    /**
+     * @return The guild settings or null if the command was used in a private channel.
+     */
+    public GuildSettingsDataManager.GuildSettings getGuildSettings() {
+        return guildSettings;
+    }
+
+    public UserManager.UserSettings getUserSettings() {
+        return userSettings;
     }
 }
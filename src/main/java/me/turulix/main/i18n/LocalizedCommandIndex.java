@@ -0,0 +1,121 @@
+package me.turulix.main.i18n;
+
+import com.jagrosh.jdautilities.command.Command;
+import me.turulix.main.Logger;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Maps the localized names of every {@link Command} (and its children) straight to the command, per language.
+ * <p>
+ * Names are read from "command.[name].name", children from "command.[parent].children.[child].name". An optional
+ * comma separated "command.[name].aliases" key adds aliases. Missing keys fall back to en_US through the {@link
+ * MessageCatalog}.
+ * <p>
+ * The index is immutable and gets swapped as a whole on {@link #rebuild(List)} / {@link #reload()}.
+ *
+ * @author Turulix
+ * @project NotDankMemer
+ * @since 17.10.2026 10:12
+ */
+public class LocalizedCommandIndex {
+    private volatile List<Command> commands = Collections.emptyList();
+    private volatile Map<Locale, LocaleIndex> index = Collections.emptyMap();
+
+    /**
+     * Rebuilds the index for a new set of commands.
+     */
+    public void rebuild(List<Command> commands) {
+        List<Command> snapshot = Collections.unmodifiableList(new ArrayList<>(commands));
+        Map<Locale, LocaleIndex> built = build(snapshot);
+        this.commands = snapshot;
+        this.index = built;
+    }
+
+    /**
+     * Reloads the lang files and rebuilds the index.
+     */
+    public void reload() {
+        I18n.reload();
+        rebuild(commands);
+    }
+
+    @Nullable
+    public Command find(Locale locale, String name) {
+        return forLocale(locale).roots.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    @Nullable
+    public Command findChild(Locale locale, Command parent, String name) {
+        Map<String, Command> children = forLocale(locale).children.get(parent);
+        return children == null ? null : children.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    public boolean isHelpWord(Locale locale, String word) {
+        return forLocale(locale).helpWord.equalsIgnoreCase(word);
+    }
+
+    private LocaleIndex forLocale(Locale locale) {
+        Map<Locale, LocaleIndex> current = index;
+        LocaleIndex localeIndex = current.get(locale);
+        if (localeIndex == null) localeIndex = current.get(I18n.DEFAULT_LOCALE);
+        return localeIndex == null ? LocaleIndex.EMPTY : localeIndex;
+    }
+
+    private static Map<Locale, LocaleIndex> build(List<Command> commands) {
+        MessageCatalog catalog = I18n.getCatalog();
+        Map<Locale, LocaleIndex> built = new HashMap<>();
+        for (Locale locale : catalog.getLocales()) {
+            Map<String, Command> roots = new HashMap<>();
+            Map<Command, Map<String, Command>> children = new IdentityHashMap<>();
+            for (Command command : commands) {
+                String key = "command." + command.getName();
+                addNames(roots, command, key, catalog, locale);
+                addChildren(children, command, key, catalog, locale);
+            }
+            String helpWord = catalog.get(locale, "helpWord");
+            built.put(locale, new LocaleIndex(roots, children, helpWord == null ? "help" : helpWord));
+        }
+        return Collections.unmodifiableMap(built);
+    }
+
+    private static void addChildren(Map<Command, Map<String, Command>> children, Command parent, String parentKey, MessageCatalog catalog, Locale locale) {
+        if (parent.getChildren().length == 0) return;
+        Map<String, Command> names = new HashMap<>();
+        for (Command child : parent.getChildren()) {
+            String key = parentKey + ".children." + child.getName();
+            addNames(names, child, key, catalog, locale);
+            addChildren(children, child, key, catalog, locale);
+        }
+        children.put(parent, names);
+    }
+
+    private static void addNames(Map<String, Command> names, Command command, String key, MessageCatalog catalog, Locale locale) {
+        String name = catalog.get(locale, key + ".name");
+        if (name == null) {
+            Logger.warn("No key Named: " + key + ".name found in " + locale);
+        } else {
+            names.putIfAbsent(name.toLowerCase(Locale.ROOT), command);
+        }
+        String aliases = catalog.get(locale, key + ".aliases");
+        if (aliases == null) return;
+        for (String alias : aliases.split(",")) {
+            if (!alias.trim().isEmpty()) names.putIfAbsent(alias.trim().toLowerCase(Locale.ROOT), command);
+        }
+    }
+
+    private static class LocaleIndex {
+        static final LocaleIndex EMPTY = new LocaleIndex(Collections.emptyMap(), Collections.emptyMap(), "help");
+
+        final Map<String, Command> roots;
+        final Map<Command, Map<String, Command>> children;
+        final String helpWord;
+
+        LocaleIndex(Map<String, Command> roots, Map<Command, Map<String, Command>> children, String helpWord) {
+            this.roots = roots;
+            this.children = children;
+            this.helpWord = helpWord;
+        }
+    }
+}
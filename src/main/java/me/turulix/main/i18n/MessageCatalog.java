@@ -0,0 +1,100 @@
+package me.turulix.main.i18n;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * All lang_*.properties bundles compiled into plain arrays.
+ * <p>
+ * Every key gets a fixed slot, every language a String[] with the en_US fallback already filled in. Callers hold a
+ * {@link MessageKey}, whose slot is resolved when the catalog is compiled, so a lookup is one array read. Nothing gets
+ * allocated and no exceptions are thrown for missing keys.
+ *
+ * @author Turulix
+ * @project NotDankMemer
+ * @since 17.10.2026 13:40
+ */
+public class MessageCatalog {
+    private final Map<String, Integer> slots;
+    private final Map<Locale, String[]> messages;
+    private final Map<String, Locale> locales;
+
+    private MessageCatalog(Map<String, Integer> slots, Map<Locale, String[]> messages, Map<String, Locale> locales) {
+        this.slots = slots;
+        this.messages = messages;
+        this.locales = locales;
+    }
+
+    static MessageCatalog compile(Set<Locale> available) {
+        ResourceBundle fallback = I18n.getResourceBundle(I18n.DEFAULT_LOCALE);
+        Map<Locale, ResourceBundle> bundles = new HashMap<>();
+        Set<String> keys = new TreeSet<>(fallback.keySet());
+        for (Locale locale : available) {
+            ResourceBundle bundle = I18n.getResourceBundle(locale);
+            bundles.put(locale, bundle);
+            keys.addAll(bundle.keySet());
+        }
+
+        Map<String, Integer> slots = new HashMap<>();
+        for (String key : keys) slots.put(key, slots.size());
+
+        Map<Locale, String[]> messages = new HashMap<>();
+        Map<String, Locale> locales = new HashMap<>();
+        bundles.forEach((locale, bundle) -> {
+            String[] table = new String[slots.size()];
+            slots.forEach((key, slot) -> {
+                if (bundle.containsKey(key)) table[slot] = bundle.getString(key);
+                else if (fallback.containsKey(key)) table[slot] = fallback.getString(key);
+            });
+            messages.put(locale, table);
+            locales.put(locale.toString(), locale);
+        });
+        MessageCatalog catalog = new MessageCatalog(Collections.unmodifiableMap(slots), Collections.unmodifiableMap(messages), Collections.unmodifiableMap(locales));
+        for (MessageKey key : MessageKey.all()) key.resolve(catalog);
+        return catalog;
+    }
+
+    /**
+     * Maps a stored language like "de_DE" to the shared Locale instance of its bundle.
+     *
+     * @return The locale or {@link I18n#DEFAULT_LOCALE} if there is no bundle for it.
+     */
+    public Locale getLocale(@Nullable String lang) {
+        if (lang == null) return I18n.DEFAULT_LOCALE;
+        return locales.getOrDefault(lang, I18n.DEFAULT_LOCALE);
+    }
+
+    /**
+     * @return The message, the en_US one if the language doesn't have it, or null if the key doesn't exist.
+     */
+    @Nullable
+    public String get(Locale locale, MessageKey key) {
+        return get(locale, key.slot(this));
+    }
+
+    /**
+     * For keys that are only known at runtime, like the names of commands while the command index is built. Resolves
+     * the key on every call, use {@link #get(Locale, MessageKey)} for anything else.
+     */
+    @Nullable
+    public String get(Locale locale, String key) {
+        return get(locale, slotOf(key));
+    }
+
+    int slotOf(String key) {
+        Integer slot = slots.get(key);
+        return slot == null ? -1 : slot;
+    }
+
+    private String get(Locale locale, int slot) {
+        if (slot < 0) return null;
+        String[] table = messages.get(locale);
+        if (table == null) table = messages.get(I18n.DEFAULT_LOCALE);
+        return table[slot];
+    }
+
+    public Set<Locale> getLocales() {
+        return messages.keySet();
+    }
+}
@@ -0,0 +1,71 @@
+package me.turulix.main.i18n;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A message key that is resolved to its slot in the {@link MessageCatalog} once, instead of on every lookup.
+ * <p>
+ * Keys are interned, so every caller of {@link #of(String)} with the same name shares one handle, and the catalog
+ * resolves every handle that exists when it is compiled. Keep them in constants. A handle created later, or used with
+ * a catalog compiled again by {@link I18n#reload()}, resolves itself on its first lookup.
+ *
+ * @author Turulix
+ * @project NotDankMemer
+ * @since 18.10.2026 05:10
+ */
+public final class MessageKey {
+    private static final ConcurrentHashMap<String, MessageKey> KEYS = new ConcurrentHashMap<>();
+
+    private final String name;
+    private volatile Resolved resolved;
+
+    private MessageKey(String name) {
+        this.name = name;
+    }
+
+    @NotNull
+    public static MessageKey of(@NotNull String name) {
+        return KEYS.computeIfAbsent(name, MessageKey::new);
+    }
+
+    static Collection<MessageKey> all() {
+        return KEYS.values();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The slot in the catalog, -1 if it doesn't have the key.
+     */
+    int slot(MessageCatalog catalog) {
+        Resolved resolved = this.resolved;
+        if (resolved != null && resolved.catalog == catalog) return resolved.slot;
+        return resolve(catalog);
+    }
+
+    int resolve(MessageCatalog catalog) {
+        int slot = catalog.slotOf(name);
+        resolved = new Resolved(catalog, slot);
+        return slot;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    private static final class Resolved {
+        final MessageCatalog catalog;
+        final int slot;
+
+        Resolved(MessageCatalog catalog, int slot) {
+            this.catalog = catalog;
+            this.slot = slot;
+        }
+    }
+}
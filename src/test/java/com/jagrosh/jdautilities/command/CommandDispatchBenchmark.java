@@ -0,0 +1,128 @@
+package com.jagrosh.jdautilities.command;
+
+import com.jagrosh.jdautilities.command.impl.CommandClientImpl;
+import com.jagrosh.jdautilities.command.impl.CommandExecutionEngine;
+import me.turulix.main.Database.Manager.UserManager;
+import me.turulix.main.DiscordBot;
+import me.turulix.main.FakeDiscord;
+import me.turulix.main.OfflineBot;
+import me.turulix.main.i18n.I18nContext;
+import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The command dispatch hot path: {@link CommandClient} receiving a message and {@link Command#run(CommandEvent, List)}.
+ * <p>
+ * Runs against {@link FakeDiscord} with a stubbed settings manager and pre-cached user settings, so nothing touches the
+ * network. The execution engine runs commands inline, every benchmark measures the full dispatch on one thread.
+ *
+ * @author Turulix
+ * @project NotDankMemer
+ * @since 17.10.2026 18:00
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandDispatchBenchmark {
+    private FakeDiscord discord;
+    private CommandClientImpl client;
+    private NoopCommand command;
+    private I18nContext context;
+    private MessageReceivedEvent commandMessage;
+    private MessageReceivedEvent chatMessage;
+    private MessageReceivedEvent unknownCommandMessage;
+    private String longMessage;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CommandDispatchBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        DiscordBot bot = OfflineBot.start(null);
+        discord = new FakeDiscord(100);
+        command = new NoopCommand();
+        client = (CommandClientImpl) new CommandClientBuilder().setOwnerId("264445053596991498").setPrefix("!").setScheduleExecutor(Executors.newSingleThreadScheduledExecutor()).setExecutionEngine(new InlineEngine()).setGuildSettingsManager(guild -> new GuildSettingsProvider() {
+            @Override
+            public List<String> getPrefixes() {
+                return Collections.singletonList("!");
+            }
+        }).addCommand(command).build();
+        bot.registerStuff.commandClient = client;
+
+        UserManager userManager = bot.registerStuff.database.userManager;
+        UserManager.UserSettings settings = new UserManager.UserSettings("en_US", true);
+        discord.users.forEach(user -> userManager.cache.put(user.getIdLong(), settings));
+        context = new I18nContext(null, settings);
+
+        commandMessage = discord.message(discord.users.get(0), "!test some arguments");
+        chatMessage = discord.message(discord.users.get(1), "just talking about memes");
+        unknownCommandMessage = discord.message(discord.users.get(2), "!nothing here");
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 300; i++) builder.append("Line ").append(i).append(" of a long help message @everyone\n");
+        longMessage = builder.toString();
+    }
+
+    @Benchmark
+    public void dispatchCommand(Blackhole blackhole) {
+        client.onEvent(commandMessage);
+        blackhole.consume(command.runs);
+    }
+
+    @Benchmark
+    public void dispatchChat() {
+        client.onEvent(chatMessage);
+    }
+
+    @Benchmark
+    public void dispatchUnknownCommand() {
+        client.onEvent(unknownCommandMessage);
+    }
+
+    @Benchmark
+    public void commandRun() {
+        command.run(new CommandEvent(commandMessage, "", client, context), null);
+    }
+
+    @Benchmark
+    public ArrayList<String> splitMessage() {
+        return CommandEvent.splitMessage(longMessage);
+    }
+
+    private static class NoopCommand extends Command {
+        volatile long runs;
+
+        NoopCommand() {
+            this.name = "test";
+            this.help = "does nothing";
+        }
+
+        @Override
+        protected void execute(CommandEvent event, I18nContext context) {
+            runs++;
+        }
+    }
+
+    /**
+     * Runs every command right away on the calling thread.
+     */
+    private static class InlineEngine extends CommandExecutionEngine {
+        @Override
+        public void submit(long key, Lane lane, Runnable command, Runnable onRejected) {
+            command.run();
+        }
+    }
+}
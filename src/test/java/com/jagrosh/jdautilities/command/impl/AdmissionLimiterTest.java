@@ -0,0 +1,63 @@
+package com.jagrosh.jdautilities.command.impl;
+
+import me.turulix.main.Listeners.TestFailListener;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.jagrosh.jdautilities.command.impl.AdmissionLimiter.Result.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(TestFailListener.class)
+class AdmissionLimiterTest {
+    private final AtomicLong clock = new AtomicLong();
+    private final AdmissionLimiter limiter = new AdmissionLimiter(new AdmissionLimiter.Limit(2, 1), new AdmissionLimiter.Limit(3, 1), null, clock::get);
+
+    @Test
+    void userBucket() {
+        assertEquals(ADMITTED, limiter.tryAcquire(1, 0, -1));
+        assertEquals(ADMITTED, limiter.tryAcquire(1, 0, -1));
+        assertEquals(WARN, limiter.tryAcquire(1, 0, -1));
+        assertEquals(DROP, limiter.tryAcquire(1, 0, -1));
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(ADMITTED, limiter.tryAcquire(1, 0, -1));
+        assertEquals(WARN, limiter.tryAcquire(1, 0, -1));
+        assertEquals(3, limiter.getThrottled(AdmissionLimiter.Scope.USER));
+    }
+
+    @Test
+    void guildBucket() {
+        assertEquals(ADMITTED, limiter.tryAcquire(1, 10, 0));
+        assertEquals(ADMITTED, limiter.tryAcquire(2, 10, 0));
+        assertEquals(ADMITTED, limiter.tryAcquire(3, 10, 0));
+        assertEquals(WARN, limiter.tryAcquire(4, 10, 0));
+        assertEquals(1, limiter.getThrottled(AdmissionLimiter.Scope.GUILD));
+    }
+
+    @Test
+    void throttledGuildTakesNoUserToken() {
+        assertEquals(ADMITTED, limiter.tryAcquire(2, 10, 0));
+        assertEquals(ADMITTED, limiter.tryAcquire(3, 10, 0));
+        assertEquals(ADMITTED, limiter.tryAcquire(4, 10, 0));
+        assertEquals(WARN, limiter.tryAcquire(1, 10, 0));
+        assertEquals(DROP, limiter.tryAcquire(1, 10, 0));
+        // Both user tokens are still there for another guild
+        assertEquals(ADMITTED, limiter.tryAcquire(1, 20, 0));
+        assertEquals(ADMITTED, limiter.tryAcquire(1, 20, 0));
+        assertEquals(0, limiter.getThrottled(AdmissionLimiter.Scope.USER));
+    }
+
+    @Test
+    void evictIdle() {
+        limiter.tryAcquire(1, 10, 0);
+        assertEquals(1, limiter.getTracked(AdmissionLimiter.Scope.USER));
+        limiter.evictIdle();
+        assertEquals(1, limiter.getTracked(AdmissionLimiter.Scope.USER));
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        limiter.evictIdle();
+        assertEquals(0, limiter.getTracked(AdmissionLimiter.Scope.USER));
+        assertEquals(0, limiter.getTracked(AdmissionLimiter.Scope.GUILD));
+    }
+}
@@ -0,0 +1,55 @@
+package com.jagrosh.jdautilities.command.impl;
+
+import me.turulix.main.Listeners.TestFailListener;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.EnumMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TestFailListener.class)
+class CommandExecutionEngineTest {
+    @Test
+    void rejectsOverThePerGuildCap() throws InterruptedException {
+        CommandExecutionEngine engine = new CommandExecutionEngine(new EnumMap<>(CommandExecutionEngine.Lane.class), 2);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(3);
+        AtomicInteger rejected = new AtomicInteger();
+        engine.submit(1, CommandExecutionEngine.Lane.TEXT, () -> {
+            await(release);
+            done.countDown();
+        }, rejected::incrementAndGet);
+        for (int i = 0; i < 4; i++)
+            engine.submit(1, CommandExecutionEngine.Lane.TEXT, done::countDown, rejected::incrementAndGet);
+        assertEquals(2, rejected.get());
+        assertEquals(2, engine.getRejectedCount(CommandExecutionEngine.Lane.TEXT));
+        assertEquals(2, engine.getBacklog(CommandExecutionEngine.Lane.TEXT));
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        engine.shutdown();
+    }
+
+    @Test
+    void lanesOfOneGuildDontWaitForEachOther() throws InterruptedException {
+        CommandExecutionEngine engine = new CommandExecutionEngine();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch text = new CountDownLatch(1);
+        engine.submit(1, CommandExecutionEngine.Lane.IMAGES, () -> await(release), () -> fail("rejected"));
+        engine.submit(1, CommandExecutionEngine.Lane.TEXT, text::countDown, () -> fail("rejected"));
+        assertTrue(text.await(5, TimeUnit.SECONDS));
+        release.countDown();
+        engine.shutdown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
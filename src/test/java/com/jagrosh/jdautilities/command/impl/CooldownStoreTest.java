@@ -0,0 +1,70 @@
+package com.jagrosh.jdautilities.command.impl;
+
+import me.turulix.main.Listeners.TestFailListener;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TestFailListener.class)
+class CooldownStoreTest {
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(1000));
+    private final CooldownStore store = new CooldownStore(64, 16, TimeUnit.SECONDS.toNanos(1), clock::get);
+
+    private void advance(long seconds) {
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+    @Test
+    void tryApply() {
+        assertEquals(0, store.tryApply(1, 264445053596991498L, 0, 10));
+        advance(3);
+        assertEquals(7, store.tryApply(1, 264445053596991498L, 0, 10));
+        assertEquals(7, store.getRemaining(1, 264445053596991498L, 0));
+        assertEquals(0, store.getRemaining(2, 264445053596991498L, 0));
+        advance(7);
+        assertEquals(0, store.getRemaining(1, 264445053596991498L, 0));
+        assertEquals(0, store.tryApply(1, 264445053596991498L, 0, 10));
+    }
+
+    @Test
+    void legacyKeys() {
+        store.apply("say|U:1", 5);
+        assertEquals(5, store.getRemaining("say|U:1"));
+        assertNotNull(store.getExpiry("say|U:1"));
+        assertEquals(0, store.getRemaining("say|U:2"));
+    }
+
+    @Test
+    void wheelRemovesExpired() {
+        for (long i = 0; i < 20; i++) store.tryApply(1, i, 0, 5);
+        store.tryApply(1, 100, 0, 40);
+        assertEquals(21, store.occupied() + store.getOverflowSize());
+        advance(7);
+        // Expired, but still in the table until the wheel gets to them
+        assertEquals(21, store.occupied() + store.getOverflowSize());
+        store.tick();
+        assertEquals(1, store.occupied() + store.getOverflowSize());
+        advance(40);
+        store.tick();
+        assertEquals(0, store.occupied() + store.getOverflowSize());
+    }
+
+    @Test
+    void keepsLiveCooldownsWhenFull() {
+        for (long i = 0; i < 1000; i++) assertEquals(0, store.tryApply(1, i, 0, 60));
+        assertTrue(store.occupied() <= 64);
+        assertTrue(store.getOverflowed() > 0);
+        assertEquals(1000, store.size());
+        advance(1);
+        for (long i = 0; i < 1000; i++) assertEquals(59, store.tryApply(1, i, 0, 60));
+        advance(60);
+        store.tick();
+        assertEquals(0, store.occupied());
+        assertEquals(0, store.getOverflowSize());
+        assertEquals(0, store.tryApply(1, 5, 0, 60));
+    }
+}
@@ -0,0 +1,102 @@
+package me.turulix.main.Database;
+
+import me.turulix.main.Database.Manager.UserManager;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap per user of {@link UserSettingsStore} against the boxed HashMap the user cache used to be. The time is only the
+ * time to fill them, the interesting number is the bytesPerUser counter.
+ *
+ * @author Turulix
+ * @project NotDankMemer
+ * @since 17.10.2026 22:50
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class UserSettingsStoreBenchmark {
+    private static final long FIRST_ID = 264445053596991498L;
+    private static final String[] LANGS = {"en_US", "en_US", "en_US", "de_DE"};
+
+    @Param({"1000000", "10000000"})
+    public int users;
+
+    private Object filled;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(UserSettingsStoreBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long id(int user) {
+        // Snowflakes a few milliseconds apart, like accounts created one after another
+        return FIRST_ID + ((long) user << 22);
+    }
+
+    private static long voteExpiresAt(int user) {
+        return user % 3 == 0 ? System.currentTimeMillis() + UserManager.VOTE_DURATION : 0;
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        filled = null;
+    }
+
+    @Benchmark
+    public Object hashMap(Footprint footprint) {
+        long before = usedHeap();
+        HashMap<Long, LegacyUserSettings> map = new HashMap<>();
+        // Every decoded document brought its own language string along
+        for (int i = 0; i < users; i++) map.put(id(i), new LegacyUserSettings(new String(LANGS[i % LANGS.length]), i % 3 == 0));
+        footprint.bytesPerUser = (usedHeap() - before) / users;
+        return filled = map;
+    }
+
+    @Benchmark
+    public Object packedStore(Footprint footprint) {
+        long before = usedHeap();
+        // Some room over the user count, so the segments that get more than their share don't evict
+        UserSettingsStore store = new UserSettingsStore(users + users / 4, TimeUnit.HOURS.toSeconds(6), 0.2, 0.8, Runnable::run);
+        for (int i = 0; i < users; i++) store.put(id(i), new UserManager.UserSettings(new String(LANGS[i % LANGS.length]), voteExpiresAt(i)));
+        footprint.bytesPerUser = (usedHeap() - before) / users;
+        return filled = store;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long bytesPerUser;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytesPerUser = 0;
+        }
+    }
+
+    /**
+     * The shape of the user settings when they were cached as they are.
+     */
+    private static class LegacyUserSettings {
+        final String lang;
+        final Boolean hasVoted;
+
+        LegacyUserSettings(String lang, Boolean hasVoted) {
+            this.lang = lang;
+            this.hasVoted = hasVoted;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package me.turulix.main.Database;
+
+import me.turulix.main.Database.Manager.UserManager.UserSettings;
+import me.turulix.main.Listeners.TestFailListener;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TestFailListener.class)
+class UserSettingsStoreTest {
+    private long seconds;
+    private List<Runnable> refreshes = new ArrayList<>();
+    private AtomicInteger loads = new AtomicInteger();
+
+    private UserSettingsStore store(int capacity, double jitter, double refreshAhead) {
+        return new UserSettingsStore(capacity, 1000, jitter, refreshAhead, refreshes::add, () -> TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+    private UserSettings load(long key) {
+        return new UserSettings(loads.get() % 2 == 0 ? "en_US" : "de_DE", key * 10 + loads.incrementAndGet());
+    }
+
+    @Test
+    void packsLanguageAndVote() {
+        UserSettingsStore store = store(100, 0, 1);
+        store.put(264445053596991498L, new UserSettings("de_DE", 1555000000000L));
+        store.put(1L, new UserSettings(null, 0));
+        assertEquals("de_DE", store.getIfPresent(264445053596991498L).getLang());
+        assertEquals(1555000000000L, store.getIfPresent(264445053596991498L).getVoteExpiresAt());
+        assertNull(store.getIfPresent(1L).getLang());
+        assertTrue(store.setVoteExpiresAt(1L, 42));
+        assertFalse(store.setVoteExpiresAt(2L, 42));
+        assertEquals(42, store.getIfPresent(1L).getVoteExpiresAt());
+    }
+
+    @Test
+    void expiresAfterTtl() {
+        UserSettingsStore store = store(100, 0, 1);
+        assertEquals(11, store.get(1, this::load).getVoteExpiresAt());
+        seconds = 999;
+        assertEquals(11, store.get(1, this::load).getVoteExpiresAt());
+        seconds = 1000;
+        assertNull(store.getIfPresent(1));
+        assertEquals(12, store.get(1, this::load).getVoteExpiresAt());
+        assertEquals(1, store.getHits());
+        assertEquals(2, store.getMisses());
+    }
+
+    @Test
+    void jitterShortensTtl() {
+        UserSettingsStore store = store(1000, 0.5, 1);
+        for (long i = 0; i < 500; i++) store.get(i, this::load);
+        seconds = 499;
+        for (long i = 0; i < 500; i++) assertNotNull(store.getIfPresent(i));
+        seconds = 1000;
+        for (long i = 0; i < 500; i++) assertNull(store.getIfPresent(i));
+    }
+
+    @Test
+    void refreshAheadServesStoredSettings() {
+        UserSettingsStore store = store(100, 0, 0.5);
+        store.get(1, this::load);
+        seconds = 600;
+        assertEquals(11, store.get(1, this::load).getVoteExpiresAt());
+        assertEquals(11, store.get(1, this::load).getVoteExpiresAt());
+        // Only the first read after the refresh point starts a reload
+        assertEquals(1, refreshes.size());
+        refreshes.get(0).run();
+        assertEquals(12, store.get(1, this::load).getVoteExpiresAt());
+        assertEquals(1, store.getRefreshes());
+        seconds = 1500;
+        assertNotNull(store.getIfPresent(1));
+    }
+
+    @Test
+    void refreshLosesAgainstInvalidate() {
+        UserSettingsStore store = store(100, 0, 0.5);
+        store.get(1, this::load);
+        seconds = 600;
+        store.get(1, this::load);
+        store.invalidate(1);
+        refreshes.get(0).run();
+        assertNull(store.getIfPresent(1));
+    }
+
+    @Test
+    void deleteKeepsProbeSequences() {
+        UserSettingsStore store = store(1000000, 0, 1);
+        for (long i = 0; i < 20000; i++) store.put(i * 31, new UserSettings("en_US", i));
+        for (long i = 0; i < 20000; i += 2) store.invalidate(i * 31);
+        for (long i = 0; i < 20000; i++) {
+            if (i % 2 == 0) assertNull(store.getIfPresent(i * 31));
+            else assertEquals(i, store.getIfPresent(i * 31).getVoteExpiresAt());
+        }
+        assertEquals(10000, store.size());
+    }
+
+    @Test
+    void evictsUnreadEntriesOverCapacity() {
+        UserSettingsStore store = store(64 * 100, 0, 1);
+        for (long i = 0; i < 100000; i++) store.put(i, new UserSettings("en_US", i));
+        assertTrue(store.size() <= 64 * 100);
+        assertTrue(store.getEvictions() >= 100000 - 64 * 100);
+        // A user that is read between the sweeps of its segment survives them
+        store.put(7, new UserSettings("en_US", 7));
+        for (long i = 100000; i < 200000; i++) {
+            store.put(i, new UserSettings("en_US", i));
+            store.get(7, this::load);
+        }
+        assertEquals(7, store.getIfPresent(7).getVoteExpiresAt());
+    }
+}
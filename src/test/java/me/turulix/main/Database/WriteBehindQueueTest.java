@@ -0,0 +1,133 @@
+package me.turulix.main.Database;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.UpdateOneModel;
+import me.turulix.main.Listeners.TestFailListener;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TestFailListener.class)
+class WriteBehindQueueTest {
+    private final List<String> writes = Collections.synchronizedList(new ArrayList<>());
+    private boolean down;
+    private final WriteBehindQueue queue = new WriteBehindQueue(this::collection, 3, 3600000);
+
+    @SuppressWarnings("unchecked")
+    private MongoCollection<Document> collection(String name) {
+        return (MongoCollection<Document>) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{MongoCollection.class}, (proxy, method, args) -> {
+            if (!method.getName().equals("bulkWrite")) throw new UnsupportedOperationException(method.getName());
+            if (down) throw new MongoException("Timed out");
+            assertTrue(((List<?>) args[0]).size() <= 3);
+            StringBuilder batch = new StringBuilder(name);
+            for (Object request : (List<?>) args[0]) {
+                UpdateOneModel<?> model = (UpdateOneModel<?>) request;
+                assertTrue(model.getOptions().isUpsert());
+                batch.append(' ').append(model.getFilter().toBsonDocument(Document.class, MongoClientSettings.getDefaultCodecRegistry()).getInt64("_id").getValue()).append(((Document) model.getUpdate()).toJson());
+            }
+            writes.add(batch.toString());
+            return null;
+        });
+    }
+
+    @AfterEach
+    void close() {
+        queue.close();
+    }
+
+    @Test
+    void coalescesPerDocument() {
+        queue.set("GuildSettings", 1L, "prefix", "!");
+        queue.set("GuildSettings", 1L, "prefix", "?");
+        queue.set("GuildSettings", 1L, "language", "de_DE");
+        queue.set("UserDatabase", 1L, "voteDate", 5L);
+        assertEquals(2, queue.getQueueDepth());
+        queue.flush();
+        assertEquals(List.of(
+                "GuildSettings 1{\"$set\": {\"prefix\": \"?\", \"language\": \"de_DE\"}}",
+                "UserDatabase 1{\"$set\": {\"voteDate\": {\"$numberLong\": \"5\"}}}"), writes);
+        assertEquals(0, queue.getQueueDepth());
+        assertEquals(2, queue.getWritten());
+        assertEquals(1, queue.getFlushLatency().getCount());
+    }
+
+    @Test
+    void pendingFieldsUntilWritten() {
+        queue.set("UserDatabase", 1L, "voteDate", 5L);
+        assertEquals(new Document("voteDate", 5L), queue.getPending("UserDatabase", 1L));
+        assertNull(queue.getPending("UserDatabase", 2L));
+        assertNull(queue.getPending("GuildSettings", 1L));
+        down = true;
+        queue.flush();
+        queue.set("UserDatabase", 1L, "language", "de_DE");
+        assertEquals(new Document("voteDate", 5L).append("language", "de_DE"), queue.getPending("UserDatabase", 1L));
+        down = false;
+        queue.flush();
+        assertNull(queue.getPending("UserDatabase", 1L));
+    }
+
+    @Test
+    void splitsIntoBatches() {
+        // Reaching the batch size already flushes in the background
+        for (long id = 0; id < 7; id++) queue.set("GuildSettings", id, "prefix", "!");
+        queue.flush();
+        assertTrue(writes.size() >= 3);
+        assertEquals(7, queue.getWritten());
+    }
+
+    @Test
+    void requeuesWithoutOverwritingNewerValues() {
+        queue.set("GuildSettings", 1L, "prefix", "!");
+        queue.set("GuildSettings", 1L, "language", "de_DE");
+        down = true;
+        queue.flush();
+        assertEquals(1, queue.getRetried());
+        assertEquals(1, queue.getQueueDepth());
+        queue.set("GuildSettings", 1L, "prefix", "?");
+        down = false;
+        queue.close();
+        assertEquals(List.of("GuildSettings 1{\"$set\": {\"prefix\": \"?\", \"language\": \"de_DE\"}}"), writes);
+        assertEquals(0, queue.getQueueDepth());
+    }
+
+    @Test
+    void dropsNewDocumentsOverTheCap() {
+        WriteBehindQueue capped = new WriteBehindQueue(this::collection, 10, 3600000, 2);
+        capped.set("GuildSettings", 1L, "prefix", "!");
+        capped.set("GuildSettings", 2L, "prefix", "!");
+        capped.set("GuildSettings", 3L, "prefix", "!");
+        // Pending documents still take updates
+        capped.set("GuildSettings", 1L, "language", "de_DE");
+        assertEquals(2, capped.getQueueDepth());
+        assertEquals(1, capped.getOverflowed());
+        assertNull(capped.getPending("GuildSettings", 3L));
+        assertEquals(new Document("prefix", "!").append("language", "de_DE"), capped.getPending("GuildSettings", 1L));
+        capped.close();
+    }
+
+    @Test
+    void backsOffWhileTheDatabaseFails() {
+        WriteBehindQueue slow = new WriteBehindQueue(this::collection, 3, 100);
+        slow.set("GuildSettings", 1L, "prefix", "!");
+        down = true;
+        slow.flush();
+        assertEquals(100, slow.getBackoffMillis());
+        slow.flush();
+        assertEquals(200, slow.getBackoffMillis());
+        down = false;
+        slow.flush();
+        assertEquals(0, slow.getBackoffMillis());
+        assertEquals(1, slow.getWritten());
+        slow.close();
+    }
+}
@@ -0,0 +1,208 @@
+package me.turulix.main;
+
+import net.dv8tion.jda.core.JDA;
+import net.dv8tion.jda.core.entities.*;
+import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.core.utils.cache.MemberCacheView;
+import net.dv8tion.jda.core.utils.cache.SnowflakeCacheView;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A single guild with one text channel and a set of members, built from proxies so no gateway connection is needed.
+ * <p>
+ * Only what the command dispatch and the finder utils actually read is answered, everything else returns null, 0 or
+ * false. Messages created with {@link #message(User, String)} can be fed straight into a {@link
+ * net.dv8tion.jda.core.hooks.EventListener}.
+ *
+ * @author Turulix
+ * @project NotDankMemer
+ * @since 17.10.2026 17:30
+ */
+public class FakeDiscord {
+    private static final Pattern MENTION = Pattern.compile("<@!?(\\d+)>");
+    public final JDA jda;
+    public final SelfUser selfUser;
+    public final Guild guild;
+    public final TextChannel channel;
+    public final List<User> users = new ArrayList<>();
+    public final List<Member> members = new ArrayList<>();
+    private final Map<Long, User> usersById = new HashMap<>();
+    private final Map<Long, Member> membersById = new HashMap<>();
+    private final Map<String, Object> channelAnswers = new HashMap<>();
+    private final AtomicLong messageIds = new AtomicLong(500000000000000000L);
+    private final AtomicLong responses = new AtomicLong();
+
+    /**
+     * @param memberCount How many members besides the bot the guild has, named user0 to user[n-1]
+     */
+    public FakeDiscord(int memberCount) {
+        this(memberCount, 497769262749057026L, 502782188908052490L);
+    }
+
+    /**
+     * @param memberCount How many members besides the bot the guild has, named user0 to user[n-1]
+     * @param guildId     Id of the guild, to have several of them side by side
+     * @param channelId   Id of its text channel
+     */
+    public FakeDiscord(int memberCount, long guildId, long channelId) {
+        Map<String, Object> jdaAnswers = new HashMap<>();
+        Map<String, Object> guildAnswers = new HashMap<>();
+        jda = stub(JDA.class, jdaAnswers);
+        guild = stub(Guild.class, guildAnswers);
+        channel = stub(TextChannel.class, channelAnswers);
+
+        Map<String, Object> selfAnswers = snowflake(277608782123630593L);
+        selfAnswers.put("getName", "NotDankMemer");
+        selfAnswers.put("getDiscriminator", "0001");
+        selfAnswers.put("isBot", true);
+        selfAnswers.put("getJDA", jda);
+        selfUser = stub(SelfUser.class, selfAnswers);
+        Member selfMember = member(selfUser);
+
+        for (int i = 0; i < memberCount; i++) {
+            Map<String, Object> answers = snowflake(100000000000000000L + i);
+            answers.put("getName", "user" + i);
+            answers.put("getDiscriminator", String.format("%04d", i % 10000));
+            answers.put("getJDA", jda);
+            answers.put("getAvatarUrl", "https://cdn.discordapp.com/embed/avatars/" + (i % 5) + ".png");
+            User user = stub(User.class, answers);
+            answers.put("getAsMention", "<@" + user.getIdLong() + ">");
+            users.add(user);
+            usersById.put(user.getIdLong(), user);
+            Member member = member(user);
+            members.add(member);
+            membersById.put(user.getIdLong(), member);
+        }
+
+        jdaAnswers.put("getSelfUser", selfUser);
+        jdaAnswers.put("getUserById", (Answer) args -> usersById.get(toId(args[0])));
+        jdaAnswers.put("getUserCache", cache(SnowflakeCacheView.class, users));
+        jdaAnswers.put("getGuildById", (Answer) args -> toId(args[0]) == guild.getIdLong() ? guild : null);
+        jdaAnswers.put("getStatus", JDA.Status.CONNECTED);
+
+        guildAnswers.putAll(snowflake(guildId));
+        guildAnswers.put("getName", "Offline Guild");
+        guildAnswers.put("getJDA", jda);
+        guildAnswers.put("getSelfMember", selfMember);
+        guildAnswers.put("getOwner", members.isEmpty() ? selfMember : members.get(0));
+        guildAnswers.put("getMemberById", (Answer) args -> membersById.get(toId(args[0])));
+        guildAnswers.put("getMember", (Answer) args -> membersById.get(((User) args[0]).getIdLong()));
+        guildAnswers.put("isMember", (Answer) args -> membersById.containsKey(((User) args[0]).getIdLong()));
+        guildAnswers.put("getMemberCache", cache(MemberCacheView.class, members));
+        guildAnswers.put("getMembers", Collections.unmodifiableList(members));
+        guildAnswers.put("getTextChannels", Collections.singletonList(channel));
+
+        channelAnswers.putAll(snowflake(channelId));
+        channelAnswers.put("getName", "general");
+        channelAnswers.put("getType", ChannelType.TEXT);
+        channelAnswers.put("getGuild", guild);
+        channelAnswers.put("getJDA", jda);
+        channelAnswers.put("canTalk", true);
+    }
+
+    private static long toId(Object id) {
+        return id instanceof Number ? ((Number) id).longValue() : Long.parseUnsignedLong(String.valueOf(id));
+    }
+
+    private static Map<String, Object> snowflake(long id) {
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("getIdLong", id);
+        answers.put("getId", Long.toUnsignedString(id));
+        return answers;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> T stub(Class<T> type, Map<String, Object> answers) {
+        return (T) Proxy.newProxyInstance(FakeDiscord.class.getClassLoader(), new Class[]{type}, (proxy, method, args) -> {
+            Object answer = answers.get(method.getName());
+            if (answer instanceof Answer) return ((Answer) answer).answer(args == null ? new Object[0] : args);
+            if (answer != null) return answer;
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return type.getSimpleName() + ":" + answers.getOrDefault("getId", "?");
+            }
+            Class<?> returnType = method.getReturnType();
+            if (returnType == boolean.class) return false;
+            if (returnType == int.class) return 0;
+            if (returnType == long.class) return 0L;
+            if (returnType == List.class) return Collections.emptyList();
+            return null;
+        });
+    }
+
+    private static <T> T cache(Class<T> type, List<?> values) {
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("stream", (Answer) args -> values.stream());
+        answers.put("iterator", (Answer) args -> values.iterator());
+        answers.put("forEach", (Answer) args -> {
+            values.forEach((Consumer) args[0]);
+            return null;
+        });
+        answers.put("asList", Collections.unmodifiableList(values));
+        answers.put("size", (long) values.size());
+        answers.put("isEmpty", values.isEmpty());
+        return stub(type, answers);
+    }
+
+    private Member member(User user) {
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("getUser", user);
+        answers.put("getEffectiveName", user.getName());
+        answers.put("getGuild", (Answer) args -> guild);
+        answers.put("getJDA", jda);
+        answers.put("hasPermission", true);
+        answers.put("getAsMention", "<@" + user.getIdLong() + ">");
+        return stub(Member.class, answers);
+    }
+
+    /**
+     * Answers a method of the channel, e.g. "sendMessage" to capture replies.
+     */
+    public void answerChannel(String method, Answer answer) {
+        channelAnswers.put(method, answer);
+    }
+
+    /**
+     * @return A new message from the user in the text channel.
+     */
+    public MessageReceivedEvent message(User author, String content) {
+        Map<String, Object> answers = snowflake(messageIds.incrementAndGet());
+        List<User> mentionedUsers = new ArrayList<>();
+        List<Member> mentionedMembers = new ArrayList<>();
+        Matcher matcher = MENTION.matcher(content);
+        while (matcher.find()) {
+            long id = Long.parseLong(matcher.group(1));
+            if (usersById.containsKey(id)) mentionedUsers.add(usersById.get(id));
+            if (membersById.containsKey(id)) mentionedMembers.add(membersById.get(id));
+        }
+        answers.put("getContentRaw", content);
+        answers.put("getContentDisplay", content);
+        answers.put("getContentStripped", content);
+        answers.put("getAuthor", author);
+        answers.put("getMentionedUsers", mentionedUsers);
+        answers.put("getMentionedMembers", mentionedMembers);
+        answers.put("getMember", membersById.get(author.getIdLong()));
+        answers.put("getChannel", channel);
+        answers.put("getTextChannel", channel);
+        answers.put("getGuild", guild);
+        answers.put("getChannelType", ChannelType.TEXT);
+        answers.put("isFromType", (Answer) args -> args[0] == ChannelType.TEXT);
+        answers.put("getJDA", jda);
+        return new MessageReceivedEvent(jda, responses.incrementAndGet(), stub(Message.class, answers));
+    }
+
+    @FunctionalInterface
+    public interface Answer {
+        Object answer(Object[] args) throws Throwable;
+    }
+}
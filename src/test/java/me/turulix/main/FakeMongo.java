@@ -0,0 +1,349 @@
+package me.turulix.main;
+
+import com.mongodb.Block;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.WriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.mongodb.client.*;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.conversions.Bson;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import static me.turulix.main.FakeDiscord.stub;
+
+/**
+ * An in memory stand-in for the synchronous Mongo client, enough for what the {@link me.turulix.main.Database.Database}
+ * managers do with it.
+ * <p>
+ * Documents are stored as plain {@link Document}s, typed collections encode and decode them with the codec registry of
+ * their database like the driver does.
+ * <p>
+ * Filters support plain equality, {@code $in} and {@code $exists}, updates support {@code $set}, {@code $setOnInsert},
+ * {@code $unset}, {@code $rename} and {@code $inc}, upserts included, also as {@code bulkWrite} of update models. Inserting an existing {@code _id} fails with a duplicate key error like the real
+ * server does. Every collection call is counted, see {@link #getOperations()}.
+ *
+ * @author Turulix
+ * @project NotDankMemer
+ * @since 17.10.2026 19:10
+ */
+public class FakeMongo {
+    public final MongoClient client;
+    private final Map<String, Map<String, Documents>> databases = new ConcurrentHashMap<>();
+    private final LongAdder operations = new LongAdder();
+
+    public FakeMongo() {
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("getDatabase", (FakeDiscord.Answer) args -> database((String) args[0], MongoClientSettings.getDefaultCodecRegistry()));
+        answers.put("close", (FakeDiscord.Answer) args -> null);
+        client = stub(MongoClient.class, answers);
+    }
+
+    /**
+     * The documents of a collection, e.g. to seed kills and roasts before a run.
+     */
+    public Documents collection(String database, String name) {
+        return databases.computeIfAbsent(database, key -> new ConcurrentHashMap<>()).computeIfAbsent(name, key -> new Documents());
+    }
+
+    public long getOperations() {
+        return operations.sum();
+    }
+
+    private MongoDatabase database(String name, CodecRegistry registry) {
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("getName", name);
+        answers.put("getCodecRegistry", registry);
+        answers.put("withCodecRegistry", (FakeDiscord.Answer) args -> database(name, (CodecRegistry) args[0]));
+        answers.put("getCollection", (FakeDiscord.Answer) args -> collection(name, (String) args[0]).handle(args.length > 1 ? (Class<?>) args[1] : Document.class, registry));
+        return stub(MongoDatabase.class, answers);
+    }
+
+    /**
+     * Stored documents are plain {@link Document}s, typed handles go through the codecs like the real driver does.
+     */
+    private static Object decode(Document document, Class<?> type, CodecRegistry registry) {
+        if (type == Document.class) return document;
+        BsonDocument bson = document.toBsonDocument(Document.class, registry);
+        return registry.get(type).decode(new BsonDocumentReader(bson), DecoderContext.builder().build());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Document encode(Object value, CodecRegistry registry) {
+        if (value instanceof Document) return (Document) value;
+        BsonDocument bson = new BsonDocument();
+        ((Codec<Object>) registry.get(value.getClass())).encode(new BsonDocumentWriter(bson), value, EncoderContext.builder().build());
+        return new DocumentCodec().decode(new BsonDocumentReader(bson), DecoderContext.builder().build());
+    }
+
+    private static Document toDocument(Bson bson) {
+        if (bson == null) return new Document();
+        if (bson instanceof Document) return (Document) bson;
+        BsonDocument document = bson.toBsonDocument(Document.class, MongoClientSettings.getDefaultCodecRegistry());
+        return new DocumentCodec().decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+    }
+
+    /**
+     * The filter of a find or count call, all of their overloads may leave it out.
+     */
+    private static Document filterOf(Object[] args) {
+        return args.length == 0 || !(args[0] instanceof Bson) ? new Document() : toDocument((Bson) args[0]);
+    }
+
+    private static boolean matches(Document document, Document filter) {
+        for (Map.Entry<String, Object> entry : filter.entrySet()) {
+            Object actual = document.get(entry.getKey());
+            Object expected = entry.getValue();
+            if (expected instanceof Document && ((Document) expected).keySet().stream().allMatch(key -> key.startsWith("$"))) {
+                for (Map.Entry<String, Object> operator : ((Document) expected).entrySet()) {
+                    switch (operator.getKey()) {
+                        case "$in":
+                            if (((List<?>) operator.getValue()).stream().noneMatch(value -> same(actual, value)))
+                                return false;
+                            break;
+                        case "$exists":
+                            if (document.containsKey(entry.getKey()) != (Boolean) operator.getValue()) return false;
+                            break;
+                        case "$eq":
+                            if (!same(actual, operator.getValue())) return false;
+                            break;
+                        default:
+                            throw new UnsupportedOperationException("Filter operator " + operator.getKey());
+                    }
+                }
+            } else if (!same(actual, expected)) return false;
+        }
+        return true;
+    }
+
+    private static boolean same(Object actual, Object expected) {
+        if (actual instanceof Number && expected instanceof Number)
+            return ((Number) actual).doubleValue() == ((Number) expected).doubleValue();
+        return Objects.equals(actual, expected);
+    }
+
+    private static void apply(Document document, Document update, boolean inserted) {
+        for (Map.Entry<String, Object> operator : update.entrySet()) {
+            Document fields = (Document) operator.getValue();
+            switch (operator.getKey()) {
+                case "$set":
+                    document.putAll(fields);
+                    break;
+                case "$setOnInsert":
+                    if (inserted) document.putAll(fields);
+                    break;
+                case "$unset":
+                    fields.keySet().forEach(document::remove);
+                    break;
+                case "$rename":
+                    fields.forEach((from, to) -> {
+                        if (document.containsKey(from)) document.put((String) to, document.remove(from));
+                    });
+                    break;
+                case "$inc":
+                    fields.forEach((key, value) -> {
+                        Number current = (Number) document.getOrDefault(key, 0);
+                        Number by = (Number) value;
+                        if (current instanceof Double || by instanceof Double)
+                            document.put(key, current.doubleValue() + by.doubleValue());
+                        else if (current instanceof Long || by instanceof Long)
+                            document.put(key, current.longValue() + by.longValue());
+                        else document.put(key, current.intValue() + by.intValue());
+                    });
+                    break;
+                default:
+                    throw new UnsupportedOperationException("Update operator " + operator.getKey());
+            }
+        }
+    }
+
+    /**
+     * Documents keyed by their {@code _id}, reads hand out copies so callers can't change the stored ones.
+     */
+    public class Documents {
+        private final Map<Object, Document> documents = new LinkedHashMap<>();
+
+        /**
+         * A collection handle reading and writing the type with the codecs of the registry.
+         */
+        MongoCollection<?> handle(Class<?> type, CodecRegistry registry) {
+            Map<String, Object> answers = new HashMap<>();
+            answers.put("getDocumentClass", type);
+            answers.put("getCodecRegistry", registry);
+            answers.put("withCodecRegistry", (FakeDiscord.Answer) args -> handle(type, (CodecRegistry) args[0]));
+            answers.put("withDocumentClass", (FakeDiscord.Answer) args -> handle((Class<?>) args[0], registry));
+            answers.put("find", (FakeDiscord.Answer) args -> iterable(filterOf(args), args.length > 0 && args[args.length - 1] instanceof Class ? (Class<?>) args[args.length - 1] : type, registry));
+            answers.put("insertOne", (FakeDiscord.Answer) args -> {
+                insert(encode(args[0], registry));
+                return null;
+            });
+            answers.put("insertMany", (FakeDiscord.Answer) args -> {
+                ((List<?>) args[0]).forEach(document -> insert(encode(document, registry)));
+                return null;
+            });
+            answers.put("bulkWrite", (FakeDiscord.Answer) args -> {
+                int matched = 0, modified = 0;
+                List<BulkWriteUpsert> upserts = new ArrayList<>();
+                List<?> requests = (List<?>) args[0];
+                for (int i = 0; i < requests.size(); i++) {
+                    if (!(requests.get(i) instanceof UpdateOneModel))
+                        throw new UnsupportedOperationException("Bulk write " + requests.get(i).getClass().getSimpleName());
+                    UpdateOneModel<?> model = (UpdateOneModel<?>) requests.get(i);
+                    UpdateResult result = update(toDocument(model.getFilter()), toDocument(model.getUpdate()), 1, model.getOptions().isUpsert());
+                    matched += result.getMatchedCount();
+                    modified += result.getModifiedCount();
+                    if (result.getUpsertedId() != null) upserts.add(new BulkWriteUpsert(i, result.getUpsertedId()));
+                }
+                return BulkWriteResult.acknowledged(0, matched, 0, modified, upserts);
+            });
+            answers.put("deleteOne", (FakeDiscord.Answer) args -> DeleteResult.acknowledged(delete(toDocument((Bson) args[0]), 1)));
+            answers.put("deleteMany", (FakeDiscord.Answer) args -> DeleteResult.acknowledged(delete(toDocument((Bson) args[0]), Integer.MAX_VALUE)));
+            answers.put("updateOne", (FakeDiscord.Answer) args -> update(toDocument((Bson) args[0]), toDocument((Bson) args[1]), 1, args.length > 2 && ((UpdateOptions) args[2]).isUpsert()));
+            answers.put("updateMany", (FakeDiscord.Answer) args -> update(toDocument((Bson) args[0]), toDocument((Bson) args[1]), Integer.MAX_VALUE, args.length > 2 && ((UpdateOptions) args[2]).isUpsert()));
+            answers.put("findOneAndUpdate", (FakeDiscord.Answer) args -> {
+                FindOneAndUpdateOptions options = args.length > 2 ? (FindOneAndUpdateOptions) args[2] : new FindOneAndUpdateOptions();
+                Document found = findOneAndUpdate(toDocument((Bson) args[0]), toDocument((Bson) args[1]), options.isUpsert(), options.getReturnDocument() == ReturnDocument.AFTER);
+                return found == null ? null : decode(found, type, registry);
+            });
+            answers.put("countDocuments", (FakeDiscord.Answer) args -> (long) find(filterOf(args)).size());
+            answers.put("estimatedDocumentCount", (FakeDiscord.Answer) args -> (long) size());
+            return stub(MongoCollection.class, answers);
+        }
+
+        public synchronized void insert(Document document) {
+            operations.increment();
+            Document copy = new Document(document);
+            if (!copy.containsKey("_id")) copy.put("_id", UUID.randomUUID().toString());
+            if (documents.putIfAbsent(copy.get("_id"), copy) != null)
+                throw new MongoWriteException(new WriteError(11000, "E11000 duplicate key error, _id: " + copy.get("_id"), new BsonDocument()), new ServerAddress());
+        }
+
+        public synchronized int size() {
+            return documents.size();
+        }
+
+        synchronized List<Document> find(Document filter) {
+            operations.increment();
+            List<Document> found = new ArrayList<>();
+            for (Document document : documents.values()) if (matches(document, filter)) found.add(new Document(document));
+            return found;
+        }
+
+        private synchronized long delete(Document filter, int limit) {
+            operations.increment();
+            long deleted = 0;
+            Iterator<Document> iterator = documents.values().iterator();
+            while (iterator.hasNext() && deleted < limit) {
+                if (!matches(iterator.next(), filter)) continue;
+                iterator.remove();
+                deleted++;
+            }
+            return deleted;
+        }
+
+        private synchronized UpdateResult update(Document filter, Document update, int limit, boolean upsert) {
+            operations.increment();
+            long matched = 0;
+            for (Document document : documents.values()) {
+                if (matched >= limit) break;
+                if (!matches(document, filter)) continue;
+                apply(document, update, false);
+                matched++;
+            }
+            if (matched > 0 || !upsert) return UpdateResult.acknowledged(matched, matched, null);
+            Document inserted = upsert(filter, update);
+            return UpdateResult.acknowledged(0, 0L, new BsonString(String.valueOf(inserted.get("_id"))));
+        }
+
+        private synchronized Document findOneAndUpdate(Document filter, Document update, boolean upsert, boolean returnAfter) {
+            operations.increment();
+            for (Document document : documents.values()) {
+                if (!matches(document, filter)) continue;
+                Document before = new Document(document);
+                apply(document, update, false);
+                return returnAfter ? new Document(document) : before;
+            }
+            if (!upsert) return null;
+            Document inserted = upsert(filter, update);
+            return returnAfter ? new Document(inserted) : null;
+        }
+
+        /**
+         * Inserts the equality fields of the filter with the update applied, like the server does for upserts.
+         */
+        private Document upsert(Document filter, Document update) {
+            Document document = new Document();
+            filter.forEach((key, value) -> {
+                if (!(value instanceof Document) || !((Document) value).keySet().stream().allMatch(name -> name.startsWith("$")))
+                    document.put(key, value);
+            });
+            apply(document, update, true);
+            if (!document.containsKey("_id")) document.put("_id", UUID.randomUUID().toString());
+            documents.put(document.get("_id"), document);
+            return document;
+        }
+
+        private List<Object> find(Document filter, Class<?> type, CodecRegistry registry) {
+            List<Object> found = new ArrayList<>();
+            for (Document document : find(filter)) found.add(decode(document, type, registry));
+            return found;
+        }
+
+        private FindIterable<?> iterable(Document filter, Class<?> type, CodecRegistry registry) {
+            Map<String, Object> answers = new HashMap<>();
+            answers.put("first", (FakeDiscord.Answer) args -> {
+                List<Object> found = find(filter, type, registry);
+                return found.isEmpty() ? null : found.get(0);
+            });
+            answers.put("forEach", (FakeDiscord.Answer) args -> {
+                for (Object document : find(filter, type, registry)) {
+                    if (args[0] instanceof Block) ((Block<Object>) args[0]).apply(document);
+                    else ((Consumer<Object>) args[0]).accept(document);
+                }
+                return null;
+            });
+            answers.put("into", (FakeDiscord.Answer) args -> {
+                ((java.util.Collection<Object>) args[0]).addAll(find(filter, type, registry));
+                return args[0];
+            });
+            answers.put("iterator", (FakeDiscord.Answer) args -> cursor(find(filter, type, registry).iterator()));
+            answers.put("cursor", (FakeDiscord.Answer) args -> cursor(find(filter, type, registry).iterator()));
+            answers.put("filter", (FakeDiscord.Answer) args -> iterable(toDocument((Bson) args[0]), type, registry));
+            FindIterable<?>[] self = new FindIterable[1];
+            for (String ignored : new String[]{"projection", "sort", "limit", "skip", "batchSize", "noCursorTimeout"})
+                answers.put(ignored, (FakeDiscord.Answer) args -> self[0]);
+            self[0] = stub(FindIterable.class, answers);
+            return self[0];
+        }
+
+        private MongoCursor<?> cursor(Iterator<?> iterator) {
+            Map<String, Object> answers = new HashMap<>();
+            answers.put("hasNext", (FakeDiscord.Answer) args -> iterator.hasNext());
+            answers.put("next", (FakeDiscord.Answer) args -> iterator.next());
+            answers.put("tryNext", (FakeDiscord.Answer) args -> iterator.hasNext() ? iterator.next() : null);
+            answers.put("close", (FakeDiscord.Answer) args -> null);
+            return stub(MongoCursor.class, answers);
+        }
+    }
+}
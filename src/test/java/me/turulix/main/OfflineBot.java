@@ -0,0 +1,26 @@
+package me.turulix.main;
+
+import com.mongodb.client.MongoClient;
+import me.turulix.main.Database.Database;
+import me.turulix.main.Files.Config;
+import me.turulix.main.Files.TomlManager;
+
+/**
+ * Sets up {@link DiscordBot#instance} without a gateway connection or config file, for benchmarks and harnesses.
+ *
+ * @author Turulix
+ * @project NotDankMemer
+ * @since 17.10.2026 17:45
+ */
+public class OfflineBot {
+    /**
+     * @param mongoClient The client the {@link Database} managers use, may be null if nothing gets loaded from it.
+     */
+    public static DiscordBot start(MongoClient mongoClient) {
+        Config config = new Config();
+        config.sql.SQLLocation = "localhost/NotDankMemer";
+        DiscordBot bot = new DiscordBot(new RegisterStuff(), new TomlManager(config));
+        bot.registerStuff.database = new Database(mongoClient);
+        return bot;
+    }
+}
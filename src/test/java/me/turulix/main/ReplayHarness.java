@@ -0,0 +1,461 @@
+package me.turulix.main;
+
+import com.jagrosh.jdautilities.command.Command;
+import com.jagrosh.jdautilities.command.CommandClientBuilder;
+import com.jagrosh.jdautilities.command.CommandEvent;
+import com.jagrosh.jdautilities.command.CommandListener;
+import com.jagrosh.jdautilities.command.impl.AdmissionLimiter;
+import com.jagrosh.jdautilities.command.impl.CommandClientImpl;
+import com.jagrosh.jdautilities.command.impl.CommandExecutionEngine;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import me.turulix.main.UtilClasses.Http;
+import me.turulix.main.UtilClasses.SubClasses.LatencyHistogram;
+import net.dv8tion.jda.core.JDA;
+import net.dv8tion.jda.core.entities.Message;
+import net.dv8tion.jda.core.entities.MessageChannel;
+import net.dv8tion.jda.core.entities.User;
+import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.core.requests.restaction.MessageAction;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import org.bson.Document;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Replays a corpus of messages through {@link CommandClientImpl} and every registered command, without a gateway
+ * connection, and reports sustained throughput, latency percentiles and heap growth.
+ * <p>
+ * Discord is replaced by {@link FakeDiscord} guilds, Mongo by {@link FakeMongo} and every API that goes through {@link
+ * me.turulix.main.UtilClasses.Utils} (image server included) by a local HTTP stand-in with canned answers and an optional
+ * delay. Replies are counted instead of sent.
+ * <p>
+ * A message counts as done when the command client is done with it: right away for chat and throttled messages,
+ * otherwise when its command finished on the execution engine. Latency covers the time queued on the engine.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.mainClass=me.turulix.main.ReplayHarness -Dexec.classpathScope=test
+ * -Dexec.args="--concurrency=32"}. Options, all optional:
+ * <pre>
+ * --messages=50000       measured messages
+ * --warmup=5000          messages replayed before measuring
+ * --concurrency=16       messages in flight at once
+ * --guilds=64            guilds the messages are spread over, commands of a guild run one at a time
+ * --members=200          members per guild
+ * --corpus=file          one message per line, "content" or "member index TAB content", {mention} is replaced
+ *                        by a random member; without a corpus messages are generated from the registered commands
+ * --command-ratio=0.3    share of generated messages that are commands
+ * --lane-threads=n       threads of every engine lane, the lane defaults if missing
+ * --http-delay-ms=0      delay of every stand-in API answer
+ * --image-bytes=65536    size of the stand-in images
+ * --limited              use the admission limits the config suggests, off by default as replayed users send far too fast
+ * </pre>
+ *
+ * @author Turulix
+ * @project NotDankMemer
+ * @since 17.10.2026 19:30
+ */
+public class ReplayHarness {
+    private static final String PREFIX = "+";
+    private static final ThreadLocal<Ticket> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, String> options;
+    private final List<FakeDiscord> guilds = new ArrayList<>();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder replies = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder httpRequests = new LongAdder();
+    private final Map<String, LongAdder> exceptions = new ConcurrentHashMap<>();
+    private final AtomicLong peakHeap = new AtomicLong();
+    private volatile boolean measuring;
+    private FakeMongo mongo;
+    private HttpServer server;
+    private CommandClientImpl client;
+
+    private ReplayHarness(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) throw new IllegalArgumentException("Unknown argument: " + arg);
+            int split = arg.indexOf('=');
+            options.put(split < 0 ? arg.substring(2) : arg.substring(2, split), split < 0 ? "true" : arg.substring(split + 1));
+        }
+        ReplayHarness harness = new ReplayHarness(options);
+        try {
+            harness.start();
+            harness.run();
+        } finally {
+            harness.stop();
+        }
+    }
+
+    private int intOption(String name, int fallback) {
+        return options.containsKey(name) ? Integer.parseInt(options.get(name)) : fallback;
+    }
+
+    private void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::answer);
+        server.setExecutor(Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "StandIn-Http");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+        // Every outgoing request goes to the stand-ins, the original host becomes the first path segment
+        String standIn = "http://127.0.0.1:" + server.getAddress().getPort();
+        Http.useClient(new OkHttpClient.Builder().addInterceptor(chain -> {
+            HttpUrl url = chain.request().url();
+            String query = url.encodedQuery();
+            return chain.proceed(chain.request().newBuilder().url(standIn + "/" + url.host() + url.encodedPath() + (query == null ? "" : "?" + query)).build());
+        }).build());
+
+        mongo = new FakeMongo();
+        seed();
+        DiscordBot bot = OfflineBot.start(mongo.client);
+        bot.tomlManager.getToml().testMode = true;
+
+        Map<CommandExecutionEngine.Lane, Integer> threads = new EnumMap<>(CommandExecutionEngine.Lane.class);
+        if (options.containsKey("lane-threads"))
+            for (CommandExecutionEngine.Lane lane : CommandExecutionEngine.Lane.values())
+                threads.put(lane, Integer.parseInt(options.get("lane-threads")));
+
+        CommandClientBuilder builder = new CommandClientBuilder();
+        builder.setOwnerId("262702226693160970");
+        builder.setPrefix(PREFIX);
+        builder.setEmojis("✅", "⚠", "⛔");
+        builder.setLinkedCacheSize(0);
+        builder.setGuildSettingsManager(bot.registerStuff.database.guildSettingsDataManager);
+        builder.setScheduleExecutor(Executors.newSingleThreadScheduledExecutor());
+        builder.setExecutionEngine(new TimedEngine(threads));
+        builder.setListener(new CountingListener());
+        // The limits the config suggests
+        if (options.containsKey("limited"))
+            builder.setAdmissionLimiter(new AdmissionLimiter(new AdmissionLimiter.Limit(5, 0.5), new AdmissionLimiter.Limit(30, 5), new AdmissionLimiter.Limit(250, 50)));
+        bot.registerStuff.addCommands(builder);
+        client = (CommandClientImpl) builder.build();
+        bot.registerStuff.commandClient = client;
+
+        int members = intOption("members", 200);
+        for (int i = 0; i < intOption("guilds", 64); i++) {
+            FakeDiscord discord = new FakeDiscord(members, 400000000000000000L + i, 450000000000000000L + i);
+            discord.answerChannel("sendMessage", args -> reply(discord.channel));
+            discord.answerChannel("sendFile", args -> {
+                if (args[0] instanceof InputStream) drain((InputStream) args[0]);
+                return reply(discord.channel);
+            });
+            discord.answerChannel("sendTyping", args -> reply(discord.channel));
+            guilds.add(discord);
+        }
+    }
+
+    /**
+     * The lists the kill, roast and random commands pick from.
+     */
+    private void seed() {
+        String database = "NotDankMemer";
+        for (int i = 0; i < 50; i++) {
+            mongo.collection(database, "KillList").insert(new Document("_id", i).append("msg", "$author killed $mention with meme number " + i));
+            mongo.collection(database, "RoastList").insert(new Document("_id", i).append("msg", "$author, roast number " + i + " is about you"));
+            mongo.collection(database, "RandomList").insert(new Document("_id", UUID.randomUUID().toString()).append("msg", "random number " + i).append("creatorTag", "user0#0000").append("userID", 100000000000000000L));
+        }
+    }
+
+    private MessageAction reply(MessageChannel channel) {
+        replies.increment();
+        return new CountedAction(channel);
+    }
+
+    private static void drain(InputStream stream) throws IOException {
+        try (InputStream in = stream) {
+            byte[] buffer = new byte[8192];
+            while (in.read(buffer) != -1) ;
+        }
+    }
+
+    private void answer(HttpExchange exchange) throws IOException {
+        httpRequests.increment();
+        drain(exchange.getRequestBody());
+        int delay = intOption("http-delay-ms", 0);
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        String path = exchange.getRequestURI().getPath();
+        String host = path.length() > 1 ? path.substring(1).split("/")[0] : "";
+        byte[] body;
+        String type = "application/json";
+        switch (host) {
+            case "turulix.de":
+                body = new byte[intOption("image-bytes", 65536)];
+                type = "image/png";
+                break;
+            case "api.icndb.com":
+                body = json("{\"type\":\"success\",\"value\":{\"id\":1,\"joke\":\"Chuck Norris replays messages offline.\"}}");
+                break;
+            case "aws.random.cat":
+                body = json("{\"file\":\"https://purr.objects-us-east-1.dream.io/i/offline.jpg\"}");
+                break;
+            case "nekos.life":
+                body = json("{\"url\":\"https://cdn.nekos.life/lewd/offline.jpg\"}");
+                break;
+            case "api.whatdoestrumpthink.com":
+                body = json("{\"messages\":{\"non_personalized\":[\"Nobody replays messages better than me.\"]}}");
+                break;
+            case "api.urbandictionary.com":
+                body = json("{\"list\":[{\"word\":\"offline\",\"permalink\":\"https://urbandictionary.com\",\"definition\":\"not online\",\"example\":\"the bot is offline\",\"thumbs_up\":1,\"thumbs_down\":0}]}");
+                break;
+            case "r34-json-api.herokuapp.com":
+                body = json("[{\"file_url\":\"https://rule34.xxx/offline.jpg\"}]");
+                break;
+            case "www.googleapis.com":
+                body = json("{\"items\":[{\"statistics\":{\"viewCount\":\"1\",\"likeCount\":\"1\",\"dislikeCount\":\"0\",\"commentCount\":\"0\"}}]}");
+                break;
+            default:
+                body = json("{}");
+        }
+        exchange.getResponseHeaders().set("Content-Type", type);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] json(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private List<String[]> corpus(int size) throws IOException {
+        List<String[]> corpus = new ArrayList<>();
+        Random random = new Random(42);
+        int members = intOption("members", 200);
+        if (options.containsKey("corpus")) {
+            List<String> lines = Files.readAllLines(Paths.get(options.get("corpus")), StandardCharsets.UTF_8);
+            lines.removeIf(String::isEmpty);
+            for (int i = 0; i < size; i++) {
+                String line = lines.get(i % lines.size());
+                int tab = line.indexOf('\t');
+                corpus.add(new String[]{tab < 0 ? String.valueOf(random.nextInt(members)) : line.substring(0, tab), tab < 0 ? line : line.substring(tab + 1)});
+            }
+            return corpus;
+        }
+        List<Command> commands = new ArrayList<>();
+        for (Command command : client.getCommands()) {
+            if (command.isOwnerCommand() || CommandExecutionEngine.laneFor(command) == CommandExecutionEngine.Lane.MUSIC)
+                continue;
+            commands.add(command);
+        }
+        double ratio = options.containsKey("command-ratio") ? Double.parseDouble(options.get("command-ratio")) : 0.3;
+        for (int i = 0; i < size; i++) {
+            String content;
+            if (random.nextDouble() < ratio) {
+                Command command = commands.get(random.nextInt(commands.size()));
+                String arguments = command.getArguments() == null ? "" : command.getArguments();
+                StringBuilder message = new StringBuilder(PREFIX).append(command.getName());
+                for (String argument : arguments.split(",")) {
+                    if (argument.trim().isEmpty()) continue;
+                    message.append(' ').append(argument.contains("@") ? "{mention}" : "dank memes");
+                }
+                content = message.toString();
+            } else {
+                content = "just talking about memes, nothing to see here " + i;
+            }
+            corpus.add(new String[]{String.valueOf(random.nextInt(members)), content});
+        }
+        return corpus;
+    }
+
+    private MessageReceivedEvent event(String[] line, Random random) {
+        FakeDiscord discord = guilds.get(random.nextInt(guilds.size()));
+        User author = discord.users.get(Integer.parseInt(line[0]) % discord.users.size());
+        String content = line[1];
+        while (content.contains("{mention}"))
+            content = content.replaceFirst("\\{mention}", discord.users.get(random.nextInt(discord.users.size())).getAsMention());
+        return discord.message(author, content);
+    }
+
+    private void run() throws Exception {
+        int warmup = intOption("warmup", 5000);
+        int messages = intOption("messages", 50000);
+        int concurrency = intOption("concurrency", 16);
+        List<String[]> corpus = corpus(warmup + messages);
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max), 0, 50, TimeUnit.MILLISECONDS);
+
+        replay(corpus.subList(0, warmup), concurrency);
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        peakHeap.set(heapBefore);
+        replies.reset();
+        rejected.reset();
+        timeouts.reset();
+        httpRequests.reset();
+        exceptions.clear();
+        long mongoBefore = mongo.getOperations();
+
+        measuring = true;
+        long started = System.nanoTime();
+        replay(corpus.subList(warmup, corpus.size()), concurrency);
+        long elapsed = System.nanoTime() - started;
+        measuring = false;
+
+        sampler.shutdownNow();
+        long peak = peakHeap.get();
+        System.gc();
+        long heapAfter = memory.getHeapMemoryUsage().getUsed();
+
+        double seconds = elapsed / 1e9;
+        StringBuilder report = new StringBuilder("\n");
+        report.append(String.format("Replayed %d messages over %d guilds in %.2fs, concurrency %d%n", messages, guilds.size(), seconds, concurrency));
+        report.append(String.format("Throughput:  %.0f msgs/s%n", messages / seconds));
+        report.append(String.format("Latency:     p50 %dµs, p90 %dµs, p99 %dµs, p99.9 %dµs, mean %dµs%n", latency.getPercentile(0.5), latency.getPercentile(0.9), latency.getPercentile(0.99), latency.getPercentile(0.999), latency.getSum(TimeUnit.MICROSECONDS) / Math.max(1, latency.getCount())));
+        report.append(String.format("Heap:        %.1fMB before, %.1fMB peak, %.1fMB after GC (%+.1fMB retained)%n", heapBefore / 1e6, peak / 1e6, heapAfter / 1e6, (heapAfter - heapBefore) / 1e6));
+        report.append(String.format("Replies:     %d, busy rejections %d, timeouts %d%n", replies.sum(), rejected.sum(), timeouts.sum()));
+        report.append(String.format("Backends:    %d mongo operations, %d http requests%n", mongo.getOperations() - mongoBefore, httpRequests.sum()));
+        if (!exceptions.isEmpty()) {
+            report.append("Exceptions: ");
+            new TreeMap<>(exceptions).forEach((name, count) -> report.append(' ').append(name).append('=').append(count.sum()));
+            report.append('\n');
+        }
+        report.append("Slowest commands by p99 execute time:\n");
+        client.getCommands().stream().filter(command -> client.getMetrics().getExecuteLatency(command) != null).sorted(Comparator.comparingLong((Command command) -> client.getMetrics().getExecuteLatency(command).getPercentile(0.99)).reversed()).limit(10).forEach(command -> {
+            LatencyHistogram histogram = client.getMetrics().getExecuteLatency(command);
+            report.append(String.format("  %-16s %8d runs, p50 %7dµs, p99 %7dµs%n", command.getName(), histogram.getCount(), histogram.getPercentile(0.5), histogram.getPercentile(0.99)));
+        });
+        System.out.print(report);
+    }
+
+    /**
+     * Feeds the messages from {@code concurrency} threads, each waiting for its message to be done before the next.
+     */
+    private void replay(List<String[]> messages, int concurrency) throws InterruptedException {
+        AtomicLong next = new AtomicLong();
+        Thread[] producers = new Thread[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            int seed = i;
+            producers[i] = new Thread(() -> {
+                Random random = new Random(seed);
+                for (long index = next.getAndIncrement(); index < messages.size(); index = next.getAndIncrement()) {
+                    MessageReceivedEvent event = event(messages.get((int) index), random);
+                    Ticket ticket = new Ticket();
+                    CURRENT.set(ticket);
+                    try {
+                        client.onEvent(event);
+                    } catch (RuntimeException e) {
+                        exceptions.computeIfAbsent("dispatch:" + e.getClass().getSimpleName(), key -> new LongAdder()).increment();
+                    } finally {
+                        CURRENT.remove();
+                    }
+                    if (!ticket.submitted) ticket.done();
+                    try {
+                        if (!ticket.latch.await(30, TimeUnit.SECONDS)) timeouts.increment();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }, "Replay-" + i);
+            producers[i].start();
+        }
+        for (Thread producer : producers) producer.join();
+    }
+
+    private void stop() {
+        if (client != null) client.getExecutionEngine().shutdown();
+        if (server != null) server.stop(0);
+    }
+
+    /**
+     * One replayed message, done once the command client is done with it.
+     */
+    private class Ticket {
+        final long started = System.nanoTime();
+        final CountDownLatch latch = new CountDownLatch(1);
+        volatile boolean submitted;
+
+        void done() {
+            if (measuring) latency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            latch.countDown();
+        }
+    }
+
+    /**
+     * Completes the ticket of the replaying thread once the submitted command ran or got rejected.
+     */
+    private class TimedEngine extends CommandExecutionEngine {
+        TimedEngine(Map<Lane, Integer> threads) {
+            super(threads);
+        }
+
+        @Override
+        public void submit(long key, Lane lane, Runnable command, Runnable onRejected) {
+            Ticket ticket = CURRENT.get();
+            if (ticket == null) {
+                super.submit(key, lane, command, onRejected);
+                return;
+            }
+            ticket.submitted = true;
+            super.submit(key, lane, () -> {
+                try {
+                    command.run();
+                } finally {
+                    ticket.done();
+                }
+            }, () -> {
+                rejected.increment();
+                try {
+                    onRejected.run();
+                } finally {
+                    ticket.done();
+                }
+            });
+        }
+    }
+
+    private class CountingListener implements CommandListener {
+        @Override
+        public void onCommandException(CommandEvent event, Command command, Throwable throwable) {
+            exceptions.computeIfAbsent(command.getName() + ":" + throwable.getClass().getSimpleName(), key -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * A message action that counts as sent right away, without a request ever being made.
+     */
+    private static class CountedAction extends MessageAction {
+        CountedAction(MessageChannel channel) {
+            super((JDA) null, null, channel);
+        }
+
+        @Override
+        public void queue(Consumer<? super Message> success, Consumer<? super Throwable> failure) {
+            if (success != null) success.accept(null);
+        }
+
+        @Override
+        public Message complete(boolean shouldQueue) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package me.turulix.main.UtilClasses;
+
+import com.sun.net.httpserver.HttpServer;
+import me.turulix.main.Listeners.TestFailListener;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TestFailListener.class)
+class HttpTest {
+    private HttpServer server;
+    private String base;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            byte[] body = "hello".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(exchange.getRequestURI().getPath().equals("/fail") ? 500 : 200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop(0);
+    }
+
+    @Test
+    void recordsSuccessesAndErrorsPerHost() throws IOException {
+        assertEquals("hello", Http.execute(new Request.Builder().url(base + "/ok").build(), ResponseBody::string));
+        assertThrows(IOException.class, () -> Http.execute(new Request.Builder().url(base + "/fail").build(), ResponseBody::string));
+        Http.Host host = Http.getHosts().stream().filter(candidate -> candidate.getName().equals("127.0.0.1")).findFirst().orElseThrow();
+        assertEquals(1, host.getSuccesses());
+        assertEquals(1, host.getErrors());
+        assertEquals(2, host.getLatency().getCount());
+        assertEquals(0, host.getInFlight());
+    }
+}
@@ -0,0 +1,57 @@
+package me.turulix.main.UtilClasses;
+
+import com.google.gson.stream.JsonReader;
+import me.turulix.main.Listeners.TestFailListener;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TestFailListener.class)
+class JsonStreamsTest {
+    private static JsonReader json(String json) {
+        return new JsonReader(new StringReader(json));
+    }
+
+    @Test
+    void getStringAlongPath() throws IOException {
+        String joke = "{\"type\": \"success\", \"other\": {\"joke\": 1}, \"value\": {\"id\": 42, \"joke\": \"Chuck &quot;counted&quot; to infinity\"}}";
+        assertEquals("Chuck &quot;counted&quot; to infinity", JsonStreams.getString(json(joke), "value", "joke"));
+        assertEquals("42", JsonStreams.getString(json(joke), "value", "id"));
+        assertNull(JsonStreams.getString(json(joke), "value", "missing"));
+        assertNull(JsonStreams.getString(json(joke), "type", "joke"));
+    }
+
+    @Test
+    void fieldsKeepsOnlyScalarsAskedFor() throws IOException {
+        Map<String, String> fields = JsonStreams.fields(json("{\"word\": \"yeet\", \"tags\": [\"a\"], \"thumbs_up\": 7, \"nsfw\": false, \"example\": null}"), "word", "thumbs_up", "nsfw", "example", "tags");
+        assertEquals(Map.of("word", "yeet", "thumbs_up", "7", "nsfw", "false"), fields);
+    }
+
+    @Test
+    void sampleIsUniform() throws IOException {
+        Random random = new Random(34);
+        int[] picked = new int[5];
+        for (int i = 0; i < 50000; i++) {
+            JsonReader reader = json("[{\"file_url\": \"0\"}, {\"file_url\": \"1\", \"tags\": \"x y\"}, {\"file_url\": \"2\"}, {\"file_url\": \"3\"}, {\"file_url\": \"4\"}]");
+            picked[Integer.parseInt(JsonStreams.sample(reader, random, post -> JsonStreams.fields(post, "file_url").get("file_url")))]++;
+        }
+        for (int count : picked) assertEquals(10000, count, 500);
+        assertNull(JsonStreams.sample(json("[]"), random, JsonStreams::scalar));
+    }
+
+    @Test
+    void sampleSkipsElementsWithoutValue() throws IOException {
+        Random random = new Random(34);
+        for (int i = 0; i < 100; i++) {
+            JsonReader reader = json("[{\"file_url\": \"0\"}, {\"tags\": \"x\"}, {\"file_url\": null}]");
+            assertEquals("0", JsonStreams.sample(reader, random, post -> JsonStreams.fields(post, "file_url").get("file_url")));
+        }
+        assertNull(JsonStreams.sample(json("[{\"tags\": \"x\"}]"), random, post -> JsonStreams.fields(post, "file_url").get("file_url")));
+    }
+}
@@ -0,0 +1,31 @@
+package me.turulix.main.UtilClasses.SubClasses;
+
+import me.turulix.main.Listeners.TestFailListener;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TestFailListener.class)
+class AliasTableTest {
+    @Test
+    void picksProportionallyToWeight() {
+        double[] weights = {1, 0, 3, 0.5, 5.5};
+        AliasTable table = new AliasTable(weights);
+        Random random = new Random(42);
+        int[] picked = new int[weights.length];
+        int draws = 200000;
+        for (int i = 0; i < draws; i++) picked[table.next(random)]++;
+        for (int i = 0; i < weights.length; i++) assertEquals(weights[i] / 10, picked[i] / (double) draws, 0.005);
+    }
+
+    @Test
+    void rejectsUnusableWeights() {
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[0]));
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[]{0, 0}));
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[]{1, -1}));
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[]{1, Double.NaN}));
+    }
+}
@@ -0,0 +1,51 @@
+package me.turulix.main.UtilClasses.SubClasses;
+
+import me.turulix.main.Listeners.TestFailListener;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TestFailListener.class)
+class ConcurrentLongMapTest {
+    private ConcurrentLongMap<String> map = new ConcurrentLongMap<>();
+
+    @Test
+    void putAndGet() {
+        assertNull(map.put(264445053596991498L, "+"));
+        assertEquals("+", map.get(264445053596991498L));
+        assertEquals("+", map.put(264445053596991498L, "!"));
+        assertEquals("!", map.get(264445053596991498L));
+        assertNull(map.get(1L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void remove() {
+        map.put(1L, "a");
+        map.put(2L, "b");
+        assertEquals("a", map.remove(1L));
+        assertNull(map.get(1L));
+        assertEquals("b", map.get(2L));
+        assertEquals(1, map.size());
+        assertFalse(map.remove(2L, "c"));
+        assertTrue(map.remove(2L, map.get(2L)));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    void resizeKeepsEntries() {
+        for (long i = 0; i < 10000; i++) map.put(i * 31, Long.toString(i));
+        for (long i = 0; i < 10000; i += 2) map.remove(i * 31);
+        for (long i = 0; i < 10000; i++) {
+            if (i % 2 == 0) assertNull(map.get(i * 31));
+            else assertEquals(Long.toString(i), map.get(i * 31));
+        }
+        assertEquals(5000, map.size());
+        AtomicLong count = new AtomicLong();
+        map.forEach((key, value) -> count.incrementAndGet());
+        assertEquals(5000, count.get());
+    }
+}
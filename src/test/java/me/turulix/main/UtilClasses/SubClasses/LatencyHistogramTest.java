@@ -0,0 +1,33 @@
+package me.turulix.main.UtilClasses.SubClasses;
+
+import me.turulix.main.Listeners.TestFailListener;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TestFailListener.class)
+class LatencyHistogramTest {
+    @Test
+    void bucketsCoverTheirValues() {
+        for (long micros = 0; micros < 1_000_000; micros += 7) {
+            int bucket = LatencyHistogram.bucketFor(micros);
+            assertTrue(LatencyHistogram.upperBound(bucket) >= micros);
+            assertTrue(LatencyHistogram.upperBound(bucket) <= micros + micros / 8 + 1);
+        }
+    }
+
+    @Test
+    void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(0.5));
+        for (int i = 1; i <= 1000; i++) histogram.record(i, TimeUnit.MILLISECONDS);
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500500, histogram.getSum(TimeUnit.MILLISECONDS));
+        assertEquals(500_000, histogram.getPercentile(0.5), 500_000 / 8);
+        assertEquals(990_000, histogram.getPercentile(0.99), 990_000 / 8);
+        assertEquals(1_000_000, histogram.getPercentile(0.999), 1_000_000 / 8);
+    }
+}
@@ -0,0 +1,108 @@
+package me.turulix.main.UtilClasses.SubClasses;
+
+import com.google.gson.stream.JsonReader;
+import me.turulix.main.Listeners.TestFailListener;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TestFailListener.class)
+class MemeStoreTest {
+    private static SubClasses.RedditMeme meme(String id, int thumbsUp) {
+        return new SubClasses.RedditMeme("https://i.redd.it/" + id + ".png", "https://www.reddit.com/r/memes/" + id, 0, thumbsUp, "Meme " + id, id);
+    }
+
+    private static MemeStore.Seen seen(String id, int thumbsUp, long now) {
+        return new MemeStore.Seen(meme(id, thumbsUp), now, now);
+    }
+
+    @Test
+    void mergesByIdIntoNewGenerations() {
+        MemeStore store = new MemeStore();
+        assertNull(store.random(new Random()));
+        assertEquals(-1, store.getGenerationAge());
+        store.merge(List.of(seen("a", 1, 0), seen("b", 1, 0)), 0);
+        List<SubClasses.RedditMeme> first = store.getMemes();
+        store.merge(List.of(seen("b", 5, TimeUnit.HOURS.toMillis(1)), seen("c", 1, TimeUnit.HOURS.toMillis(1))), TimeUnit.HOURS.toMillis(1));
+        assertEquals(2, store.getGeneration());
+        assertEquals(3, store.size());
+        assertEquals(5, store.getMemes().get(1).getThumbsUp());
+        // Readers keep the generation they got
+        assertEquals(2, first.size());
+        assertEquals(1, first.get(1).getThumbsUp());
+    }
+
+    @Test
+    void dropsPostsNotFetchedWithinRetention() {
+        MemeStore store = new MemeStore();
+        store.merge(List.of(seen("a", 1, 0)), 0);
+        store.merge(List.of(seen("b", 1, MemeStore.RETENTION - 1)), MemeStore.RETENTION - 1);
+        assertEquals(2, store.size());
+        store.merge(List.of(seen("b", 1, MemeStore.RETENTION)), MemeStore.RETENTION);
+        assertEquals("b", store.getMemes().get(0).getId());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void guildsKeepWhatTheyGotAcrossGenerations() {
+        MemeStore store = new MemeStore();
+        Random random = new Random(7);
+        store.merge(List.of(seen("a", 1, 0), seen("b", 1, 0)), 0);
+        String first = store.next(1, random).getId();
+        long hour = TimeUnit.HOURS.toMillis(1);
+        store.merge(List.of(seen("a", 1, hour), seen("b", 1, hour), seen("c", 1, hour)), hour);
+        Set<String> rest = new HashSet<>(Set.of("a", "b", "c"));
+        rest.remove(first);
+        assertTrue(rest.remove(store.next(1, random).getId()));
+        assertTrue(rest.remove(store.next(1, random).getId()));
+    }
+
+    @Test
+    void prefersPopularAndYoungPosts() {
+        long now = TimeUnit.DAYS.toMillis(10);
+        MemeStore.Seen popular = seen("popular", 50000, now);
+        MemeStore.Seen unknown = seen("unknown", 0, now);
+        MemeStore.Seen old = new MemeStore.Seen(meme("old", 50000), now, now - TimeUnit.DAYS.toMillis(6));
+        assertTrue(MemeStore.score(popular, now) > MemeStore.score(unknown, now));
+        assertTrue(MemeStore.score(old, now) < MemeStore.score(popular, now) / 5);
+
+        MemeStore store = new MemeStore();
+        store.merge(List.of(popular, unknown), now);
+        Random random = new Random(7);
+        int popularPicks = 0;
+        for (int i = 0; i < 10000; i++) if (store.random(random).getId().equals("popular")) popularPicks++;
+        double expected = MemeStore.score(popular, now) / (MemeStore.score(popular, now) + MemeStore.score(unknown, now));
+        assertEquals(expected, popularPicks / 10000.0, 0.02);
+    }
+
+    @Test
+    void readsListingPage() throws IOException {
+        String listing = "{\"kind\": \"Listing\", \"data\": {\"modhash\": \"\", \"children\": ["
+                + "{\"kind\": \"t3\", \"data\": {\"title\": \"Me irl\", \"preview\": {\"images\": []}, \"ups\": 1200, \"num_comments\": 34, \"id\": \"abc\", \"created_utc\": 1555000000.5, \"permalink\": \"/r/memes/comments/abc/\", \"url\": \"https://i.redd.it/abc.png\"}},"
+                + "{\"kind\": \"t3\", \"data\": {\"title\": \"Second\", \"ups\": 5, \"num_comments\": 0, \"id\": \"def\", \"permalink\": \"/r/memes/comments/def/\", \"url\": \"https://i.redd.it/def.png\"}}"
+                + "], \"after\": \"t3_def\", \"before\": null}}";
+        List<MemeStore.Seen> memes = new ArrayList<>();
+        assertEquals("t3_def", MemeStore.readListing(new JsonReader(new StringReader(listing)), memes, 5));
+        assertEquals(2, memes.size());
+        assertEquals(1555000000500L, memes.get(0).createdAt);
+        assertEquals(5, memes.get(1).createdAt);
+        SubClasses.RedditMeme first = memes.get(0).meme;
+        assertEquals("abc", first.getId());
+        assertEquals("https://i.redd.it/abc.png", first.getImageURL());
+        assertEquals("https://www.reddit.com/r/memes/comments/abc/", first.getPermLink());
+        assertEquals(1200, first.getThumbsUp());
+        assertEquals(34, first.getCommentAmount());
+        assertEquals("Me irl", first.getTitle());
+        assertNull(MemeStore.readListing(new JsonReader(new StringReader("{\"data\": {\"children\": [], \"after\": null}}")), memes, 5));
+    }
+}
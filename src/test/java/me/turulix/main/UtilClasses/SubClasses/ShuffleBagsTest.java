@@ -0,0 +1,78 @@
+package me.turulix.main.UtilClasses.SubClasses;
+
+import me.turulix.main.Listeners.TestFailListener;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TestFailListener.class)
+class ShuffleBagsTest {
+    private static AliasTable always(int index, int size) {
+        double[] weights = new double[size];
+        weights[index] = 1;
+        return new AliasTable(weights);
+    }
+
+    @Test
+    void noRepeatsUntilAllWerePicked() {
+        ShuffleBags bags = new ShuffleBags(10, TimeUnit.HOURS.toNanos(1));
+        Random random = new Random(7);
+        // Over a word boundary of the bitset
+        int size = 130;
+        for (int round = 0; round < 3; round++) {
+            Set<Integer> picked = new HashSet<>();
+            for (int i = 0; i < size; i++) assertTrue(picked.add(bags.next(1, 0, size, random, null)));
+            assertEquals(size, picked.size());
+        }
+    }
+
+    @Test
+    void guildsHaveTheirOwnBags() {
+        ShuffleBags bags = new ShuffleBags(10, TimeUnit.HOURS.toNanos(1));
+        Random random = new Random(7);
+        assertEquals(0, bags.next(1, 0, 1, random, null));
+        assertEquals(0, bags.next(2, 0, 1, random, null));
+        assertEquals(2, bags.size());
+    }
+
+    @Test
+    void takesThePreferredPickOnlyIfUnseen() {
+        ShuffleBags bags = new ShuffleBags(10, TimeUnit.HOURS.toNanos(1));
+        Random random = new Random(7);
+        assertEquals(3, bags.next(1, 0, 5, random, always(3, 5)));
+        int next = bags.next(1, 0, 5, random, always(3, 5));
+        assertNotEquals(3, next);
+        assertTrue(next >= 0 && next < 5);
+    }
+
+    @Test
+    void startsOverWhenTheListChanges() {
+        ShuffleBags bags = new ShuffleBags(10, TimeUnit.HOURS.toNanos(1));
+        Random random = new Random(7);
+        assertEquals(0, bags.next(1, 0, 2, random, always(0, 2)));
+        assertEquals(0, bags.next(1, 1, 2, random, always(0, 2)));
+        assertEquals(0, bags.next(1, 1, 3, random, always(0, 3)));
+        assertEquals(-1, bags.next(1, 1, 0, random, null));
+    }
+
+    @Test
+    void keepsSeenItemsThroughARemap() {
+        ShuffleBags bags = new ShuffleBags(10, TimeUnit.HOURS.toNanos(1));
+        Random random = new Random(7);
+        assertEquals(0, bags.next(1, 0, 3, random, always(0, 3)));
+        assertEquals(1, bags.next(1, 0, 3, random, always(1, 3)));
+        // The first item is gone, the second one moved to the front
+        ShuffleBags.Remap remap = new ShuffleBags.Remap(0, 1, new int[]{-1, 0, 1});
+        int next = bags.next(1, 1, 3, random, always(0, 3), remap);
+        assertNotEquals(0, next);
+        assertEquals(3 - next, bags.next(1, 1, 3, random, always(0, 3), remap));
+        // All were picked, the bag starts over
+        assertEquals(0, bags.next(1, 1, 3, random, always(0, 3), remap));
+    }
+}
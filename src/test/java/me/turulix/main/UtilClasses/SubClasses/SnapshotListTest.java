@@ -0,0 +1,71 @@
+package me.turulix.main.UtilClasses.SubClasses;
+
+import me.turulix.main.Listeners.TestFailListener;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TestFailListener.class)
+class SnapshotListTest {
+    private final List<String> stored = new ArrayList<>(List.of("a1", "b1"));
+    private final AtomicInteger loads = new AtomicInteger();
+    private final SnapshotList<String> list = new SnapshotList<>(() -> {
+        loads.incrementAndGet();
+        return stored;
+    }, item -> item.charAt(0));
+
+    @Test
+    void loadsOnceOnFirstRead() {
+        assertEquals("b1", list.find('b'));
+        assertEquals(List.of("a1", "b1"), list.get());
+        assertEquals(1, loads.get());
+        assertThrows(UnsupportedOperationException.class, () -> list.get().add("c1"));
+    }
+
+    @Test
+    void changesSwapSnapshotAndIndex() {
+        List<String> before = list.get();
+        list.add("c1");
+        list.add("a2");
+        assertEquals(List.of("b1", "c1", "a2"), list.get());
+        assertEquals("a2", list.find('a'));
+        assertTrue(list.remove('b'));
+        assertFalse(list.remove('b'));
+        assertNull(list.find('b'));
+        assertEquals(2, list.merge(List.of("c2", "d1", "e1")));
+        assertEquals(List.of("c1", "a2", "d1", "e1"), list.get());
+        assertEquals("c1", list.find('c'));
+        assertEquals(List.of("a1", "b1"), before);
+    }
+
+    @Test
+    void reloadReplacesEverything() {
+        list.add("c1");
+        stored.remove("a1");
+        list.reload();
+        assertEquals(List.of("b1"), list.get());
+        assertNull(list.find('a'));
+        assertNull(list.find('c'));
+    }
+
+    @Test
+    void addedItemsDontStartTheBagsOver() {
+        ShuffleBags bags = new ShuffleBags(10, TimeUnit.HOURS.toNanos(1));
+        Random random = new Random(7);
+        String first = list.next(bags, 1, random);
+        list.add("c1");
+        Set<String> rest = new HashSet<>(Set.of("a1", "b1", "c1"));
+        rest.remove(first);
+        assertTrue(rest.remove(list.next(bags, 1, random)));
+        assertTrue(rest.remove(list.next(bags, 1, random)));
+    }
+}
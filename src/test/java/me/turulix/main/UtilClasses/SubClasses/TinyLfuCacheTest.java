@@ -0,0 +1,127 @@
+package me.turulix.main.UtilClasses.SubClasses;
+
+import me.turulix.main.Listeners.TestFailListener;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TestFailListener.class)
+class TinyLfuCacheTest {
+    private long now;
+
+    @Test
+    void putGetRemove() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(10);
+        assertNull(cache.put("a", "1"));
+        assertEquals("1", cache.put("a", "2"));
+        assertEquals("2", cache.get("a"));
+        assertTrue(cache.contains("a"));
+        assertEquals("2", cache.remove("a"));
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void staysBounded() {
+        LongTinyLfuCache<String> cache = new LongTinyLfuCache<>(100);
+        for (long i = 0; i < 10000; i++) cache.put(i, "value");
+        assertEquals(100, cache.size());
+        assertEquals(9900, cache.getEvictions());
+    }
+
+    @Test
+    void reportsRemovals() {
+        ConcurrentLongMap<String> removed = new ConcurrentLongMap<>();
+        LongTinyLfuCache<String> cache = new LongTinyLfuCache<>(10, 1000, () -> now, removed::put);
+        for (long i = 0; i < 20; i++) cache.put(i, "value " + i);
+        assertEquals(10, removed.size());
+        cache.put(cache.contains(19) ? 19 : 0, "replaced");
+        assertEquals(10, removed.size());
+        long kept = cache.contains(19) ? 19 : 0;
+        cache.remove(kept);
+        assertEquals("replaced", removed.get(kept));
+        now = 1000;
+        for (long i = 0; i < 20; i++) cache.get(i);
+        assertEquals(20, removed.size());
+    }
+
+    @Test
+    void hotKeysSurviveScan() {
+        LongTinyLfuCache<String> cache = new LongTinyLfuCache<>(100);
+        for (int round = 0; round < 20; round++)
+            for (long i = 0; i < 50; i++) cache.get(i, key -> "guild " + key);
+        // Lots of guilds that are used only once in between the hot ones
+        for (long i = 1000; i < 100000; i++) {
+            cache.put(i, "once");
+            if (i % 1000 == 0) for (long hot = 0; hot < 50; hot++) cache.get(hot);
+        }
+        for (long i = 0; i < 50; i++) assertEquals("guild " + i, cache.get(i));
+    }
+
+    @Test
+    void expiresAfterWrite() {
+        LongTinyLfuCache<String> cache = new LongTinyLfuCache<>(100, 1000, () -> now);
+        cache.put(1, "a");
+        now = 999;
+        assertEquals("a", cache.get(1));
+        now = 1000;
+        assertNull(cache.get(1));
+        assertEquals(0, cache.size());
+        cache.put(1, "b");
+        assertEquals("b", cache.get(1));
+    }
+
+    @Test
+    void expiresAfterAccess() {
+        LongTinyLfuCache<String> cache = new LongTinyLfuCache<>(100, 1000, true, () -> now, null);
+        cache.put(1, "a");
+        now = 999;
+        assertEquals("a", cache.get(1));
+        now = 1998;
+        assertEquals("a", cache.get(1));
+        now = 2998;
+        assertNull(cache.get(1));
+    }
+
+    @Test
+    void computeIfAbsentKeepsTheFirstValue() {
+        LongTinyLfuCache<String> cache = new LongTinyLfuCache<>(100, 1000, () -> now);
+        assertEquals("a", cache.computeIfAbsent(1, key -> "a"));
+        assertEquals("a", cache.computeIfAbsent(1, key -> "b"));
+        now = 1000;
+        assertEquals("c", cache.computeIfAbsent(1, key -> "c"));
+        assertNull(cache.computeIfAbsent(2, key -> null));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void concurrentReadsAndWrites() throws Exception {
+        LongTinyLfuCache<Long> cache = new LongTinyLfuCache<>(500);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        Future<?>[] futures = new Future[8];
+        for (int t = 0; t < futures.length; t++) {
+            futures[t] = executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 100000; i++) {
+                    long key = random.nextInt(2000);
+                    Long value = cache.get(key);
+                    if (value != null) assertEquals(key, (long) value);
+                    else cache.put(key, key);
+                    if (i % 1000 == 0) cache.remove(random.nextInt(2000));
+                }
+            });
+        }
+        for (Future<?> future : futures) future.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+        assertTrue(cache.size() <= 500);
+    }
+}
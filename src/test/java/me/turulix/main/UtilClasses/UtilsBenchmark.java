@@ -0,0 +1,77 @@
+package me.turulix.main.UtilClasses;
+
+import com.jagrosh.jdautilities.commons.utils.FinderUtil;
+import me.turulix.main.FakeDiscord;
+import me.turulix.main.UtilClasses.SubClasses.LongTinyLfuCache;
+import net.dv8tion.jda.core.entities.Member;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The helpers commands call on every invocation: {@link LongTinyLfuCache}, {@link FinderUtil} and {@link ArgsUtils}.
+ *
+ * @author Turulix
+ * @project NotDankMemer
+ * @since 17.10.2026 18:10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UtilsBenchmark {
+    @Param({"100", "5000"})
+    public int members;
+
+    private FakeDiscord discord;
+    private LongTinyLfuCache<String> cache;
+    private long key;
+    private String mentionArgs;
+    private String idArgs;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(UtilsBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        discord = new FakeDiscord(members);
+        cache = new LongTinyLfuCache<>(1000);
+        long id = discord.users.get(members / 2).getIdLong();
+        mentionArgs = "<@" + id + "> <@!" + id + "> for spamming memes";
+        idArgs = id + " 10m too many memes";
+    }
+
+    @Benchmark
+    public String cachePutGet() {
+        long current = key++;
+        cache.put(current % 2000, "prefix");
+        return cache.get((current * 7) % 2000);
+    }
+
+    @Benchmark
+    public List<Member> findMembersByName() {
+        return FinderUtil.findMembers("user" + (members / 2), discord.guild);
+    }
+
+    @Benchmark
+    public List<Member> findMembersByMention() {
+        return FinderUtil.findMembers(discord.members.get(members / 2).getAsMention(), discord.guild);
+    }
+
+    @Benchmark
+    public ArgsUtils.ResolvedArgs resolveMentions() {
+        return ArgsUtils.resolve(mentionArgs, discord.guild);
+    }
+
+    @Benchmark
+    public ArgsUtils.ResolvedArgs resolveIdWithTime() {
+        return ArgsUtils.resolve(idArgs, true, discord.guild);
+    }
+}
@@ -0,0 +1,80 @@
+package me.turulix.main.i18n;
+
+import me.turulix.main.Database.Manager.UserManager;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Locale;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the compiled {@link MessageCatalog} against the old ResourceBundle lookup of {@link I18nContext#get(String)}.
+ *
+ * @author Turulix
+ * @project NotDankMemer
+ * @since 17.10.2026 14:05
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class I18nContextBenchmark {
+    @Param({"en_US", "de_DE"})
+    public String lang;
+    @Param({"helpWord", "command.love.bad"})
+    public String key;
+
+    private UserManager.UserSettings userSettings;
+    private I18nContext context;
+    private MessageKey messageKey;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(I18nContextBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * The lookup {@link I18nContext#get(String)} did before the catalog: a Locale per call and a bundle per try.
+     */
+    private static String resourceBundleLookup(String lang, String key) {
+        try {
+            ResourceBundle context = I18n.getResourceBundle(new Locale(lang.split("_")[0], lang.split("_")[1]));
+            return context.getString(key);
+        } catch (MissingResourceException ignored) {
+        }
+        return I18n.getResourceBundle(new Locale("en", "US")).getString(key);
+    }
+
+    @Setup
+    public void setUp() {
+        userSettings = new UserManager.UserSettings(lang, true);
+        context = new I18nContext(null, userSettings);
+        messageKey = MessageKey.of(key);
+        I18n.getCatalog();
+    }
+
+    @Benchmark
+    public String resourceBundle() {
+        return resourceBundleLookup(lang, key);
+    }
+
+    @Benchmark
+    public String catalogNewContext() {
+        return new I18nContext(null, userSettings).get(key);
+    }
+
+    @Benchmark
+    public String catalogSharedContext() {
+        return context.get(key);
+    }
+
+    @Benchmark
+    public String catalogMessageKey() {
+        return context.get(messageKey);
+    }
+}